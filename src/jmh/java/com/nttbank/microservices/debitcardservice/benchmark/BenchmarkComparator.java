@@ -0,0 +1,110 @@
+package com.nttbank.microservices.debitcardservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Compares a JMH JSON result with the committed baseline and exits with status 1 when a benchmark
+ * regressed by more than the allowed ratio, or has no baseline. Time modes regress when the score
+ * grows, throughput modes when it drops. With {@code -Dbenchmark.updateBaseline} the current
+ * result replaces the baseline instead, to be reviewed and committed.
+ *
+ * <p>Usage: {@code BenchmarkComparator <baseline.json> <result.json> [max-regression]}
+ */
+public final class BenchmarkComparator {
+
+  private static final String UPDATE_BASELINE = "benchmark.updateBaseline";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private BenchmarkComparator() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BenchmarkComparator <baseline.json> <result.json> "
+          + "[max-regression]");
+      System.exit(2);
+    }
+    Path baseline = Path.of(args[0]);
+    Path result = Path.of(args[1]);
+    double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+    if (Boolean.getBoolean(UPDATE_BASELINE)) {
+      Files.createDirectories(baseline.toAbsolutePath().getParent());
+      Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+      System.out.println("Recorded " + result + " as " + baseline);
+      return;
+    }
+    if (Files.notExists(baseline)) {
+      System.err.println("No baseline found at " + baseline + ", record one with -D"
+          + UPDATE_BASELINE);
+      System.exit(1);
+    }
+
+    List<String> regressions = compare(read(baseline), read(result), maxRegression);
+    if (!regressions.isEmpty()) {
+      regressions.forEach(System.err::println);
+      System.exit(1);
+    }
+    System.out.println("No benchmark regressed by more than " + (maxRegression * 100) + "%");
+  }
+
+  /**
+   * Returns a description of every benchmark that regressed by more than the allowed ratio or has
+   * no baseline score.
+   *
+   * @param baseline      the baseline scores by benchmark key.
+   * @param current       the current scores by benchmark key.
+   * @param maxRegression the allowed relative regression, e.g. 0.10.
+   * @return the regressions, empty when there are none.
+   */
+  static List<String> compare(Map<String, Score> baseline, Map<String, Score> current,
+      double maxRegression) {
+    List<String> regressions = new ArrayList<>();
+    for (Entry<String, Score> entry : current.entrySet()) {
+      Score before = baseline.get(entry.getKey());
+      if (before == null) {
+        regressions.add("MISSING BASELINE " + entry.getKey());
+        continue;
+      }
+      Score after = entry.getValue();
+      double change = (after.value() - before.value()) / before.value();
+      double regression = after.higherIsBetter() ? -change : change;
+      System.out.printf("%s: %.3f -> %.3f %s (%+.1f%%)%n", entry.getKey(), before.value(),
+          after.value(), after.unit(), change * 100);
+      if (regression > maxRegression) {
+        regressions.add(String.format("REGRESSION %s: %.3f -> %.3f %s", entry.getKey(),
+            before.value(), after.value(), after.unit()));
+      }
+    }
+    return regressions;
+  }
+
+  static Map<String, Score> read(Path path) throws IOException {
+    Map<String, Score> scores = new LinkedHashMap<>();
+    for (JsonNode run : MAPPER.readTree(path.toFile())) {
+      StringBuilder key = new StringBuilder(run.path("benchmark").asText())
+          .append(" [").append(run.path("mode").asText());
+      run.path("params").fields().forEachRemaining(param ->
+          key.append(", ").append(param.getKey()).append('=').append(param.getValue().asText()));
+      key.append(']');
+      JsonNode metric = run.path("primaryMetric");
+      scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+          metric.path("scoreUnit").asText(), "thrpt".equals(run.path("mode").asText())));
+    }
+    return scores;
+  }
+
+  record Score(double value, String unit, boolean higherIsBetter) {
+  }
+
+}
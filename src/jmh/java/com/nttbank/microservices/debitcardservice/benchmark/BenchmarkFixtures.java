@@ -0,0 +1,42 @@
+package com.nttbank.microservices.debitcardservice.benchmark;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import java.util.Set;
+
+/** Sample data shared by the benchmarks. */
+final class BenchmarkFixtures {
+
+  static final String CARD_NUMBER = "4557-8812-0034-7719";
+  static final String MAIN_ACCOUNT_ID = "65a1f0c2e4b0a93d2c7f1e88";
+
+  private BenchmarkFixtures() {
+  }
+
+  static DebitCardRecord debitCardRecord(Set<String> linkedAccounts) {
+    return DebitCardRecord.builder()
+        .id("65a1f0c2e4b0a93d2c7f1e00")
+        .customerId("65a1f0c2e4b0a93d2c7f1e01")
+        .cardNumber(CARD_NUMBER)
+        .cardholderName("JESUS FERNANDEZ")
+        .expirationDate("12/29")
+        .cvv("123")
+        .mainAccountId(MAIN_ACCOUNT_ID)
+        .linkedAccounts(linkedAccounts)
+        .build();
+  }
+
+  static DebitCard debitCard(Set<String> linkedAccounts) {
+    return DebitCard.builder()
+        .id("65a1f0c2e4b0a93d2c7f1e00")
+        .customerId("65a1f0c2e4b0a93d2c7f1e01")
+        .cardNumber(CARD_NUMBER)
+        .cardholderName("JESUS FERNANDEZ")
+        .expirationDate("12/29")
+        .cvv("123")
+        .mainAccountId(MAIN_ACCOUNT_ID)
+        .linkedAccounts(linkedAccounts)
+        .build();
+  }
+
+}
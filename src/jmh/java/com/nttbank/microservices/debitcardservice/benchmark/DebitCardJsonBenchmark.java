@@ -0,0 +1,56 @@
+package com.nttbank.microservices.debitcardservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the JSON serialization of {@link DebitCard} as done by the WebFlux codecs, with an
+ * {@link ObjectMapper} configured like Spring Boot's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DebitCardJsonBenchmark {
+
+  private ObjectMapper objectMapper;
+  private DebitCard debitCard;
+  private byte[] json;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    debitCard = BenchmarkFixtures.debitCard(Set.of("65a1f0c2e4b0a93d2c7f1e89",
+        "65a1f0c2e4b0a93d2c7f1e90"));
+    json = objectMapper.writeValueAsBytes(debitCard);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(debitCard);
+  }
+
+  @Benchmark
+  public DebitCard deserialize() throws IOException {
+    return objectMapper.readValue(json, DebitCard.class);
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.nttbank.microservices.debitcardservice.benchmark;
+
+import com.nttbank.microservices.debitcardservice.mapper.DebitCardMapper;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link DebitCardMapper#debitCardRecordToDebitCard}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DebitCardMapperBenchmark {
+
+  private DebitCardMapper mapper;
+  private DebitCardRecord record;
+
+  @Setup
+  public void setUp() {
+    mapper = DebitCardMapper.INSTANCE;
+    record = BenchmarkFixtures.debitCardRecord(Set.of("65a1f0c2e4b0a93d2c7f1e89",
+        "65a1f0c2e4b0a93d2c7f1e90", "65a1f0c2e4b0a93d2c7f1e91"));
+  }
+
+  @Benchmark
+  public DebitCard debitCardRecordToDebitCard() {
+    return mapper.debitCardRecordToDebitCard(record);
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.nttbank.microservices.debitcardservice.benchmark;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.util.serialization.EventContentType;
+import com.nttbank.microservices.debitcardservice.util.serialization.GenericEventDeserializer;
+import com.nttbank.microservices.debitcardservice.util.serialization.GenericEventSerializer;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Compares the JSON and Avro encodings of the Kafka events on serialization and deserialization
+ * time. The {@code bytes} secondary result reports the encoded size of one event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenericEventSerializationBenchmark {
+
+  private static final String TOPIC = "benchmark";
+
+  @Param({"json", "avro"})
+  public String format;
+
+  @Param({"transfer", "result"})
+  public String event;
+
+  private GenericEventSerializer serializer;
+  private GenericEventDeserializer deserializer;
+  private GenericEvent payload;
+  private RecordHeaders headers;
+  private byte[] encoded;
+
+  /** Secondary result holding the encoded size. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Size {
+
+    public long bytes;
+
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    serializer = new GenericEventSerializer();
+    serializer.configure(Map.of(EventContentType.FORMAT_CONFIG, format), false);
+    deserializer = new GenericEventDeserializer();
+    deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES,
+        "com.nttbank.microservices.*"), false);
+    payload = "transfer".equals(event) ? transferEvent() : resultEvent();
+    headers = new RecordHeaders();
+    encoded = serializer.serialize(TOPIC, headers, payload);
+  }
+
+  @Benchmark
+  public byte[] serialize(Size size) {
+    byte[] bytes = serializer.serialize(TOPIC, new RecordHeaders(), payload);
+    size.bytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public GenericEvent deserialize() {
+    return deserializer.deserialize(TOPIC, headers, encoded);
+  }
+
+  static TransferDebitCardEvent transferEvent() {
+    TransferDebitCardEvent transfer = new TransferDebitCardEvent();
+    transfer.setTransactionId("6f1c2a9e-3b7d-4c1e-9a55-2f8d0b7e4c11");
+    transfer.setDebitCardNumber("4557-8812-0034-7719");
+    transfer.setType("WITHDRAW_DEBIT_CARD");
+    transfer.setAccountId("65a1f0c2e4b0a93d2c7f1e88");
+    transfer.setAmount(new BigDecimal("125.50"));
+    return transfer;
+  }
+
+  static DebitCardTransactionEvent resultEvent() {
+    return DebitCardTransactionEvent.builder()
+        .transId("6f1c2a9e-3b7d-4c1e-9a55-2f8d0b7e4c11")
+        .debitCardNumber("4557-8812-0034-7719")
+        .type("WITHDRAW_DEBIT_CARD")
+        .accountId("65a1f0c2e4b0a93d2c7f1e88")
+        .amount(new BigDecimal("125.50"))
+        .balanceUpdated(new BigDecimal("874.50"))
+        .status("completed")
+        .description("transaction completed successfully")
+        .build();
+  }
+
+}
@@ -0,0 +1,270 @@
+package com.nttbank.microservices.debitcardservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.config.CloudGatewayResilienceProperties;
+import com.nttbank.microservices.debitcardservice.config.KafkaConsumerConfig;
+import com.nttbank.microservices.debitcardservice.config.TransferLaneProperties;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import com.nttbank.microservices.debitcardservice.model.request.AccountTransferRequest;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransferBatchItemResponse;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayFeign;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayResilience;
+import com.nttbank.microservices.debitcardservice.service.AccountLookupCache;
+import com.nttbank.microservices.debitcardservice.service.AccountService;
+import com.nttbank.microservices.debitcardservice.service.AccountTransferBatcher;
+import com.nttbank.microservices.debitcardservice.service.CardAggregateStore;
+import com.nttbank.microservices.debitcardservice.service.DebitCardCache;
+import com.nttbank.microservices.debitcardservice.service.DebitCardCacheSynchronizer;
+import com.nttbank.microservices.debitcardservice.service.FundingAccountSelector;
+import com.nttbank.microservices.debitcardservice.service.OutboxService;
+import com.nttbank.microservices.debitcardservice.service.TransactionLedger;
+import com.nttbank.microservices.debitcardservice.service.TransferIdempotencyStore;
+import com.nttbank.microservices.debitcardservice.service.TransferLanes;
+import com.nttbank.microservices.debitcardservice.service.TransferLimitEngine;
+import com.nttbank.microservices.debitcardservice.service.impl.DebitCardImpl;
+import com.nttbank.microservices.debitcardservice.service.repository.IDebitCardRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.reactive.TransactionCallback;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the whole {@link KafkaConsumerConfig#listenBatch} pipeline for a poll of one transfer
+ * event: lane scheduling, debit card lookup, resilience decoration of the account transfer, result
+ * event creation, serialization into the outbox and acknowledgement. Mongo and the cloud gateway
+ * are replaced by in-memory stubs, and request batching is off so the batching window does not
+ * dominate the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferPipelineBenchmark {
+
+  private TransferLanes lanes;
+  private AccountTransferBatcher transferBatcher;
+  private KafkaConsumerConfig consumer;
+  private String topic;
+  private Acknowledgment ack;
+
+  @Setup
+  public void setUp() throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    DebitCard debitCard = BenchmarkFixtures.debitCard(Set.of());
+
+    DebitCardCache cache = new DebitCardCache(meterRegistry, 1000, Duration.ofMinutes(5));
+    DebitCardImpl service = new DebitCardImpl(repository(debitCard),
+        new SerializingOutboxService(), cache, new DebitCardCacheSynchronizer(cache, null));
+
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry,
+        new CloudGatewayResilienceProperties());
+    CloudGatewayFeign feign = new StubCloudGatewayFeign();
+    transferBatcher = new AccountTransferBatcher(feign, resilience, false, 50,
+        Duration.ofMillis(5), 8, Duration.ofMinutes(5));
+    AccountService accountService = new AccountService(feign, transferBatcher,
+        new AccountLookupCache(meterRegistry, 1000, Duration.ofSeconds(30), Duration.ofSeconds(5)),
+        resilience);
+
+    TransferLaneProperties laneProperties = new TransferLaneProperties();
+    lanes = new TransferLanes(meterRegistry, laneProperties);
+    CardAggregateStore aggregates = new DiscardingAggregateStore(meterRegistry);
+    consumer = new KafkaConsumerConfig(service, accountService, null, lanes,
+        new AcceptingIdempotencyStore(meterRegistry), new PassThroughTransactionalOperator(),
+        meterRegistry, ObservationRegistry.NOOP, new DiscardingTransactionLedger(meterRegistry),
+        aggregates, new TransferLimitEngine(accountService, aggregates, meterRegistry, true),
+        new FundingAccountSelector(accountService, meterRegistry, true, 5), laneProperties);
+    setField(consumer, "batchTimeout", Duration.ofSeconds(10));
+    topic = laneProperties.getManagement().getTopic();
+    ack = () -> { };
+  }
+
+  @TearDown
+  public void tearDown() {
+    transferBatcher.shutdown();
+    lanes.shutdown();
+  }
+
+  @Benchmark
+  public void listenBatch() {
+    TransferDebitCardEvent transfer = new TransferDebitCardEvent();
+    transfer.setTransactionId(UUID.randomUUID().toString());
+    transfer.setDebitCardNumber(BenchmarkFixtures.CARD_NUMBER);
+    transfer.setType("WITHDRAW_DEBIT_CARD");
+    transfer.setAccountId("65a1f0c2e4b0a93d2c7f1e89");
+    transfer.setAmount(new BigDecimal("125.50"));
+    ConsumerRecord<String, GenericEvent<? extends GenericEvent>> rec =
+        new ConsumerRecord<>(topic, 0, 0, transfer.getDebitCardNumber(), transfer);
+    consumer.listenBatch(List.of(rec), ack);
+  }
+
+  private static IDebitCardRepo repository(DebitCard debitCard) {
+    return (IDebitCardRepo) Proxy.newProxyInstance(IDebitCardRepo.class.getClassLoader(),
+        new Class<?>[] {IDebitCardRepo.class}, (proxy, method, args) -> switch (method.getName()) {
+          case "findByCardNumber", "findById" -> Mono.just(debitCard);
+          case "toString" -> "StubDebitCardRepo";
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  private static void setField(Object target, String name, Object value) throws Exception {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  private static final class StubCloudGatewayFeign implements CloudGatewayFeign {
+
+    @Override
+    public Mono<AccountTransactionsResponse> accountTransfer(String fromAccountId,
+        String toAccountId, BigDecimal amount) {
+      return Mono.just(AccountTransactionsResponse.builder()
+          .amount(amount)
+          .balanceAfterMovement(new BigDecimal("874.50"))
+          .build());
+    }
+
+    @Override
+    public Mono<List<AccountTransferBatchItemResponse>> accountTransferBatch(
+        List<AccountTransferRequest> transfers) {
+      return Flux.fromIterable(transfers)
+          .flatMap(request -> accountTransfer(request.getFromAccountId(),
+              request.getToAccountId(), request.getAmount())
+              .map(response -> AccountTransferBatchItemResponse.builder()
+                  .requestId(request.getRequestId())
+                  .status(200)
+                  .transaction(response)
+                  .build()))
+          .collectList();
+    }
+
+    @Override
+    public Mono<BankAccountResponse> findById(String accountId) {
+      return Mono.just(BankAccountResponse.builder().id(accountId).build());
+    }
+
+  }
+
+  private static final class SerializingOutboxService extends OutboxService {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    SerializingOutboxService() {
+      super(null, null, null);
+    }
+
+    @Override
+    public Mono<Void> enqueue(GenericEvent event) {
+      return Mono.fromCallable(() -> objectMapper.writeValueAsString(event)).then();
+    }
+
+  }
+
+  private static final class AcceptingIdempotencyStore extends TransferIdempotencyStore {
+
+    AcceptingIdempotencyStore(SimpleMeterRegistry meterRegistry) {
+      super(null, meterRegistry, 1, Duration.ofMinutes(1), Duration.ofMinutes(2));
+    }
+
+    @Override
+    public Mono<Claim> tryAcquire(String transactionId, String cardNumber) {
+      return Mono.just(Claim.NEW);
+    }
+
+    @Override
+    public Mono<Void> recordResult(String transactionId, DebitCardTransactionEvent result) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> complete(String transactionId, String status) {
+      return Mono.empty();
+    }
+
+  }
+
+  private static final class DiscardingTransactionLedger extends TransactionLedger {
+
+    DiscardingTransactionLedger(SimpleMeterRegistry meterRegistry) {
+      super(null, meterRegistry, 1, Duration.ofMinutes(1), 1, 0, 12);
+    }
+
+    @Override
+    public Mono<Void> record(TransferDebitCardEvent transfer, DebitCardTransactionEvent result) {
+      return Mono.empty();
+    }
+
+  }
+
+  private static final class DiscardingAggregateStore extends CardAggregateStore {
+
+    DiscardingAggregateStore(SimpleMeterRegistry meterRegistry) {
+      super(null, meterRegistry, 1, Duration.ofMinutes(1));
+    }
+
+    @Override
+    public Mono<Void> apply(DebitCardTransactionEvent event) {
+      return Mono.empty();
+    }
+
+    @Override
+    public Mono<DebitCardAggregate> findDay(String cardNumber, LocalDate day) {
+      return Mono.just(DebitCardAggregate.builder().build());
+    }
+
+    @Override
+    public Mono<DebitCardAggregate> findMonth(String cardNumber, YearMonth month) {
+      return Mono.just(DebitCardAggregate.builder().build());
+    }
+
+  }
+
+  private static final class PassThroughTransactionalOperator implements TransactionalOperator {
+
+    @Override
+    public <T> Flux<T> execute(TransactionCallback<T> action) {
+      return Flux.from(action.doInTransaction(null));
+    }
+
+    @Override
+    public <T> Mono<T> transactional(Mono<T> mono) {
+      return mono;
+    }
+
+  }
+
+}
@@ -0,0 +1,102 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Samples, once per second, the lag of the service's consumer group of every transfer lane topic
+ * together with the number of transfers produced and completed so far.
+ */
+class ConsumerLagSampler implements AutoCloseable {
+
+  private final Admin admin;
+  private final List<String> topics;
+  private final Map<String, String> groups;
+  private final LongAdder produced;
+  private final LongAdder completed;
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+  private final List<String> rows = new CopyOnWriteArrayList<>();
+  private final long startNanos = System.nanoTime();
+
+  ConsumerLagSampler(String bootstrapServers, List<String> topics, Map<String, String> groups,
+      LongAdder produced, LongAdder completed) {
+    this.admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+        bootstrapServers));
+    this.topics = topics;
+    this.groups = groups;
+    this.produced = produced;
+    this.completed = completed;
+    executor.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
+  }
+
+  private void sample() {
+    String elapsed = String.format("%.1f", (System.nanoTime() - startNanos) / 1e9);
+    try {
+      Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+      for (String group : new HashSet<>(groups.values())) {
+        admin.listConsumerGroupOffsets(group).partitionsToOffsetAndMetadata()
+            .get(5, TimeUnit.SECONDS)
+            .forEach((partition, offset) -> {
+              if (group.equals(groups.get(partition.topic()))) {
+                committed.put(partition, offset);
+              }
+            });
+      }
+      Map<String, TopicDescription> descriptions = admin.describeTopics(topics).allTopicNames()
+          .get(5, TimeUnit.SECONDS);
+      List<TopicPartition> partitions = topics.stream()
+          .flatMap(topic -> descriptions.get(topic).partitions().stream()
+              .map(info -> new TopicPartition(topic, info.partition())))
+          .toList();
+      Map<TopicPartition, ListOffsetsResultInfo> ends = admin.listOffsets(partitions.stream()
+              .collect(Collectors.toMap(Function.identity(), p -> OffsetSpec.latest())))
+          .all().get(5, TimeUnit.SECONDS);
+      String lags = topics.stream()
+          .map(topic -> String.valueOf(partitions.stream()
+              .filter(p -> p.topic().equals(topic))
+              .mapToLong(p -> ends.get(p).offset() - (committed.containsKey(p)
+                  && committed.get(p) != null ? committed.get(p).offset() : 0))
+              .sum()))
+          .collect(Collectors.joining(","));
+      rows.add(String.format("%s,%s,%d,%d", elapsed, lags, produced.sum(), completed.sum()));
+    } catch (Exception e) {
+      rows.add(String.format("%s,%s,%d,%d", elapsed, ",".repeat(topics.size() - 1),
+          produced.sum(), completed.sum()));
+    }
+  }
+
+  void writeCsv(Path file) throws IOException {
+    Files.createDirectories(file.getParent());
+    StringBuilder csv = new StringBuilder("elapsed_seconds,");
+    topics.forEach(topic -> csv.append("lag_").append(topic).append(','));
+    csv.append("produced,completed\n");
+    rows.forEach(row -> csv.append(row).append('\n'));
+    Files.writeString(file, csv);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    admin.close();
+  }
+
+}
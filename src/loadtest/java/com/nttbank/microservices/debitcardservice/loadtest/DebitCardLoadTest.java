@@ -0,0 +1,76 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.nttbank.microservices.debitcardservice.DebitcardServiceApplication;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * End-to-end load test. Starts the service against the {@link LoadTestEnvironment} stand-ins,
+ * seeds debit cards, then drives the REST endpoints and the transfer lane topics at the
+ * configured rates. Results are written to {@code target/loadtest}: {@code summary.txt}, one
+ * {@code .hgrm} percentile distribution per operation and {@code consumer-lag.csv}.
+ *
+ * <p>Run with {@code mvn -Ploadtest test -Dloadtest.kafka.rate=2000 -Dloadtest.duration=PT2M}.
+ */
+@Tag("load")
+class DebitCardLoadTest {
+
+  private static final Path OUTPUT = Path.of("target", "loadtest");
+
+  @Test
+  void driveTargetLoad() throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    try (LoadTestEnvironment environment = new LoadTestEnvironment(settings);
+        ConfigurableApplicationContext context =
+            new SpringApplicationBuilder(DebitcardServiceApplication.class)
+                .run(environment.applicationArguments())) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      WebClient client = WebClient.builder()
+          .baseUrl("http://localhost:" + port + "/debitcards")
+          .build();
+      List<DebitCard> cards = RestLoadGenerator.seed(client, settings.cards())
+          .block(Duration.ofMinutes(5));
+
+      RestLoadGenerator rest = new RestLoadGenerator(client, cards);
+      try (TransferLoadGenerator transfers =
+               new TransferLoadGenerator(environment.kafkaBootstrapServers(), cards);
+           ConsumerLagSampler lag = new ConsumerLagSampler(
+               environment.kafkaBootstrapServers(), LoadTestEnvironment.LANE_TOPICS,
+               LoadTestEnvironment.LANE_GROUPS, transfers.produced(),
+               transfers.completed())) {
+        long measureFrom = System.nanoTime() + settings.warmup().toNanos();
+        rest.measureFrom(measureFrom);
+        transfers.stats().forEach(stat -> stat.measureFrom(measureFrom));
+        Duration total = settings.warmup().plus(settings.duration());
+
+        Mono.when(rest.run(settings.restRate(), total, settings.maxInFlight()),
+                transfers.run(settings.kafkaRate(), total))
+            .block(total.plusMinutes(5));
+
+        long drainDeadline = System.nanoTime() + settings.drainTimeout().toNanos();
+        while (transfers.outstanding() > 0 && System.nanoTime() < drainDeadline) {
+          Thread.sleep(100);
+        }
+
+        List<LatencyStats> stats = new ArrayList<>(rest.stats().values());
+        stats.addAll(transfers.stats());
+        System.out.println(LoadReport.write(OUTPUT, settings.duration(), stats));
+        lag.writeCsv(OUTPUT.resolve("consumer-lag.csv"));
+        assertFalse(cards.isEmpty(), "no debit card could be seeded");
+      }
+    }
+  }
+
+}
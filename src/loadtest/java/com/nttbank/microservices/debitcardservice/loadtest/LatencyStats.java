@@ -0,0 +1,59 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency and outcome counters of one operation. Only operations whose intended start falls after
+ * the warm-up are recorded.
+ */
+class LatencyStats {
+
+  private final String name;
+  private final Recorder recorder = new Recorder(3);
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private volatile long measureFromNanos = Long.MAX_VALUE;
+
+  LatencyStats(String name) {
+    this.name = name;
+  }
+
+  String name() {
+    return name;
+  }
+
+  void measureFrom(long nanos) {
+    measureFromNanos = nanos;
+  }
+
+  void success(long intendedStartNanos) {
+    if (intendedStartNanos >= measureFromNanos) {
+      recorder.recordValue(Math.max(0, System.nanoTime() - intendedStartNanos));
+    }
+  }
+
+  void error(long intendedStartNanos) {
+    if (intendedStartNanos >= measureFromNanos) {
+      errors.increment();
+    }
+  }
+
+  void dropped() {
+    dropped.increment();
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+  long droppedCount() {
+    return dropped.sum();
+  }
+
+  Histogram snapshot() {
+    return recorder.getIntervalHistogram();
+  }
+
+}
@@ -0,0 +1,47 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Writes the outcome of a run: a summary table with throughput and p50/p99/p99.9 latencies per
+ * operation, and the full HdrHistogram percentile distribution of each operation.
+ */
+final class LoadReport {
+
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+
+  private LoadReport() {
+  }
+
+  static String write(Path directory, Duration measured, Collection<LatencyStats> stats)
+      throws IOException {
+    Files.createDirectories(directory);
+    StringBuilder summary = new StringBuilder(String.format(
+        "%-16s %10s %10s %8s %8s %10s %10s %10s %10s%n", "operation", "count", "ops/s",
+        "errors", "dropped", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+    for (LatencyStats stat : stats) {
+      Histogram histogram = stat.snapshot();
+      summary.append(String.format("%-16s %10d %10.1f %8d %8d %10.2f %10.2f %10.2f %10.2f%n",
+          stat.name(), histogram.getTotalCount(),
+          histogram.getTotalCount() / (measured.toNanos() / 1e9), stat.errors(),
+          stat.droppedCount(),
+          histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+          histogram.getMaxValue() / NANOS_PER_MILLI));
+      try (PrintStream out = new PrintStream(
+          directory.resolve(stat.name() + ".hgrm").toFile())) {
+        histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+      }
+    }
+    Files.writeString(directory.resolve("summary.txt"), summary);
+    return summary.toString();
+  }
+
+}
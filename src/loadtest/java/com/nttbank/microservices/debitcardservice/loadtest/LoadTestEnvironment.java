@@ -0,0 +1,142 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.commands.MongodArguments;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import de.flapdoodle.reverse.transitions.Start;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import reactor.core.publisher.Mono;
+
+/**
+ * Containerless stand-ins for the platform around the service: a single-node Mongo replica set
+ * (transactions need one), an embedded Kafka broker and a WireMock {@code cloud-gateway} whose
+ * account endpoints answer after a log-normal delay around the configured median.
+ */
+class LoadTestEnvironment implements AutoCloseable {
+
+  static final String TRANSFER_TOPIC = "debitcard-service-management-v1";
+  static final String SPEND_TOPIC = "debitcard-service-card-spends-v1";
+  static final String TOP_UP_TOPIC = "debitcard-service-card-top-ups-v1";
+  static final List<String> LANE_TOPICS = List.of(SPEND_TOPIC, TOP_UP_TOPIC, TRANSFER_TOPIC);
+  static final String RESULT_TOPIC = "debitcard-transactions-loadtest";
+  static final String CARD_CHANGES_TOPIC = "debitcard-card-changes-loadtest";
+  static final String CONSUMER_GROUP = "debitcard-loadtest";
+  static final String SPEND_GROUP = CONSUMER_GROUP + "-spends";
+  static final String TOP_UP_GROUP = CONSUMER_GROUP + "-top-ups";
+  static final Map<String, String> LANE_GROUPS = Map.of(SPEND_TOPIC, SPEND_GROUP,
+      TOP_UP_TOPIC, TOP_UP_GROUP, TRANSFER_TOPIC, CONSUMER_GROUP);
+
+  private static final String REPLICA_SET = "rs0";
+
+  private final TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+  private final EmbeddedKafkaKraftBroker kafka;
+  private final WireMockServer gateway;
+  private final String mongoUri;
+
+  LoadTestEnvironment(LoadTestSettings settings) {
+    mongod = Mongod.instance()
+        .withMongodArguments(Start.to(MongodArguments.class)
+            .initializedWith(MongodArguments.defaults()
+                .withReplication(Storage.of(REPLICA_SET, 128))))
+        .start(Version.Main.V7_0);
+    ServerAddress address = mongod.current().getServerAddress();
+    String hostPort = address.getHost() + ":" + address.getPort();
+    initiateReplicaSet(hostPort);
+    mongoUri = "mongodb://" + hostPort + "/debitcard-loadtest?directConnection=true";
+
+    kafka = new EmbeddedKafkaKraftBroker(1, settings.partitions(), TRANSFER_TOPIC, SPEND_TOPIC,
+        TOP_UP_TOPIC, RESULT_TOPIC, CARD_CHANGES_TOPIC);
+    kafka.afterPropertiesSet();
+
+    gateway = new WireMockServer(options()
+        .dynamicPort()
+        .containerThreads(200)
+        .asynchronousResponseEnabled(true)
+        .asynchronousResponseThreads(50)
+        .disableRequestJournal());
+    gateway.start();
+    stubAccountService(settings.gatewayLatencyMs());
+  }
+
+  /** Returns the command-line arguments that point the service at the stand-ins. */
+  String[] applicationArguments() {
+    String[] broker = kafka.getBrokersAsString().split(",")[0].split(":");
+    return new String[] {
+        "--server.port=0",
+        "--spring.cloud.config.enabled=false",
+        "--eureka.client.enabled=false",
+        "--spring.cloud.discovery.client.simple.instances.cloud-gateway[0].uri="
+            + gateway.baseUrl(),
+        "--spring.data.mongodb.uri=" + mongoUri,
+        "--kafka.nttbank.server=" + broker[0],
+        "--kafka.nttbank.port=" + broker[1],
+        "--kafka.nttbank.topic.consumer=" + CONSUMER_GROUP,
+        "--kafka.nttbank.lanes.spend.group-id=" + SPEND_GROUP,
+        "--kafka.nttbank.lanes.top-up.group-id=" + TOP_UP_GROUP,
+        "--kafka.nttbank.topic.producer=" + RESULT_TOPIC,
+        "--kafka.nttbank.topic.card-changes=" + CARD_CHANGES_TOPIC,
+        "--logging.level.root=WARN"
+    };
+  }
+
+  String kafkaBootstrapServers() {
+    return kafka.getBrokersAsString();
+  }
+
+  private void stubAccountService(int latencyMs) {
+    gateway.stubFor(post(urlPathMatching("/api/account-service/accounts/[^/]+/[^/]+/transfer"))
+        .willReturn(delayed(okJson("{\"amount\": 10.00, \"balanceAfterMovement\": 990.00}"),
+            latencyMs)));
+    gateway.stubFor(post(urlPathMatching("/api/account-service/accounts/transfers/batch"))
+        .willReturn(aResponse().withStatus(404)));
+    gateway.stubFor(get(urlPathMatching("/api/account-service/accounts/[^/]+"))
+        .willReturn(delayed(okJson("{\"id\": \"account\", \"balance\": 1000.00,"
+            + " \"maxMonthlyTrans\": 1000, \"allowedDayOperation\": 1000}"), latencyMs)));
+  }
+
+  private static ResponseDefinitionBuilder delayed(ResponseDefinitionBuilder response,
+      int latencyMs) {
+    return latencyMs > 0 ? response.withLogNormalRandomDelay(latencyMs, 0.25) : response;
+  }
+
+  private static void initiateReplicaSet(String hostPort) {
+    try (MongoClient client = MongoClients.create("mongodb://" + hostPort
+        + "/?directConnection=true")) {
+      Mono.from(client.getDatabase("admin").runCommand(new Document("replSetInitiate",
+              new Document("_id", REPLICA_SET)
+                  .append("members", List.of(new Document("_id", 0).append("host", hostPort))))))
+          .block(Duration.ofSeconds(30));
+      Mono.defer(() -> Mono.from(client.getDatabase("admin").runCommand(new Document("hello", 1))))
+          .filter(hello -> Boolean.TRUE.equals(hello.getBoolean("isWritablePrimary")))
+          .repeatWhenEmpty(30, attempts -> attempts.delayElements(Duration.ofMillis(500)))
+          .block(Duration.ofSeconds(30));
+    }
+  }
+
+  @Override
+  public void close() {
+    gateway.stop();
+    kafka.destroy();
+    mongod.close();
+  }
+
+}
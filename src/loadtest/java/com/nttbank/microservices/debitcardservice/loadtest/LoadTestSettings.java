@@ -0,0 +1,35 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Settings of a load-test run, read from {@code loadtest.*} system properties.
+ *
+ * @param restRate         REST requests started per second, 0 to skip the REST load.
+ * @param kafkaRate        transfer events produced per second, 0 to skip the Kafka load.
+ * @param duration         how long the target rates are held.
+ * @param warmup           how long the load runs before latencies are recorded.
+ * @param cards            debit cards seeded before the run.
+ * @param partitions       partitions of the transfer topic.
+ * @param gatewayLatencyMs median latency of the stub account service.
+ * @param maxInFlight      REST requests allowed in flight before ticks are dropped.
+ * @param drainTimeout     how long to wait for outstanding transfer results after the run.
+ */
+record LoadTestSettings(int restRate, int kafkaRate, Duration duration, Duration warmup,
+                        int cards, int partitions, int gatewayLatencyMs, int maxInFlight,
+                        Duration drainTimeout) {
+
+  static LoadTestSettings fromSystemProperties() {
+    return new LoadTestSettings(
+        Integer.getInteger("loadtest.rest.rate", 200),
+        Integer.getInteger("loadtest.kafka.rate", 500),
+        Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+        Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+        Integer.getInteger("loadtest.cards", 1000),
+        Integer.getInteger("loadtest.partitions", 8),
+        Integer.getInteger("loadtest.gateway.latency-ms", 20),
+        Integer.getInteger("loadtest.rest.max-in-flight", 1024),
+        Duration.parse(System.getProperty("loadtest.drain-timeout", "PT60S")));
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import reactor.core.publisher.Flux;
+
+/**
+ * Open-loop arrival schedule. Emits the intended start time, in {@link System#nanoTime()} units,
+ * of every operation at a fixed rate regardless of how fast earlier operations complete, so
+ * latencies measured from the intended start include queueing delay (no coordinated omission).
+ */
+final class OpenLoopSchedule {
+
+  private OpenLoopSchedule() {
+  }
+
+  static Flux<Long> at(int ratePerSecond, Duration duration, long startNanos) {
+    if (ratePerSecond <= 0) {
+      return Flux.empty();
+    }
+    double intervalNanos = 1_000_000_000d / ratePerSecond;
+    long total = (long) (duration.toNanos() / intervalNanos);
+    AtomicLong emitted = new AtomicLong();
+    return Flux.interval(Duration.ofMillis(1))
+        .map(tick -> Math.min(total, (long) ((System.nanoTime() - startNanos) / intervalNanos)))
+        .takeUntil(due -> due >= total)
+        .concatMapIterable(due -> {
+          long from = emitted.getAndSet(Math.max(emitted.get(), due));
+          return LongStream.range(from, due)
+              .mapToObj(index -> startNanos + (long) (index * intervalNanos))
+              .toList();
+        });
+  }
+
+}
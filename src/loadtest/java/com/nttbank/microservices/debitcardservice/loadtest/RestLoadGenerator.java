@@ -0,0 +1,105 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drives the {@code /debitcards} endpoints at a target rate with an even mix of card creation,
+ * page reads and account linking.
+ */
+class RestLoadGenerator {
+
+  private final WebClient client;
+  private final List<DebitCard> cards;
+  private final Map<String, LatencyStats> stats = Map.of(
+      "rest.create", new LatencyStats("rest.create"),
+      "rest.page", new LatencyStats("rest.page"),
+      "rest.link", new LatencyStats("rest.link"));
+
+  RestLoadGenerator(WebClient client, List<DebitCard> cards) {
+    this.client = client;
+    this.cards = cards;
+  }
+
+  static Mono<DebitCard> create(WebClient client) {
+    String cardNumber = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    return client.post()
+        .bodyValue(DebitCardRecord.builder()
+            .customerId("loadtest-customer")
+            .cardNumber(cardNumber)
+            .cardholderName("LOAD TEST")
+            .expirationDate("12/30")
+            .cvv("123")
+            .mainAccountId("loadtest-account")
+            .build())
+        .retrieve()
+        .bodyToMono(DebitCard.class);
+  }
+
+  Map<String, LatencyStats> stats() {
+    return stats;
+  }
+
+  void measureFrom(long nanos) {
+    stats.values().forEach(s -> s.measureFrom(nanos));
+  }
+
+  Mono<Void> run(int rate, Duration duration, int maxInFlight) {
+    long start = System.nanoTime();
+    return OpenLoopSchedule.at(rate, duration, start)
+        .index()
+        .onBackpressureDrop(tick -> stats.get(operation(tick.getT1())).dropped())
+        .flatMap(tick -> call(operation(tick.getT1()), tick.getT2()), maxInFlight)
+        .then();
+  }
+
+  private static String operation(long index) {
+    return switch ((int) (index % 3)) {
+      case 0 -> "rest.create";
+      case 1 -> "rest.page";
+      default -> "rest.link";
+    };
+  }
+
+  private Mono<Void> call(String operation, long intendedStart) {
+    LatencyStats stat = stats.get(operation);
+    Mono<?> request = switch (operation) {
+      case "rest.create" -> create(client);
+      case "rest.page" -> client.get()
+          .uri(uri -> uri.queryParam("size", 100).build())
+          .retrieve()
+          .bodyToMono(new ParameterizedTypeReference<List<DebitCard>>() {
+          });
+      default -> client.post()
+          .uri("/{id}/accounts/{account}", randomCard().getId(),
+              "loadtest-" + ThreadLocalRandom.current().nextInt(1000))
+          .retrieve()
+          .bodyToMono(DebitCard.class);
+    };
+    return request
+        .doOnSuccess(response -> stat.success(intendedStart))
+        .doOnError(e -> stat.error(intendedStart))
+        .onErrorResume(e -> Mono.empty())
+        .then();
+  }
+
+  private DebitCard randomCard() {
+    return cards.get(ThreadLocalRandom.current().nextInt(cards.size()));
+  }
+
+  static Mono<List<DebitCard>> seed(WebClient client, int count) {
+    return Flux.range(0, count)
+        .flatMap(i -> create(client), 64)
+        .collectList();
+  }
+
+}
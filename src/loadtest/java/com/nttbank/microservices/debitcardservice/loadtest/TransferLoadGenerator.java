@@ -0,0 +1,149 @@
+package com.nttbank.microservices.debitcardservice.loadtest;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.util.serialization.GenericEventDeserializer;
+import com.nttbank.microservices.debitcardservice.util.serialization.GenericEventSerializer;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Produces transfer events at a target rate and measures the end-to-end latency until the matching
+ * result event arrives on the result topic. Card payments go to the spend lane topic and top-ups
+ * to the top-up lane topic, and the latency of every lane is measured separately.
+ */
+class TransferLoadGenerator implements AutoCloseable {
+
+  private final List<DebitCard> cards;
+  private final KafkaProducer<String, GenericEvent> producer;
+  private final KafkaConsumer<String, GenericEvent> consumer;
+  private final Map<String, Sent> inFlight = new ConcurrentHashMap<>();
+  private final LatencyStats spendStats = new LatencyStats("kafka.transfer.spend");
+  private final LatencyStats topUpStats = new LatencyStats("kafka.transfer.top-up");
+  private final LongAdder produced = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final Thread resultReader;
+  private volatile boolean running = true;
+
+  TransferLoadGenerator(String bootstrapServers, List<DebitCard> cards) {
+    this.cards = cards;
+    producer = new KafkaProducer<>(Map.of(
+        ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+        ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, GenericEventSerializer.class,
+        ProducerConfig.LINGER_MS_CONFIG, 5));
+    consumer = new KafkaConsumer<>(Map.of(
+        ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+        ConsumerConfig.GROUP_ID_CONFIG, "loadtest-results-" + UUID.randomUUID(),
+        ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+        ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class,
+        ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, GenericEventDeserializer.class,
+        JsonDeserializer.TRUSTED_PACKAGES, "com.nttbank.microservices.*"));
+    consumer.subscribe(List.of(LoadTestEnvironment.RESULT_TOPIC));
+    resultReader = new Thread(this::readResults, "loadtest-results");
+    resultReader.start();
+  }
+
+  List<LatencyStats> stats() {
+    return List.of(spendStats, topUpStats);
+  }
+
+  LongAdder produced() {
+    return produced;
+  }
+
+  LongAdder completed() {
+    return completed;
+  }
+
+  int outstanding() {
+    return inFlight.size();
+  }
+
+  Mono<Void> run(int rate, Duration duration) {
+    long start = System.nanoTime();
+    return OpenLoopSchedule.at(rate, duration, start)
+        .onBackpressureDrop(tick -> (ThreadLocalRandom.current().nextBoolean()
+            ? spendStats : topUpStats).dropped())
+        .doOnNext(this::send)
+        .then();
+  }
+
+  private void send(long intendedStart) {
+    DebitCard card = cards.get(ThreadLocalRandom.current().nextInt(cards.size()));
+    boolean spend = ThreadLocalRandom.current().nextBoolean();
+    LatencyStats stats = spend ? spendStats : topUpStats;
+    TransferDebitCardEvent transfer = new TransferDebitCardEvent();
+    transfer.setTransactionId(UUID.randomUUID().toString());
+    transfer.setDebitCardNumber(card.getCardNumber());
+    transfer.setType(spend ? "DEPOSIT_DEBIT_CARD" : "WITHDRAW_DEBIT_CARD");
+    transfer.setAccountId("loadtest-" + ThreadLocalRandom.current().nextInt(1000));
+    transfer.setAmount(BigDecimal.TEN);
+    inFlight.put(transfer.getTransactionId(), new Sent(intendedStart, stats));
+    String topic = spend ? LoadTestEnvironment.SPEND_TOPIC : LoadTestEnvironment.TOP_UP_TOPIC;
+    producer.send(new ProducerRecord<>(topic, card.getCardNumber(), transfer), (metadata, e) -> {
+      if (e != null) {
+        inFlight.remove(transfer.getTransactionId());
+        stats.error(intendedStart);
+      } else {
+        produced.increment();
+      }
+    });
+  }
+
+  private void readResults() {
+    try {
+      while (running) {
+        for (ConsumerRecord<String, GenericEvent> rec : consumer.poll(Duration.ofMillis(100))) {
+          if (rec.value() instanceof DebitCardTransactionEvent result) {
+            Sent sent = inFlight.remove(result.getTransId());
+            if (sent == null) {
+              continue;
+            }
+            completed.increment();
+            if ("completed".equals(result.getStatus())) {
+              sent.stats().success(sent.intendedStart());
+            } else {
+              sent.stats().error(sent.intendedStart());
+            }
+          }
+        }
+      }
+    } catch (WakeupException e) {
+      // closing
+    } finally {
+      consumer.close();
+    }
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    consumer.wakeup();
+    resultReader.join();
+    producer.close();
+  }
+
+  private record Sent(long intendedStart, LatencyStats stats) {
+
+  }
+
+}
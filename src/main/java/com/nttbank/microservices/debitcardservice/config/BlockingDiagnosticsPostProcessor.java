@@ -0,0 +1,74 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import com.nttbank.microservices.debitcardservice.util.BlockingCallReporter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import reactor.blockhound.BlockHound;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Opt-in diagnostics mode for event-loop stalls, enabled with
+ * {@code debitcard.diagnostics.blocking.enabled}. It installs BlockHound with a
+ * {@link BlockingCallReporter}, so blocking calls on Netty event loops and non-blocking Reactor
+ * schedulers are reported with their stack traces, and publishes the queued, active and completed
+ * task metrics of every Reactor scheduler executor under the {@code reactor} prefix. Both are set
+ * up while the environment is prepared, before any scheduler or event loop is created, and report
+ * to the global registry that Spring Boot's registry joins once it is created. The Kafka listener
+ * blocks on its own container threads, which are not checked.
+ *
+ * <p>On JDK 13 and later the JVM must be started with
+ * {@code -XX:+AllowRedefinitionToAddDeleteMethods}, otherwise BlockHound cannot be installed and
+ * only the scheduler metrics are published.
+ */
+public class BlockingDiagnosticsPostProcessor implements EnvironmentPostProcessor {
+
+  static final String ENABLED_PROPERTY = "debitcard.diagnostics.blocking.enabled";
+  static final String FAIL_PROPERTY = "debitcard.diagnostics.blocking.fail";
+  static final String DECORATOR_KEY = "debitcard-scheduler-metrics";
+
+  private static final AtomicBoolean INSTALLED = new AtomicBoolean();
+  private static final Map<String, AtomicInteger> EXECUTOR_IDS = new ConcurrentHashMap<>();
+
+  private final Log log;
+
+  public BlockingDiagnosticsPostProcessor(DeferredLogFactory logFactory) {
+    this.log = logFactory.getLog(BlockingDiagnosticsPostProcessor.class);
+  }
+
+  @Override
+  public void postProcessEnvironment(ConfigurableEnvironment environment,
+      SpringApplication application) {
+    if (!environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)
+        || !INSTALLED.compareAndSet(false, true)) {
+      return;
+    }
+    boolean fail = environment.getProperty(FAIL_PROPERTY, Boolean.class, false);
+    Schedulers.addExecutorServiceDecorator(DECORATOR_KEY, (scheduler, executor) -> {
+      String name = Scannable.from(scheduler)
+          .scanOrDefault(Scannable.Attr.NAME, scheduler.getClass().getSimpleName());
+      String id = String.valueOf(EXECUTOR_IDS
+          .computeIfAbsent(name, key -> new AtomicInteger()).getAndIncrement());
+      return ExecutorServiceMetrics.monitor(Metrics.globalRegistry, executor, name, "reactor",
+          Tags.of("executor.id", id));
+    });
+    try {
+      BlockHound.install(new BlockingCallReporter(Metrics.globalRegistry, fail));
+      log.info("Blocking call detection installed, fail mode " + fail);
+    } catch (RuntimeException e) {
+      log.error("Could not install blocking call detection, is the JVM started with "
+          + "-XX:+AllowRedefinitionToAddDeleteMethods?", e);
+    }
+  }
+
+}
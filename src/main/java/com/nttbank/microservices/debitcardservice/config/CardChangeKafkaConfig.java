@@ -0,0 +1,60 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import com.nttbank.microservices.debitcardservice.model.event.DebitCardChangedEvent;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Configuration class for the Kafka consumer of debit card change notifications. Every instance
+ * joins the topic with its own consumer group so each one receives all the changes.
+ */
+@Configuration
+public class CardChangeKafkaConfig {
+
+  @Value("${kafka.nttbank.server:127.0.0.1}")
+  private String kafkaServer;
+  @Value("${kafka.nttbank.port:9092}")
+  private String kafkaPort;
+
+  /** Creates and configures the consumer factory for debit card change notifications. */
+  @Bean
+  public ConsumerFactory<String, DebitCardChangedEvent> cardChangeConsumerFactory() {
+    Map<String, Object> kafkaProperties = new HashMap<>();
+    kafkaProperties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaServer + ":" + kafkaPort);
+    kafkaProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+    kafkaProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+        ErrorHandlingDeserializer.class);
+    kafkaProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+        ErrorHandlingDeserializer.class);
+
+    kafkaProperties.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, JsonDeserializer.class);
+    kafkaProperties.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS,
+        JsonDeserializer.class);
+
+    kafkaProperties.put(JsonDeserializer.TRUSTED_PACKAGES, "com.nttbank.microservices.*");
+    kafkaProperties.put(JsonDeserializer.VALUE_DEFAULT_TYPE, DebitCardChangedEvent.class);
+
+    return new DefaultKafkaConsumerFactory<>(kafkaProperties);
+  }
+
+  /** Creates and configures the listener container factory for debit card change notifications. */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, DebitCardChangedEvent>
+      cardChangeListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, DebitCardChangedEvent> factory =
+        new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(cardChangeConsumerFactory());
+    return factory;
+  }
+
+}
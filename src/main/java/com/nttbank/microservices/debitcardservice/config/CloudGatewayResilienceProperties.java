@@ -0,0 +1,57 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties of the resilience layer wrapped around every call made through the
+ * cloud gateway Feign client. Every value can be overridden under
+ * {@code debitcard.gateway.resilience}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "debitcard.gateway.resilience")
+public class CloudGatewayResilienceProperties {
+
+  /** Maximum time a single remote call may take before it is cancelled. */
+  private Duration timeout = Duration.ofSeconds(2);
+
+  /** Maximum number of concurrent calls per Feign method. */
+  private int maxConcurrentCalls = 64;
+
+  /** Maximum time a call waits for a free bulkhead slot before failing fast. */
+  private Duration maxWaitDuration = Duration.ZERO;
+
+  /** Failure rate percentage above which the circuit breaker opens. */
+  private float failureRateThreshold = 50;
+
+  /** Number of calls of the circuit breaker sliding window. */
+  private int slidingWindowSize = 100;
+
+  /** Minimum number of calls before the failure rate is evaluated. */
+  private int minimumNumberOfCalls = 20;
+
+  /** Time the circuit breaker stays open before probing the remote service again. */
+  private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+  /** Number of probe calls allowed while the circuit breaker is half open. */
+  private int permittedCallsInHalfOpenState = 5;
+
+  /** Maximum number of retries of an idempotent call. */
+  private int maxRetries = 2;
+
+  /** First retry backoff, doubled on every further retry. */
+  private Duration retryBackoff = Duration.ofMillis(50);
+
+  /** Jitter factor applied to the retry backoff, between 0 and 1. */
+  private double retryJitter = 0.5;
+
+  /** Retries earned per successful call, so retries stay a bounded fraction of the traffic. */
+  private double retryBudgetRatio = 0.1;
+
+  /** Maximum number of retries that can be accumulated in the budget. */
+  private int retryBudgetMaxTokens = 100;
+
+}
@@ -3,14 +3,36 @@ package com.nttbank.microservices.debitcardservice.config;
 import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
 import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
 import com.nttbank.microservices.debitcardservice.service.AccountService;
+import com.nttbank.microservices.debitcardservice.service.CardAggregateStore;
 import com.nttbank.microservices.debitcardservice.service.DebitCardService;
+import com.nttbank.microservices.debitcardservice.service.FundingAccountSelector;
+import com.nttbank.microservices.debitcardservice.service.TransactionLedger;
+import com.nttbank.microservices.debitcardservice.service.TransferIdempotencyStore;
+import com.nttbank.microservices.debitcardservice.service.TransferLanes;
+import com.nttbank.microservices.debitcardservice.service.TransferLimitEngine;
 import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import com.nttbank.microservices.debitcardservice.util.TracingSupport;
+import com.nttbank.microservices.debitcardservice.util.serialization.GenericEventDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,8 +40,15 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.backoff.ExponentialBackOff;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /** Configuration class for setting up Kafka consumer for the Debit Card Service. */
@@ -31,6 +60,16 @@ public class KafkaConsumerConfig {
   private final DebitCardService service;
   private final AccountService accountService;
   private final KafkaUtil kafkaUtil;
+  private final TransferLanes lanes;
+  private final TransferIdempotencyStore idempotencyStore;
+  private final TransactionalOperator transactionalOperator;
+  private final MeterRegistry meterRegistry;
+  private final ObservationRegistry observationRegistry;
+  private final TransactionLedger ledger;
+  private final CardAggregateStore aggregates;
+  private final TransferLimitEngine limitEngine;
+  private final FundingAccountSelector fundingAccountSelector;
+  private final TransferLaneProperties laneProperties;
 
   @Value("${kafka.nttbank.server:127.0.0.1}")
   private String kafkaServer;
@@ -38,13 +77,26 @@ public class KafkaConsumerConfig {
   private String kafkaPort;
   @Value("${kafka.nttbank.topic.consumer:nttbank}")
   private String topicName;
+  @Value("${kafka.nttbank.consumer.max-poll-records:500}")
+  private int maxPollRecords;
+  @Value("${kafka.nttbank.consumer.batch-timeout:60s}")
+  private Duration batchTimeout;
+  @Value("${kafka.nttbank.consumer.retry.initial-interval:1s}")
+  private Duration retryInitialInterval;
+  @Value("${kafka.nttbank.consumer.retry.max-interval:30s}")
+  private Duration retryMaxInterval;
 
-  /** Creates and configures the Kafka consumer factory. */
+  /**
+   * Creates and configures the Kafka consumer factory. Values may be JSON or Avro, as told by the
+   * {@code content-type} header of each record.
+   */
   @Bean
   public ConsumerFactory<String, GenericEvent<? extends GenericEvent>> consumerFactory() {
     Map<String, Object> kafkaProperties = new HashMap<>();
     kafkaProperties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaServer + ":" + kafkaPort);
     kafkaProperties.put(ConsumerConfig.GROUP_ID_CONFIG, topicName);
+    kafkaProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    kafkaProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
     kafkaProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
         ErrorHandlingDeserializer.class);
@@ -53,64 +105,256 @@ public class KafkaConsumerConfig {
 
     kafkaProperties.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, JsonDeserializer.class);
     kafkaProperties.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS,
-        JsonDeserializer.class);
+        GenericEventDeserializer.class);
 
     kafkaProperties.put(JsonDeserializer.TRUSTED_PACKAGES, "com.nttbank.microservices.*");
 
     return new DefaultKafkaConsumerFactory<>(kafkaProperties);
   }
 
-  /** Creates and configures the Kafka listener container factory. */
+  /**
+   * Creates and configures the Kafka listener container factory of the shared management topic.
+   * The container delivers a whole poll to the listener and offsets are committed only when the
+   * listener acknowledges the batch. A failed batch is redelivered with an exponential backoff
+   * until it succeeds, so no transfer is skipped.
+   */
   @Bean
   public ConcurrentKafkaListenerContainerFactory<String, GenericEvent<?
       extends GenericEvent>> kafkaListenerContainerFactory() {
+    return batchListenerContainerFactory(laneProperties.getManagement());
+  }
+
+  /** Creates and configures the Kafka listener container factory of the spend lane. */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, GenericEvent<?
+      extends GenericEvent>> spendListenerContainerFactory() {
+    return batchListenerContainerFactory(laneProperties.getSpend());
+  }
+
+  /** Creates and configures the Kafka listener container factory of the top-up lane. */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, GenericEvent<?
+      extends GenericEvent>> topUpListenerContainerFactory() {
+    return batchListenerContainerFactory(laneProperties.getTopUp());
+  }
+
+  private ConcurrentKafkaListenerContainerFactory<String, GenericEvent<? extends GenericEvent>>
+      batchListenerContainerFactory(TransferLaneProperties.Lane lane) {
     ConcurrentKafkaListenerContainerFactory<String, GenericEvent<? extends GenericEvent>> factory =
         new ConcurrentKafkaListenerContainerFactory<>();
     factory.setConsumerFactory(consumerFactory());
+    factory.setBatchListener(true);
+    factory.setConcurrency(lane.getConcurrency());
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+    ExponentialBackOff backOff = new ExponentialBackOff(retryInitialInterval.toMillis(), 2);
+    backOff.setMaxInterval(retryMaxInterval.toMillis());
+    factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
     return factory;
   }
 
-  /** Listens to the Kafka topic and processes the messages. */
-  @KafkaListener(topics = "debitcard-service-management-v1")
-  public void listenTopic(GenericEvent<? extends GenericEvent> obj) {
-    if (obj instanceof TransferDebitCardEvent transfer) {
-      service.findByCardNumber(transfer.getDebitCardNumber())
-          .flatMap(debitCard -> {
-            if ("DEPOSIT_DEBIT_CARD".equals(transfer.getType())) {
-              return accountService.accountTransfer(debitCard.getMainAccountId(),
-                  transfer.getAccountId(),
-                  transfer.getAmount());
-            } else if ("WITHDRAW_DEBIT_CARD".equals(transfer.getType())) {
-              return accountService.accountTransfer(transfer.getAccountId(),
-                  debitCard.getMainAccountId(),
-                  transfer.getAmount());
-            } else {
-              return Mono.error(
-                  new IllegalArgumentException("Unknown transaction type: " + transfer.getType()));
-            }
-          })
-          .switchIfEmpty(Mono.error(new IllegalArgumentException("Debit card not found")))
-          .subscribe(
-              response ->
-                  service.sendKafkaMessage(DebitCardTransactionEvent.builder()
-                      .transId(transfer.getTransactionId())
-                      .type(transfer.getType())
-                      .accountId(transfer.getAccountId())
-                      .debitCardNumber(transfer.getDebitCardNumber())
-                      .balanceUpdated(response.getBalanceAfterMovement())
-                      .amount(transfer.getAmount())
-                      .status("completed")
-                      .description("transaction completed successfully")
-                      .build()),
-              error -> {
-                service.sendKafkaMessage(DebitCardTransactionEvent.builder()
-                    .transId(transfer.getTransactionId())
-                    .status("error")
-                    .type("TRANSACTION_FAILED")
-                    .description(error.getMessage())
-                    .build());
-              }
-          );
+  /**
+   * Listens to the shared management topic and processes a whole poll in one reactive pipeline.
+   * At most {@code kafka.nttbank.lanes.management.max-in-flight} transfers are in flight at once,
+   * every transfer runs on the {@link TransferLanes} lane of its class, where transfers of the
+   * same card run in order, and the batch is acknowledged only after every transfer has published
+   * its result event. Each transfer is traced as a child of the trace context found in its record
+   * headers.
+   */
+  @KafkaListener(topics = "#{@transferLaneProperties.management.topic}",
+      groupId = "#{@transferLaneProperties.management.groupId}")
+  public void listenBatch(
+      List<ConsumerRecord<String, GenericEvent<? extends GenericEvent>>> records,
+      Acknowledgment ack) {
+    processBatch(records, laneProperties.getManagement(), ack);
+  }
+
+  /**
+   * Listens to the spend lane topic, which carries the payments made with the card. Its consumer
+   * group, consumers, in-flight limit and card lanes are not shared with top-ups, so payments keep
+   * their latency while top-ups are backlogged or rebalancing.
+   */
+  @KafkaListener(topics = "#{@transferLaneProperties.spend.topic}",
+      groupId = "#{@transferLaneProperties.spend.groupId}",
+      containerFactory = "spendListenerContainerFactory")
+  public void listenSpends(
+      List<ConsumerRecord<String, GenericEvent<? extends GenericEvent>>> records,
+      Acknowledgment ack) {
+    processBatch(records, laneProperties.getSpend(), ack);
+  }
+
+  /** Listens to the top-up lane topic, which carries the money moved onto the card. */
+  @KafkaListener(topics = "#{@transferLaneProperties.topUp.topic}",
+      groupId = "#{@transferLaneProperties.topUp.groupId}",
+      containerFactory = "topUpListenerContainerFactory")
+  public void listenTopUps(
+      List<ConsumerRecord<String, GenericEvent<? extends GenericEvent>>> records,
+      Acknowledgment ack) {
+    processBatch(records, laneProperties.getTopUp(), ack);
+  }
+
+  private void processBatch(
+      List<ConsumerRecord<String, GenericEvent<? extends GenericEvent>>> records,
+      TransferLaneProperties.Lane lane, Acknowledgment ack) {
+    List<ConsumerRecord<String, GenericEvent<? extends GenericEvent>>> transfers = records.stream()
+        .filter(rec -> rec.value() instanceof TransferDebitCardEvent)
+        .toList();
+    log.debug("Processing batch of {} transfer events out of {} records from {}",
+        transfers.size(), records.size(), lane.getTopic());
+
+    Flux.fromIterable(transfers)
+        .flatMap(rec -> submitTransfer((TransferDebitCardEvent) rec.value(), rec.headers()),
+            lane.getMaxInFlight())
+        .then()
+        .block(batchTimeout);
+    ack.acknowledge();
+  }
+
+  private Mono<Void> submitTransfer(TransferDebitCardEvent transfer, Headers headers) {
+    long consumedAt = System.nanoTime();
+    Observation observation = Observation.createNotStarted("debitcard.transfer",
+            () -> TracingSupport.kafkaReceiverContext(headers), observationRegistry)
+        .contextualName("transfer " + Objects.toString(transfer.getType(), "unknown"))
+        .lowCardinalityKeyValue("type", Objects.toString(transfer.getType(), "unknown"))
+        .lowCardinalityKeyValue("lane", TransferLanes.laneOf(transfer))
+        .highCardinalityKeyValue("transaction.id",
+            Objects.toString(transfer.getTransactionId(), ""));
+    return lanes.submit(transfer,
+        () -> processTransfer(transfer, consumedAt)
+            .doOnError(observation::error)
+            .doFinally(signal -> observation.stop())
+            .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY,
+                observation.start())));
+  }
+
+  /**
+   * Executes the account transfer described by the event and publishes the result event, unless
+   * the result of the same transaction id was already published by an earlier delivery. When
+   * another delivery still holds the claim the returned {@link Mono} fails so the batch is
+   * redelivered, and when this delivery fails after claiming the transfer the claim is released.
+   * The outcome of the account transfer is stored on the claim first, so a redelivery publishes it
+   * without requesting the account transfer again. Deposits are
+   * paid from the first card account able to cover them, as chosen by the
+   * {@link FundingAccountSelector}. Transfers that break a card or account limit are rejected by
+   * the {@link TransferLimitEngine} before the account transfer is requested. Errors are turned
+   * into a {@code TRANSACTION_FAILED} event. The outcome is first recorded in the
+   * {@link TransactionLedger}, then the result event is written to the outbox and added to the
+   * card aggregates in the same Mongo transaction that completes the idempotency record, so the
+   * returned {@link Mono} completes once the outcome is durably stored for the outbox relay and
+   * the aggregates are counted exactly once. The time from consumption to that point is recorded
+   * in {@code debitcard.transfer.latency} by type and outcome. The card lookup, the source account
+   * selection, the limit check, the account transfer, the ledger write and the outbox write are
+   * traced as separate stages.
+   */
+  Mono<Void> processTransfer(TransferDebitCardEvent transfer, long consumedAt) {
+    return idempotencyStore.tryAcquire(transfer.getTransactionId(),
+            transfer.getDebitCardNumber())
+        .flatMap(claim -> {
+          if (!claim.acquired()) {
+            log.info("Skipping duplicate transfer event {}", transfer.getTransactionId());
+            recordLatency(transfer, "duplicate", consumedAt);
+            return Mono.empty();
+          }
+          Mono<DebitCardTransactionEvent> outcome = claim.result() != null
+              ? Mono.just(claim.result().toEvent(transfer.getTransactionId(),
+                  transfer.getDebitCardNumber()))
+              : executeTransfer(transfer)
+                  .flatMap(event -> idempotencyStore.recordResult(transfer.getTransactionId(),
+                      event).thenReturn(event));
+          return outcome
+              .flatMap(event -> ledger.record(transfer, event)
+                  .name("debitcard.transfer.ledger")
+                  .tap(Micrometer.observation(observationRegistry))
+                  .then(transactionalOperator.transactional(
+                      service.sendKafkaMessage(event)
+                          .then(aggregates.apply(event))
+                          .then(idempotencyStore.complete(transfer.getTransactionId(),
+                              event.getStatus())))
+                      .name("debitcard.transfer.outbox")
+                      .tap(Micrometer.observation(observationRegistry)))
+                  .doOnSuccess(done -> recordLatency(transfer, event.getStatus(), consumedAt)))
+              .onErrorResume(e -> idempotencyStore.release(transfer.getTransactionId())
+                  .onErrorResume(releaseError -> {
+                    log.warn("Could not release the claim of transfer {}: {}",
+                        transfer.getTransactionId(), releaseError.getMessage());
+                    return Mono.empty();
+                  })
+                  .then(Mono.error(e)));
+        });
+  }
+
+  private void recordLatency(TransferDebitCardEvent transfer, String outcome, long consumedAt) {
+    Timer.builder("debitcard.transfer.latency")
+        .description("Time from consuming a transfer event until its result is stored")
+        .tag("type", Objects.toString(transfer.getType(), "unknown"))
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - consumedAt, TimeUnit.NANOSECONDS);
+  }
+
+  private Mono<DebitCardTransactionEvent> executeTransfer(TransferDebitCardEvent transfer) {
+    return service.findByCardNumber(transfer.getDebitCardNumber())
+        .name("debitcard.transfer.find-card")
+        .tap(Micrometer.observation(observationRegistry))
+        .flatMap(debitCard -> sourceAccount(transfer, debitCard)
+            .name("debitcard.transfer.source-account")
+            .tap(Micrometer.observation(observationRegistry))
+            .flatMap(sourceAccountId -> limitEngine.authorize(transfer, debitCard, sourceAccountId)
+                .name("debitcard.transfer.limits")
+                .tap(Micrometer.observation(observationRegistry))
+                .then(Mono.defer(() -> accountTransfer(transfer, debitCard, sourceAccountId))
+                    .name("debitcard.transfer.account-transfer")
+                    .tap(Micrometer.observation(observationRegistry)))))
+        .switchIfEmpty(Mono.error(new IllegalArgumentException("Debit card not found")))
+        .map(response -> DebitCardTransactionEvent.builder()
+            .transId(transfer.getTransactionId())
+            .type(transfer.getType())
+            .accountId(transfer.getAccountId())
+            .debitCardNumber(transfer.getDebitCardNumber())
+            .balanceUpdated(response.getBalanceAfterMovement())
+            .amount(transfer.getAmount())
+            .status("completed")
+            .description("transaction completed successfully")
+            .build())
+        .onErrorResume(TransferOutcomeUnknownException.class, error -> Mono.just(
+            DebitCardTransactionEvent.builder()
+                .transId(transfer.getTransactionId())
+                .type("TRANSACTION_PENDING")
+                .accountId(transfer.getAccountId())
+                .debitCardNumber(transfer.getDebitCardNumber())
+                .amount(transfer.getAmount())
+                .status("pending")
+                .description(error.getMessage())
+                .build()))
+        .onErrorResume(error -> Mono.just(DebitCardTransactionEvent.builder()
+            .transId(transfer.getTransactionId())
+            .debitCardNumber(transfer.getDebitCardNumber())
+            .status("error")
+            .type("TRANSACTION_FAILED")
+            .description(error.getMessage())
+            .build()));
+  }
+
+  private Mono<String> sourceAccount(TransferDebitCardEvent transfer, DebitCard debitCard) {
+    if ("DEPOSIT_DEBIT_CARD".equals(transfer.getType())) {
+      return fundingAccountSelector.select(debitCard, transfer.getAmount());
+    } else if ("WITHDRAW_DEBIT_CARD".equals(transfer.getType())) {
+      return Mono.just(transfer.getAccountId());
+    } else {
+      return Mono.error(
+          new IllegalArgumentException("Unknown transaction type: " + transfer.getType()));
+    }
+  }
+
+  private Mono<AccountTransactionsResponse> accountTransfer(TransferDebitCardEvent transfer,
+      DebitCard debitCard, String sourceAccountId) {
+    if ("DEPOSIT_DEBIT_CARD".equals(transfer.getType())) {
+      return accountService.accountTransfer(sourceAccountId,
+          transfer.getAccountId(),
+          transfer.getAmount());
+    } else {
+      return accountService.accountTransfer(sourceAccountId,
+          debitCard.getMainAccountId(),
+          transfer.getAmount());
     }
   }
 
@@ -1,6 +1,9 @@
 package com.nttbank.microservices.debitcardservice.config;
 
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.debitcardservice.util.serialization.EventContentType;
+import com.nttbank.microservices.debitcardservice.util.serialization.GenericEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -9,21 +12,41 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 /**
- * Configuration class for setting up Kafka producer for the Debit Card Service.
+ * Configuration class for setting up Kafka producer for the Debit Card Service. The producer is
+ * tuned by {@code kafka.nttbank.producer.profile}: {@code throughput} (default) lingers to batch
+ * and compress the small result events, {@code low-latency} sends every record immediately. Both
+ * profiles are idempotent and wait for all in-sync replicas. Values are written as JSON unless
+ * {@code kafka.nttbank.producer.format} is {@code avro}.
  */
 @Configuration
 public class KafkaProducerConfig {
 
+  public static final String PROFILE_THROUGHPUT = "throughput";
+  public static final String PROFILE_LOW_LATENCY = "low-latency";
+
   @Value("${kafka.nttbank.server:127.0.0.1}")
   private String kafkaServer;
 
   @Value("${kafka.nttbank.port:}")
   private String kafkaPort;
 
+  @Value("${kafka.nttbank.producer.profile:" + PROFILE_THROUGHPUT + "}")
+  private String profile;
+
+  @Value("${kafka.nttbank.producer.format:json}")
+  private String format;
+
+  private final MeterRegistry meterRegistry;
+
+  public KafkaProducerConfig(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   /**
    * Creates and configures the Kafka producer factory.
    */
@@ -31,8 +54,15 @@ public class KafkaProducerConfig {
     Map<String, Object> kafkaProperties = new HashMap<>();
     kafkaProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaServer + ":" + kafkaPort);
     kafkaProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-    kafkaProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-    return new DefaultKafkaProducerFactory<>(kafkaProperties);
+    kafkaProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+        GenericEventSerializer.class);
+    kafkaProperties.put(EventContentType.FORMAT_CONFIG, format);
+    kafkaProperties.putAll(profileProperties(profile));
+
+    DefaultKafkaProducerFactory<String, GenericEvent> factory =
+        new DefaultKafkaProducerFactory<>(kafkaProperties);
+    factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+    return factory;
   }
 
   /**
@@ -43,4 +73,33 @@ public class KafkaProducerConfig {
     return new KafkaTemplate<>(producerFactory());
   }
 
+  /**
+   * Returns the producer settings of a tuning profile.
+   *
+   * @param profile the profile name.
+   * @return the producer properties of the profile.
+   */
+  static Map<String, Object> profileProperties(String profile) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(ProducerConfig.ACKS_CONFIG, "all");
+    properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    properties.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+    switch (profile) {
+      case PROFILE_THROUGHPUT -> {
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        properties.put(ProducerConfig.BATCH_SIZE_CONFIG, 131072);
+        properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        properties.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 67108864L);
+      }
+      case PROFILE_LOW_LATENCY -> {
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        properties.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+        properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+      }
+      default -> throw new IllegalArgumentException("Unknown Kafka producer profile: " + profile);
+    }
+    return properties;
+  }
+
 }
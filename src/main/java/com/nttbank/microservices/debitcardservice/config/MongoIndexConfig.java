@@ -0,0 +1,166 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardTransactions;
+import com.nttbank.microservices.debitcardservice.model.entity.OutboxMessage;
+import com.nttbank.microservices.debitcardservice.model.entity.ProcessedTransfer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Configuration class that creates the indexes declared on the MongoDB entities during startup,
+ * and verifies that the indexes present in the database match them. It runs in the first
+ * lifecycle phase, so the indexes exist before the web server, the Kafka listener containers and
+ * the outbox relay start. Missing indexes and indexes with mismatched options are reported in the
+ * startup log and fail the startup.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig implements SmartLifecycle {
+
+  /** Lifecycle phase of the index verification, before every other lifecycle bean. */
+  public static final int PHASE = Integer.MIN_VALUE;
+
+  private static final List<Class<?>> INDEXED_ENTITIES = List.of(DebitCard.class,
+      ProcessedTransfer.class, OutboxMessage.class, DebitCardTransactions.class,
+      DebitCardAggregate.class);
+
+  private final ReactiveMongoTemplate template;
+  private final MongoMappingContext mappingContext;
+
+  @Value("${debitcard.mongo.indexes.fail-on-error:true}")
+  private boolean failOnError;
+  @Value("${debitcard.mongo.indexes.timeout:60s}")
+  private Duration timeout;
+
+  private volatile boolean running;
+
+  @Override
+  public void start() {
+    ensureIndexes();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return PHASE;
+  }
+
+  /**
+   * Creates the declared indexes and logs the verification report.
+   *
+   * @throws IllegalStateException when the verification fails and {@code fail-on-error} is set.
+   */
+  public void ensureIndexes() {
+    IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+    List<String> problems = Flux.fromIterable(INDEXED_ENTITIES)
+        .concatMap(type -> ensureIndexes(resolver, type))
+        .collectList()
+        .block(timeout);
+
+    if (problems == null || problems.isEmpty()) {
+      log.info("MongoDB index verification finished: all declared indexes are present");
+      return;
+    }
+    problems.forEach(problem -> log.warn("MongoDB index verification: {}", problem));
+    if (failOnError) {
+      throw new IllegalStateException(
+          "MongoDB index verification failed with " + problems.size() + " problem(s)");
+    }
+  }
+
+  private Flux<String> ensureIndexes(IndexResolver resolver, Class<?> type) {
+    ReactiveIndexOperations indexOps = template.indexOps(type);
+    String collection = template.getCollectionName(type);
+    List<IndexDefinition> expected = new ArrayList<>();
+    resolver.resolveIndexFor(type).forEach(expected::add);
+    List<String> problems = new ArrayList<>();
+
+    return Flux.fromIterable(expected)
+        .concatMap(definition -> indexOps.ensureIndex(definition)
+            .doOnNext(name -> log.debug("Ensured index {} on {}", name, collection))
+            .onErrorResume(e -> {
+              problems.add(String.format("could not create index %s on %s: %s",
+                  definition.getIndexKeys().toJson(), collection, e.getMessage()));
+              return Mono.empty();
+            }))
+        .thenMany(indexOps.getIndexInfo())
+        .collectList()
+        .flatMapMany(existing -> {
+          expected.forEach(definition -> verify(collection, definition, existing, problems));
+          return Flux.fromIterable(problems);
+        });
+  }
+
+  private void verify(String collection, IndexDefinition definition, List<IndexInfo> existing,
+      List<String> problems) {
+    Document keys = definition.getIndexKeys();
+    Document options = definition.getIndexOptions();
+    IndexInfo match = existing.stream()
+        .filter(info -> sameKeys(keys, info))
+        .findFirst()
+        .orElse(null);
+
+    if (match == null) {
+      problems.add(String.format("missing index %s on %s", keys.toJson(), collection));
+      return;
+    }
+    boolean unique = Boolean.TRUE.equals(options.getBoolean("unique"));
+    if (unique != match.isUnique()) {
+      problems.add(String.format("index %s on %s has unique=%s but unique=%s is declared",
+          match.getName(), collection, match.isUnique(), unique));
+    }
+    Object expireAfterSeconds = options.get("expireAfterSeconds");
+    if (expireAfterSeconds instanceof Number seconds) {
+      Duration declaredTtl = Duration.ofSeconds(seconds.longValue());
+      Duration presentTtl = match.getExpireAfter().orElse(null);
+      if (!declaredTtl.equals(presentTtl)) {
+        problems.add(String.format("index %s on %s expires after %s but %s is declared",
+            match.getName(), collection, presentTtl, declaredTtl));
+      }
+    }
+    String name = options.getString("name");
+    if (name != null && !Objects.equals(name, match.getName())) {
+      problems.add(String.format("index %s on %s is named %s but %s is declared",
+          keys.toJson(), collection, match.getName(), name));
+    }
+  }
+
+  private boolean sameKeys(Document keys, IndexInfo info) {
+    List<String> declared = new ArrayList<>(keys.keySet());
+    List<String> present = info.getIndexFields().stream()
+        .map(field -> field.getKey())
+        .toList();
+    return declared.equals(present);
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import com.nttbank.microservices.debitcardservice.util.ReactiveMetrics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Wraps every Spring Data repository so each reactive method call is timed in
+ * {@code debitcard.repository.invocations}, tagged with the repository and method names. Spring
+ * Data's own invocation metrics stop when the publisher is returned, before any query runs.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+  static final String METRIC = "debitcard.repository.invocations";
+
+  private final ObjectProvider<ReactiveMetrics> metrics;
+
+  public RepositoryMetricsPostProcessor(ObjectProvider<ReactiveMetrics> metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof Repository<?, ?>)) {
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      Object result = invocation.proceed();
+      String[] tags = {"repository", beanName, "method", invocation.getMethod().getName()};
+      if (result instanceof Mono<?> mono) {
+        return metrics.getObject().time(METRIC, mono, tags);
+      }
+      if (result instanceof Flux<?> flux) {
+        return metrics.getObject().time(METRIC, flux, tags);
+      }
+      return result;
+    });
+    return proxyFactory.getProxy();
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.debitcardservice.util.FileSpanExporter;
+import com.nttbank.microservices.debitcardservice.util.TracingSupport;
+import io.micrometer.observation.ObservationRegistry;
+import java.nio.file.Path;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+import reactivefeign.client.ReactiveHttpRequestInterceptor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Configuration for distributed tracing. The trace started for a consumed transfer event travels
+ * in the Reactor context, Mongo commands are traced as its children and its context is sent along
+ * with every gateway request. When {@code debitcard.tracing.file.enabled} is set, finished spans
+ * are also written to a local file.
+ */
+@Configuration
+public class TracingConfig {
+
+  /**
+   * Traces every Mongo command as a child of the observation in the Reactor context.
+   */
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(
+      ObservationRegistry observationRegistry) {
+    return builder -> builder
+        .contextProvider(ContextProviderFactory.create(observationRegistry))
+        .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+  }
+
+  /**
+   * Adds the propagation headers of the current trace to every gateway request.
+   */
+  @Bean
+  public ReactiveHttpRequestInterceptor tracingRequestInterceptor(TracingSupport tracingSupport) {
+    return request -> Mono.deferContextual(context -> {
+      tracingSupport.headers(context)
+          .forEach((name, value) -> request.headers().put(name, List.of(value)));
+      return Mono.just(request);
+    });
+  }
+
+  /**
+   * Writes finished spans as JSON lines to {@code debitcard.tracing.file.path}.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "debitcard.tracing.file.enabled", havingValue = "true")
+  public FileSpanExporter fileSpanExporter(ObjectMapper objectMapper,
+      @Value("${debitcard.tracing.file.path:target/traces/spans.jsonl}") String path) {
+    return new FileSpanExporter(Path.of(path), objectMapper);
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties of the priority lanes of the transfer consumer. Lanes are named by what
+ * the transfer does to the card, not by its event type:
+ *
+ * <ul>
+ *   <li>{@code spend}: {@code DEPOSIT_DEBIT_CARD}, paid from the card, e.g. a point of sale
+ *       payment.</li>
+ *   <li>{@code top-up}: {@code WITHDRAW_DEBIT_CARD}, moved from another account onto the
+ *       card.</li>
+ *   <li>{@code management}: the admin events and any other transfer.</li>
+ * </ul>
+ *
+ * <p>Every lane is consumed by its own listener container, with its own topic, consumer group,
+ * number of consumers and in-flight limit, so a rebalance of one lane never stops the consumers of
+ * another. Every value can be overridden under {@code kafka.nttbank.lanes}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kafka.nttbank.lanes")
+public class TransferLaneProperties {
+
+  /** Lane of the payments made with the card, the latency-sensitive point of sale traffic. */
+  private Lane spend = new Lane("debitcard-service-card-spends-v1",
+      "debitcard-service-card-spends", 4, 64, 0);
+
+  /** Lane of the money moved onto the card, which may arrive in bulk. */
+  private Lane topUp = new Lane("debitcard-service-card-top-ups-v1",
+      "debitcard-service-card-top-ups", 1, 16, 0);
+
+  /**
+   * Lane of the shared management topic, which carries the admin events and the transfers of
+   * producers that do not publish to a lane topic yet.
+   */
+  private Lane management = new Lane("debitcard-service-management-v1", null, 1, 64, 0);
+
+  /** Settings of a single lane. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Lane {
+
+    /** Topic consumed by the lane. */
+    private String topic;
+
+    /**
+     * Consumer group of the lane, or null for the group of {@code kafka.nttbank.topic.consumer}.
+     */
+    private String groupId;
+
+    /** Number of consumers of the lane topic. */
+    private int concurrency = 1;
+
+    /** Maximum number of transfers in flight per consumer. */
+    private int maxInFlight = 16;
+
+    /** Number of card lanes of the lane executor, or 0 for twice the available cores. */
+    private int cardLanes;
+
+  }
+
+}
@@ -1,12 +1,28 @@
 package com.nttbank.microservices.debitcardservice.controller;
 
+import static com.nttbank.microservices.debitcardservice.util.Constants.DEFAULT_PAGE_SIZE;
+import static com.nttbank.microservices.debitcardservice.util.Constants.MAX_PAGE_SIZE;
+import static com.nttbank.microservices.debitcardservice.util.Constants.NEXT_CURSOR_HEADER;
+
 import com.nttbank.microservices.debitcardservice.mapper.DebitCardMapper;
 import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardTransactions;
 import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse;
+import com.nttbank.microservices.debitcardservice.service.CardAggregateStore;
+import com.nttbank.microservices.debitcardservice.service.DebitCardBulkService;
 import com.nttbank.microservices.debitcardservice.service.DebitCardService;
+import com.nttbank.microservices.debitcardservice.service.TransactionLedger;
 import jakarta.validation.Valid;
 import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +33,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -31,17 +49,52 @@ public class DebitCardController {
 
   private final DebitCardService service;
   private final DebitCardMapper mapper;
+  private final DebitCardBulkService bulkService;
+  private final TransactionLedger ledger;
+  private final CardAggregateStore aggregates;
 
   /**
-   * Retrieves all debit cards.
+   * Retrieves a page of debit cards sorted by id. When the page is full, the id of its last card is
+   * returned in the {@code X-Next-Cursor} header and is used as {@code after} to fetch the next one.
    *
+   * @param after  the id of the last card of the previous page.
+   * @param size   the maximum number of cards of the page.
+   * @param fields the fields to return.
    * @return a {@link Mono} containing a {@link ResponseEntity} with a {@link Flux} of debit cards.
    */
-  @GetMapping
-  public Mono<ResponseEntity<Flux<DebitCard>>> findAll() {
-    return Mono.just(
-            ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(service.findAll()))
-        .defaultIfEmpty(ResponseEntity.noContent().build());
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Flux<DebitCard>>> findAll(
+      @RequestParam(name = "after", required = false) String after,
+      @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+      @RequestParam(name = "fields", required = false) Set<String> fields) {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    return service.findPage(after, pageSize, fields)
+        .collectList()
+        .map(cards -> {
+          ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+              .contentType(MediaType.APPLICATION_JSON);
+          if (cards.size() == pageSize) {
+            builder.header(NEXT_CURSOR_HEADER, cards.get(cards.size() - 1).getId());
+          }
+          return builder.body(Flux.fromIterable(cards));
+        });
+  }
+
+  /**
+   * Streams the debit cards sorted by id as newline delimited JSON. The stream is read from the
+   * database as the client consumes it.
+   *
+   * @param after  the id of the last card already received.
+   * @param size   the maximum number of cards to stream, or 0 for all of them.
+   * @param fields the fields to return.
+   * @return a {@link Flux} of debit cards.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<DebitCard> streamAll(
+      @RequestParam(name = "after", required = false) String after,
+      @RequestParam(name = "size", defaultValue = "0") int size,
+      @RequestParam(name = "fields", required = false) Set<String> fields) {
+    return service.findPage(after, Math.max(0, size), fields);
   }
 
   /**
@@ -61,6 +114,18 @@ public class DebitCardController {
         .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
   }
 
+  /**
+   * Issues debit cards in bulk from a stream of newline delimited JSON records.
+   *
+   * @param records the debit card records to issue.
+   * @return a {@link Flux} with the result of every record, in the order of the records.
+   */
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<BulkIssueResponse> bulkSave(@RequestBody Flux<DebitCardRecord> records) {
+    return bulkService.issue(records);
+  }
+
   /**
    * Add a bank account to a debit card.
    *
@@ -97,4 +162,176 @@ public class DebitCardController {
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
+  /**
+   * Add several bank accounts to a debit card in one atomic update.
+   *
+   * @param debitCardId the ID of the debit card.
+   * @param accountIds  the IDs of the bank accounts to link.
+   * @return a {@link Mono} containing a {@link ResponseEntity} with the updated debit card.
+   */
+  @PostMapping("/{debit_card_id}/accounts")
+  public Mono<ResponseEntity<DebitCard>> addLinkedAccounts(
+      @Valid @PathVariable("debit_card_id") String debitCardId,
+      @RequestBody Set<String> accountIds) {
+
+    return service.addLinkedAccounts(debitCardId, accountIds)
+        .map(updatedCard -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+            .body(updatedCard))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Remove several linked bank accounts from a debit card in one atomic update.
+   *
+   * @param debitCardId the ID of the debit card.
+   * @param accountIds  the IDs of the bank accounts to unlink.
+   * @return a {@link Mono} containing a {@link ResponseEntity} with the updated debit card.
+   */
+  @DeleteMapping("/{debit_card_id}/accounts")
+  public Mono<ResponseEntity<DebitCard>> removeLinkedAccounts(
+      @Valid @PathVariable("debit_card_id") String debitCardId,
+      @RequestBody Set<String> accountIds) {
+
+    return service.removeLinkedAccounts(debitCardId, accountIds)
+        .map(updatedCard -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+            .body(updatedCard))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Retrieves a page of the transactions of a debit card recorded in a time range, sorted by id.
+   * When the page is full, the id of its last transaction is returned in the {@code X-Next-Cursor}
+   * header and is used as {@code after} to fetch the next one.
+   *
+   * @param debitCardId the ID of the debit card.
+   * @param from        the start of the time range, inclusive, a month before {@code to} by
+   *                    default.
+   * @param to          the end of the time range, exclusive; now by default.
+   * @param after       the id of the last transaction of the previous page.
+   * @param size        the maximum number of transactions of the page.
+   * @return a {@link Mono} containing a {@link ResponseEntity} with a {@link Flux} of transactions.
+   */
+  @GetMapping(value = "/{debit_card_id}/transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<Flux<DebitCardTransactions>>> findTransactions(
+      @PathVariable("debit_card_id") String debitCardId,
+      @RequestParam(name = "from", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(name = "to", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(name = "after", required = false) String after,
+      @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    return service.findById(debitCardId)
+        .flatMap(card -> transactions(card, from, to, after, pageSize).collectList())
+        .map(transactions -> {
+          ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+              .contentType(MediaType.APPLICATION_JSON);
+          if (transactions.size() == pageSize) {
+            builder.header(NEXT_CURSOR_HEADER, transactions.get(transactions.size() - 1).getId());
+          }
+          return builder.body(Flux.fromIterable(transactions));
+        })
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Streams the transactions of a debit card recorded in a time range, sorted by id, as newline
+   * delimited JSON. The stream is read from the database as the client consumes it.
+   *
+   * @param debitCardId the ID of the debit card.
+   * @param from        the start of the time range, inclusive, a month before {@code to} by
+   *                    default.
+   * @param to          the end of the time range, exclusive; now by default.
+   * @param after       the id of the last transaction already received.
+   * @param size        the maximum number of transactions to stream, or 0 for all of them.
+   * @return a {@link Flux} of transactions.
+   */
+  @GetMapping(value = "/{debit_card_id}/transactions",
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<DebitCardTransactions> streamTransactions(
+      @PathVariable("debit_card_id") String debitCardId,
+      @RequestParam(name = "from", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(name = "to", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(name = "after", required = false) String after,
+      @RequestParam(name = "size", defaultValue = "0") int size) {
+    return service.findById(debitCardId)
+        .switchIfEmpty(Mono.error(
+            new ResponseStatusException(HttpStatus.NOT_FOUND, "Debit card not found")))
+        .flatMapMany(card -> transactions(card, from, to, after, Math.max(0, size)));
+  }
+
+  /**
+   * Retrieves the daily or monthly totals of the completed transfers of a debit card, sorted by
+   * period. The totals are maintained as transfers complete, so no transaction is scanned.
+   *
+   * @param debitCardId the ID of the debit card.
+   * @param granularity {@code day} or {@code month}.
+   * @param from        the first period, {@code yyyy-MM-dd} or {@code yyyy-MM}; 30 days or 12
+   *                    months before {@code to} by default.
+   * @param to          the last period, {@code yyyy-MM-dd} or {@code yyyy-MM}; the current one by
+   *                    default.
+   * @return a {@link Flux} of aggregates.
+   */
+  @GetMapping(value = "/{debit_card_id}/aggregates", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Flux<DebitCardAggregate> findAggregates(
+      @PathVariable("debit_card_id") String debitCardId,
+      @RequestParam(name = "granularity", defaultValue = DebitCardAggregate.DAY)
+      String granularity,
+      @RequestParam(name = "from", required = false) String from,
+      @RequestParam(name = "to", required = false) String to) {
+    String first;
+    String last;
+    try {
+      if (DebitCardAggregate.DAY.equals(granularity)) {
+        LocalDate end = to != null ? LocalDate.parse(to) : LocalDate.now();
+        last = end.toString();
+        first = from != null ? LocalDate.parse(from).toString() : end.minusDays(30).toString();
+      } else if (DebitCardAggregate.MONTH.equals(granularity)) {
+        YearMonth end = to != null ? YearMonth.parse(to) : YearMonth.now();
+        last = end.toString();
+        first = from != null ? YearMonth.parse(from).toString() : end.minusMonths(12).toString();
+      } else {
+        return Flux.error(new IllegalArgumentException("Unknown granularity: " + granularity));
+      }
+    } catch (DateTimeParseException e) {
+      return Flux.error(new IllegalArgumentException("Invalid period: " + e.getParsedString()));
+    }
+    return service.findById(debitCardId)
+        .switchIfEmpty(Mono.error(
+            new ResponseStatusException(HttpStatus.NOT_FOUND, "Debit card not found")))
+        .flatMapMany(card -> aggregates.findRange(card.getCardNumber(), granularity, first,
+            last));
+  }
+
+  /**
+   * Retrieves the totals of the current day and month of a debit card, in that order. Meant for
+   * dashboards that poll them: the totals are read through the in-memory aggregate window, so they
+   * may be a few seconds old.
+   *
+   * @param debitCardId the ID of the debit card.
+   * @return a {@link Flux} with the daily and the monthly aggregate.
+   */
+  @GetMapping(value = "/{debit_card_id}/aggregates/current",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public Flux<DebitCardAggregate> findCurrentAggregates(
+      @PathVariable("debit_card_id") String debitCardId) {
+    return service.findById(debitCardId)
+        .switchIfEmpty(Mono.error(
+            new ResponseStatusException(HttpStatus.NOT_FOUND, "Debit card not found")))
+        .flatMapMany(card -> {
+          LocalDate today = LocalDate.now();
+          return Flux.concat(aggregates.findCachedDay(card.getCardNumber(), today),
+              aggregates.findCachedMonth(card.getCardNumber(), YearMonth.from(today)));
+        });
+  }
+
+  private Flux<DebitCardTransactions> transactions(DebitCard card, LocalDateTime from,
+      LocalDateTime to, String after, int size) {
+    LocalDateTime end = to != null ? to : LocalDateTime.now();
+    LocalDateTime start = from != null ? from : end.minusMonths(1);
+    return ledger.findPage(card.getCardNumber(), start, end, after, size);
+  }
+
 }
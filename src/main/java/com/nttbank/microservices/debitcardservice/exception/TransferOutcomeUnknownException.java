@@ -0,0 +1,21 @@
+package com.nttbank.microservices.debitcardservice.exception;
+
+/**
+ * Raised when an account transfer was sent to the account service but its outcome could not be
+ * read, for instance because the connection failed, the call timed out after the request left or
+ * the account service answered with a server error. The transfer may or may not have been applied,
+ * so it must not be reported as failed.
+ */
+public class TransferOutcomeUnknownException extends RuntimeException {
+
+  /**
+   * Creates the exception.
+   *
+   * @param message the description of the transfer.
+   * @param cause   the error that hid the outcome.
+   */
+  public TransferOutcomeUnknownException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
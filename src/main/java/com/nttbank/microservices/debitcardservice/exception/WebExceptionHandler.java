@@ -7,6 +7,7 @@ import static com.nttbank.microservices.debitcardservice.util.Constants.PATH_KEY
 import static com.nttbank.microservices.debitcardservice.util.Constants.STATUS_KEY;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,12 +35,15 @@ import reactor.core.publisher.Mono;
  * A custom exception handler for handling various types of errors in a reactive Spring WebFlux
  * application. It extends the {@link AbstractErrorWebExceptionHandler} to provide custom error
  * handling logic for validation errors, illegal arguments, and other exceptions, formatting the
- * errors in a consistent response format.
+ * errors in a consistent response format. Every handled error is counted in
+ * {@code debitcard.http.errors} by exception type and response status.
  */
 @Component
 @Order(-1)
 public class WebExceptionHandler extends AbstractErrorWebExceptionHandler {
 
+  private final MeterRegistry meterRegistry;
+
   /**
    * Creates a new instance of the {@link WebExceptionHandler} class with the specified error
    * attributes, resources, application context, and server codec configurer.
@@ -48,17 +52,27 @@ public class WebExceptionHandler extends AbstractErrorWebExceptionHandler {
    * @param resources          the resources to use
    * @param applicationContext the application context to use
    * @param configure          the server codec configurer to use
+   * @param meterRegistry      the registry where handled errors are counted
    */
   public WebExceptionHandler(ErrorAttributes errorAttributes, WebProperties.Resources resources,
-      ApplicationContext applicationContext, ServerCodecConfigurer configure) {
+      ApplicationContext applicationContext, ServerCodecConfigurer configure,
+      MeterRegistry meterRegistry) {
     super(errorAttributes, resources, applicationContext);
     this.setMessageWriters(configure.getWriters());
+    this.meterRegistry = meterRegistry;
   }
 
   @Override
   protected RouterFunction<ServerResponse> getRoutingFunction(ErrorAttributes errorAttributes) {
     return RouterFunctions.route(RequestPredicates.all(),
-        this::renderErrorResponse);
+        request -> renderErrorResponse(request)
+            .doOnNext(response -> countError(request, response)));
+  }
+
+  private void countError(ServerRequest request, ServerResponse response) {
+    meterRegistry.counter("debitcard.http.errors",
+        "exception", getError(request).getClass().getSimpleName(),
+        "status", String.valueOf(response.statusCode().value())).increment();
   }
 
   private Mono<ServerResponse> renderErrorResponse(ServerRequest request) {
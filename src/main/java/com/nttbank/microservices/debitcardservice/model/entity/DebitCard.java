@@ -9,6 +9,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -21,12 +23,15 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder(toBuilder = true)
+@CompoundIndex(name = "customer_status_idx", def = "{'customerId': 1, 'status': 1}")
 public class DebitCard {
 
   @EqualsAndHashCode.Include
   @Id
   private String id;
+  @Indexed(name = "customer_idx")
   private String customerId;
+  @Indexed(name = "card_number_idx", unique = true)
   private String cardNumber;
   private String cardholderName;
   private String expirationDate;
@@ -0,0 +1,84 @@
+package com.nttbank.microservices.debitcardservice.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * DebitCardAggregate class represents the running totals of the completed transfers of a card in
+ * one day or one month. The totals are maintained incrementally with {@code $inc} as transfers
+ * complete, so amounts are stored as {@code Decimal128}.
+ */
+@Data
+@Document("debit_card_aggregates")
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder(toBuilder = true)
+@CompoundIndex(name = "card_granularity_period_idx",
+    def = "{'debitCardNumber': 1, 'granularity': 1, 'period': 1}")
+public class DebitCardAggregate {
+
+  public static final String DAY = "day";
+  public static final String MONTH = "month";
+
+  @Id
+  private String id;
+  private String debitCardNumber;
+  private String granularity;
+  private String period;
+  private long depositCount;
+  @Field(targetType = FieldType.DECIMAL128)
+  @Builder.Default
+  private BigDecimal depositAmount = BigDecimal.ZERO;
+  private long withdrawCount;
+  @Field(targetType = FieldType.DECIMAL128)
+  @Builder.Default
+  private BigDecimal withdrawAmount = BigDecimal.ZERO;
+  @Field(targetType = FieldType.DECIMAL128)
+  private BigDecimal lastBalance;
+  private LocalDateTime updatedAt;
+
+  /**
+   * Returns the id of the daily aggregate of a card.
+   *
+   * @param cardNumber the debit card number.
+   * @param day        the day.
+   * @return the id.
+   */
+  public static String dayId(String cardNumber, LocalDate day) {
+    return cardNumber + ":" + day;
+  }
+
+  /**
+   * Returns the id of the monthly aggregate of a card.
+   *
+   * @param cardNumber the debit card number.
+   * @param month      the month.
+   * @return the id.
+   */
+  public static String monthId(String cardNumber, YearMonth month) {
+    return cardNumber + ":" + month;
+  }
+
+  /**
+   * Returns the number of completed transfers of the period.
+   *
+   * @return the number of deposits and withdrawals.
+   */
+  public long totalCount() {
+    return depositCount + withdrawCount;
+  }
+
+}
@@ -1,14 +1,75 @@
 package com.nttbank.microservices.debitcardservice.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
- * DebitCardTransactions class represents the debit card transactions entity.
+ * DebitCardTransactions class represents an entry of the append-only transaction ledger. Every
+ * processed transfer is recorded once, bucketed by card number and month, and entries are ordered
+ * by their id, which is generated when the transfer is recorded. The unique index on the
+ * transaction id keeps a retried insert from recording the same transfer twice.
  */
+@Data
+@Document("debit_card_transactions")
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+@CompoundIndex(name = "card_month_id_idx", def = "{'debitCardNumber': 1, 'month': 1, '_id': 1}")
 public class DebitCardTransactions {
 
+  @Id
+  private String id;
+  @Indexed(name = "transaction_id_idx", unique = true, sparse = true)
+  private String transactionId;
+  private String debitCardNumber;
+  private String month;
+  private String type;
+  private String accountId;
+  private BigDecimal amount;
+  private BigDecimal balanceUpdated;
   private String status;
+  private String description;
   private LocalDateTime createdAt;
-  private LocalDateTime updatedAt;
+
+  /**
+   * Returns the month bucket of the given time.
+   *
+   * @param time the time.
+   * @return the month bucket, formatted as {@code yyyy-MM}.
+   */
+  public static String monthOf(LocalDateTime time) {
+    return YearMonth.from(time).toString();
+  }
+
+  /**
+   * Returns the month buckets covering the given time range.
+   *
+   * @param from the start of the range, inclusive.
+   * @param to   the end of the range, exclusive.
+   * @return the month buckets in chronological order.
+   */
+  public static List<String> monthsBetween(LocalDateTime from, LocalDateTime to) {
+    List<String> months = new ArrayList<>();
+    YearMonth last = YearMonth.from(to.minusNanos(1));
+    YearMonth month = YearMonth.from(from);
+    while (!month.isAfter(last)) {
+      months.add(month.toString());
+      month = month.plusMonths(1);
+    }
+    return months;
+  }
 
 }
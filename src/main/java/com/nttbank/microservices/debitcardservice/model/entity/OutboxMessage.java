@@ -0,0 +1,50 @@
+package com.nttbank.microservices.debitcardservice.model.entity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * OutboxMessage class represents a Kafka message waiting in the outbox until the relay has handed
+ * it to the broker, together with the trace context of the operation that produced it. Sent
+ * messages expire three days after being sent. Messages the relay could not send after the
+ * configured number of attempts are kept with the failed status and their last error.
+ */
+@Data
+@Document("debit_card_outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@CompoundIndex(name = "outbox_status_created_idx", def = "{'status': 1, 'createdAt': 1}")
+@CompoundIndex(name = "outbox_status_key_created_idx",
+    def = "{'status': 1, 'messageKey': 1, 'createdAt': 1}")
+public class OutboxMessage {
+
+  public static final String STATUS_PENDING = "pending";
+  public static final String STATUS_SENT = "sent";
+  public static final String STATUS_FAILED = "failed";
+
+  @Id
+  private String id;
+  private String topic;
+  private String messageKey;
+  private String payloadType;
+  private String payload;
+  private Map<String, String> traceHeaders;
+  private String status;
+  private int attempts;
+  private String lastError;
+  private String claimedBy;
+  private LocalDateTime claimedUntil;
+  private LocalDateTime createdAt;
+  @Indexed(name = "outbox_sent_ttl_idx", expireAfter = "3d")
+  private LocalDateTime sentAt;
+
+}
@@ -0,0 +1,92 @@
+package com.nttbank.microservices.debitcardservice.model.entity;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * ProcessedTransfer class represents the idempotency record of a transfer event, keyed by its
+ * transaction id. While the transfer is {@code in_flight} the record is a lease held until
+ * {@code claimedUntil}, and once the account transfer has run its outcome is kept in
+ * {@code result} so a redelivery resumes from it instead of moving the money again. Records expire
+ * a week after the transfer was first seen.
+ */
+@Data
+@Document("processed_transfers")
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProcessedTransfer {
+
+  public static final String STATUS_IN_FLIGHT = "in_flight";
+
+  @Id
+  private String transactionId;
+  private String debitCardNumber;
+  private String status;
+  private LocalDateTime claimedUntil;
+  private TransferResult result;
+  @Indexed(name = "processed_transfers_ttl_idx", expireAfter = "7d")
+  private LocalDateTime createdAt;
+  private LocalDateTime completedAt;
+
+  /** Outcome of the account transfer, stored before the result event is published. */
+  @Data
+  @AllArgsConstructor
+  @NoArgsConstructor
+  @Builder
+  public static class TransferResult {
+
+    private String type;
+    private String accountId;
+    private BigDecimal balanceUpdated;
+    private BigDecimal amount;
+    private String status;
+    private String description;
+
+    /**
+     * Creates the result from the result event of the transfer.
+     *
+     * @param event the result event.
+     * @return the result.
+     */
+    public static TransferResult from(DebitCardTransactionEvent event) {
+      return TransferResult.builder()
+          .type(event.getType())
+          .accountId(event.getAccountId())
+          .balanceUpdated(event.getBalanceUpdated())
+          .amount(event.getAmount())
+          .status(event.getStatus())
+          .description(event.getDescription())
+          .build();
+    }
+
+    /**
+     * Rebuilds the result event of the transfer.
+     *
+     * @param transactionId the transaction id of the transfer.
+     * @param cardNumber    the debit card number of the transfer.
+     * @return the result event.
+     */
+    public DebitCardTransactionEvent toEvent(String transactionId, String cardNumber) {
+      return DebitCardTransactionEvent.builder()
+          .transId(transactionId)
+          .type(type)
+          .accountId(accountId)
+          .debitCardNumber(cardNumber)
+          .balanceUpdated(balanceUpdated)
+          .amount(amount)
+          .status(status)
+          .description(description)
+          .build();
+    }
+  }
+
+}
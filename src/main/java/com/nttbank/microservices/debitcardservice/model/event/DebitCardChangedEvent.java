@@ -0,0 +1,27 @@
+package com.nttbank.microservices.debitcardservice.model.event;
+
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * DebitCardChangedEvent class represents the compact notification published when a debit card is
+ * created, updated or deleted, so every instance can evict its cached copy.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class DebitCardChangedEvent extends GenericEvent<DebitCardChangedEvent> {
+
+  private String cardId;
+  private String cardNumber;
+  private String changeType;
+  private String originInstanceId;
+  private long changedAt;
+
+}
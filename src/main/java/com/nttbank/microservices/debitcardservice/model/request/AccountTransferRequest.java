@@ -0,0 +1,27 @@
+package com.nttbank.microservices.debitcardservice.model.request;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AccountTransferRequest class represents one transfer of a batched transfer request sent to the
+ * account service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransferRequest {
+
+  private String requestId;
+
+  private String fromAccountId;
+
+  private String toAccountId;
+
+  private BigDecimal amount;
+
+}
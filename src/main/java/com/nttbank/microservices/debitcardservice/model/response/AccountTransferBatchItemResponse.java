@@ -0,0 +1,26 @@
+package com.nttbank.microservices.debitcardservice.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AccountTransferBatchItemResponse class represents the outcome of one transfer of a batched
+ * transfer request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransferBatchItemResponse {
+
+  private String requestId;
+
+  private int status;
+
+  private String message;
+
+  private AccountTransactionsResponse transaction;
+
+}
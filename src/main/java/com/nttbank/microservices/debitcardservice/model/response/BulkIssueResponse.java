@@ -0,0 +1,34 @@
+package com.nttbank.microservices.debitcardservice.model.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BulkIssueResponse class represents the outcome of one record of a bulk debit card issuance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIssueResponse {
+
+  public static final String STATUS_CREATED = "created";
+  public static final String STATUS_REJECTED = "rejected";
+  public static final String STATUS_FAILED = "failed";
+
+  private long index;
+
+  private String id;
+
+  private String cardNumber;
+
+  private String mainAccountId;
+
+  private String status;
+
+  private List<String> errors;
+
+}
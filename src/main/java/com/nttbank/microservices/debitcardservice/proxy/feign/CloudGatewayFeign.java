@@ -1,11 +1,15 @@
 package com.nttbank.microservices.debitcardservice.proxy.feign;
 
+import com.nttbank.microservices.debitcardservice.model.request.AccountTransferRequest;
 import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransferBatchItemResponse;
 import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
 import java.math.BigDecimal;
+import java.util.List;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import reactivefeign.spring.config.ReactiveFeignClient;
 import reactor.core.publisher.Mono;
@@ -31,6 +35,16 @@ public interface CloudGatewayFeign {
       @PathVariable("to_account_id") String toAccountId,
       @RequestParam("amount") BigDecimal amount);
 
+  /**
+   * Executes several transfers in one request.
+   *
+   * @param transfers the transfers to execute.
+   * @return a {@link Mono} containing the outcome of every transfer, matched by request id.
+   */
+  @PostMapping("/api/account-service/accounts/transfers/batch")
+  Mono<List<AccountTransferBatchItemResponse>> accountTransferBatch(
+      @RequestBody List<AccountTransferRequest> transfers);
+
   /**
    * Retrieves a bank account by its ID.
    *
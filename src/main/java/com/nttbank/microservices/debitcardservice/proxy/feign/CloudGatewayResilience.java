@@ -0,0 +1,235 @@
+package com.nttbank.microservices.debitcardservice.proxy.feign;
+
+import com.nttbank.microservices.debitcardservice.config.CloudGatewayResilienceProperties;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Resilience layer applied to every call made through {@link CloudGatewayFeign}. Each Feign method
+ * gets its own timeout, semaphore bulkhead and circuit breaker, and idempotent methods are retried
+ * with jittered exponential backoff as long as the shared {@link RetryBudget} allows it. Circuit
+ * breaker state transitions, bulkhead usage, retries and the remaining budget are published as
+ * metrics, and every attempt is timed in {@code debitcard.gateway.requests} by operation and
+ * outcome. A non-idempotent call that times out, fails with a server error or loses its
+ * connection may still have been applied by the remote service, so those errors are surfaced as a
+ * {@link TransferOutcomeUnknownException} instead of a failure.
+ */
+@Slf4j
+@Component
+public class CloudGatewayResilience {
+
+  public static final String ACCOUNT_TRANSFER = "accountTransfer";
+  public static final String ACCOUNT_TRANSFER_BATCH = "accountTransferBatch";
+  public static final String FIND_BY_ID = "findById";
+
+  private final CloudGatewayResilienceProperties properties;
+  private final CircuitBreakerRegistry circuitBreakerRegistry;
+  private final BulkheadRegistry bulkheadRegistry;
+  private final RetryBudget retryBudget;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Creates the resilience layer.
+   *
+   * @param meterRegistry the registry where the resilience metrics are published.
+   * @param properties    the resilience configuration.
+   */
+  public CloudGatewayResilience(MeterRegistry meterRegistry,
+      CloudGatewayResilienceProperties properties) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+        .failureRateThreshold(properties.getFailureRateThreshold())
+        .slidingWindowSize(properties.getSlidingWindowSize())
+        .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+        .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+        .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+        .recordException(CloudGatewayResilience::isRemoteFailure)
+        .build());
+    this.bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+        .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+        .maxWaitDuration(properties.getMaxWaitDuration())
+        .build());
+    this.retryBudget = new RetryBudget(properties.getRetryBudgetRatio(),
+        properties.getRetryBudgetMaxTokens());
+
+    TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry)
+        .bindTo(meterRegistry);
+    TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    Gauge.builder("debitcard.gateway.retry.budget", retryBudget, RetryBudget::available)
+        .description("Retries currently available in the cloud gateway retry budget")
+        .register(meterRegistry);
+
+    for (String operation : new String[]{ACCOUNT_TRANSFER, ACCOUNT_TRANSFER_BATCH, FIND_BY_ID}) {
+      circuitBreaker(operation);
+      bulkheadRegistry.bulkhead(operation);
+    }
+  }
+
+  /**
+   * Decorates a remote call with the resilience policies of the operation.
+   *
+   * @param operation the Feign method name, used to select its circuit breaker and bulkhead.
+   * @param retryable whether the call is idempotent and may be retried. Errors of calls that are
+   *                  not are reported as a {@link TransferOutcomeUnknownException} when
+   *                  {@link #isOutcomeUnknown} holds.
+   * @param call      the supplier of the remote call, invoked once per attempt.
+   * @return the decorated call.
+   */
+  public <T> Mono<T> decorate(String operation, boolean retryable, Supplier<Mono<T>> call) {
+    CircuitBreaker circuitBreaker = circuitBreaker(operation);
+    Bulkhead bulkhead = bulkheadRegistry.bulkhead(operation);
+
+    Mono<T> attempt = Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return Mono.defer(call)
+          .timeout(properties.getTimeout())
+          .transformDeferred(BulkheadOperator.of(bulkhead))
+          .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+          .doOnSuccess(value -> {
+            retryBudget.onSuccess();
+            sample.stop(requestTimer(operation, "success"));
+          })
+          .doOnError(e -> sample.stop(requestTimer(operation, outcome(e))));
+    });
+
+    if (!retryable) {
+      return attempt.onErrorMap(CloudGatewayResilience::isOutcomeUnknown,
+          e -> new TransferOutcomeUnknownException(
+              "Outcome of " + operation + " is unknown: " + e, e));
+    }
+    if (properties.getMaxRetries() <= 0) {
+      return attempt;
+    }
+    return attempt.retryWhen(Retry.backoff(properties.getMaxRetries(), properties.getRetryBackoff())
+        .jitter(properties.getRetryJitter())
+        .filter(e -> isRetryable(e) && retryBudget.tryAcquire())
+        .doBeforeRetry(signal -> meterRegistry.counter("debitcard.gateway.retries",
+            "operation", operation).increment())
+        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+  }
+
+  /**
+   * Returns whether the call was refused by the resilience layer before the request was sent.
+   *
+   * @param error the error.
+   * @return {@code true} for open circuit and full bulkhead errors.
+   */
+  public static boolean isNotSent(Throwable error) {
+    return error instanceof CallNotPermittedException || error instanceof BulkheadFullException;
+  }
+
+  /**
+   * Returns whether a failed call may still have been applied by the remote service: the request
+   * timed out, lost its connection or got a server error other than 501 Not Implemented. Calls
+   * refused by the resilience layer and client errors were not applied.
+   *
+   * @param error the error.
+   * @return {@code true} when the outcome of the call is unknown.
+   */
+  public static boolean isOutcomeUnknown(Throwable error) {
+    if (isNotSent(error)) {
+      return false;
+    }
+    if (error instanceof FeignException feignException) {
+      return feignException.status() != HttpStatus.NOT_IMPLEMENTED.value()
+          && isRemoteFailure(feignException);
+    }
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof TimeoutException || cause instanceof IOException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the error was raised by the resilience layer itself instead of by the remote
+   * service. Only idempotent calls surface timeouts this way.
+   *
+   * @param error the error.
+   * @return {@code true} for open circuit, full bulkhead and timeout errors.
+   */
+  public static boolean isRejection(Throwable error) {
+    return error instanceof CallNotPermittedException
+        || error instanceof BulkheadFullException
+        || error instanceof TimeoutException;
+  }
+
+  private CircuitBreaker circuitBreaker(String operation) {
+    return circuitBreakerRegistry.find(operation).orElseGet(() -> {
+      CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(operation);
+      circuitBreaker.getEventPublisher().onStateTransition(event -> {
+        log.warn("Circuit breaker {} changed from {} to {}", operation,
+            event.getStateTransition().getFromState(), event.getStateTransition().getToState());
+        meterRegistry.counter("debitcard.gateway.circuitbreaker.transitions",
+            "operation", operation,
+            "from", event.getStateTransition().getFromState().name(),
+            "to", event.getStateTransition().getToState().name()).increment();
+      });
+      return circuitBreaker;
+    });
+  }
+
+  private Timer requestTimer(String operation, String outcome) {
+    return Timer.builder("debitcard.gateway.requests")
+        .description("Latency of calls to the cloud gateway")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private static String outcome(Throwable error) {
+    if (error instanceof TimeoutException) {
+      return "timeout";
+    }
+    if (error instanceof CallNotPermittedException) {
+      return "circuit_open";
+    }
+    if (error instanceof BulkheadFullException) {
+      return "bulkhead_full";
+    }
+    if (error instanceof FeignException feignException && feignException.status() >= 400) {
+      return feignException.status() < 500 ? "client_error" : "server_error";
+    }
+    return "error";
+  }
+
+  private static boolean isRemoteFailure(Throwable error) {
+    if (error instanceof FeignException feignException) {
+      return feignException.status() < 400 || feignException.status() >= 500;
+    }
+    return true;
+  }
+
+  private static boolean isRetryable(Throwable error) {
+    if (error instanceof CallNotPermittedException || error instanceof BulkheadFullException) {
+      return false;
+    }
+    return isRemoteFailure(error);
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.nttbank.microservices.debitcardservice.proxy.feign;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that bounds retries to a fraction of the successful calls. Every successful call
+ * deposits a fraction of a token and every retry withdraws a whole token, so a slow or failing
+ * remote service cannot be flooded by retries.
+ */
+public class RetryBudget {
+
+  private static final long SCALE = 1000;
+
+  private final long depositPerCall;
+  private final long maxBalance;
+  private final AtomicLong balance;
+
+  /**
+   * Creates a budget that starts full.
+   *
+   * @param ratio     the retries earned per successful call.
+   * @param maxTokens the maximum number of retries that can be accumulated.
+   */
+  public RetryBudget(double ratio, int maxTokens) {
+    this.depositPerCall = Math.round(ratio * SCALE);
+    this.maxBalance = maxTokens * SCALE;
+    this.balance = new AtomicLong(maxBalance);
+  }
+
+  /** Deposits the share of a successful call. */
+  public void onSuccess() {
+    balance.accumulateAndGet(depositPerCall, (current, deposit) ->
+        Math.min(maxBalance, current + deposit));
+  }
+
+  /**
+   * Withdraws one retry from the budget.
+   *
+   * @return {@code true} when the retry is allowed.
+   */
+  public boolean tryAcquire() {
+    long current;
+    do {
+      current = balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+    } while (!balance.compareAndSet(current, current - SCALE));
+    return true;
+  }
+
+  /**
+   * Returns the number of whole retries currently available.
+   *
+   * @return the available retries.
+   */
+  public long available() {
+    return balance.get() / SCALE;
+  }
+
+}
@@ -0,0 +1,121 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Asynchronous cache of bank accounts read from the account service. Concurrent lookups of the
+ * same account share a single remote call, and accounts that do not exist are cached for a shorter
+ * time so repeated lookups of unknown ids do not reach the account service either. Every eviction
+ * bumps the generation of the account, and a lookup that started before the latest eviction
+ * returns its result without caching it, so a balance read before a transfer is never cached after
+ * the transfer has evicted the account.
+ */
+@Component
+public class AccountLookupCache {
+
+  private final AsyncCache<String, Optional<BankAccountResponse>> cache;
+  private final Cache<String, Long> evictions;
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Creates the cache.
+   *
+   * @param meterRegistry the registry where the cache statistics are published.
+   * @param maximumSize   the maximum number of accounts kept.
+   * @param ttl           the time an existing account is kept.
+   * @param negativeTtl   the time a missing account is kept.
+   */
+  public AccountLookupCache(MeterRegistry meterRegistry,
+      @Value("${debitcard.account-cache.maximum-size:50000}") long maximumSize,
+      @Value("${debitcard.account-cache.ttl:30s}") Duration ttl,
+      @Value("${debitcard.account-cache.negative-ttl:5s}") Duration negativeTtl) {
+    long ttlNanos = ttl.toNanos();
+    long negativeTtlNanos = negativeTtl.toNanos();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new Expiry<String, Optional<BankAccountResponse>>() {
+          @Override
+          public long expireAfterCreate(String key, Optional<BankAccountResponse> value,
+              long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Optional<BankAccountResponse> value,
+              long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, Optional<BankAccountResponse> value,
+              long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .buildAsync();
+    this.evictions = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "bankAccounts");
+  }
+
+  /**
+   * Returns the account with the given id, loading it with the loader on a miss. Failed loads are
+   * not cached.
+   *
+   * @param accountId the account id.
+   * @param loader    the function that loads the account, empty when it does not exist.
+   * @return a {@link Mono} with the account, or empty when it does not exist.
+   */
+  public Mono<BankAccountResponse> get(String accountId,
+      Function<String, Mono<BankAccountResponse>> loader) {
+    return Mono.fromFuture(() -> cache.get(accountId, (key, executor) -> load(key, loader)), true)
+        .flatMap(Mono::justOrEmpty);
+  }
+
+  /**
+   * Evicts the cached account, for instance after its balance has changed.
+   *
+   * @param accountId the account id.
+   */
+  public void evict(String accountId) {
+    if (accountId != null) {
+      evictions.put(accountId, generation.incrementAndGet());
+      cache.synchronous().invalidate(accountId);
+    }
+  }
+
+  private CompletableFuture<Optional<BankAccountResponse>> load(String accountId,
+      Function<String, Mono<BankAccountResponse>> loader) {
+    long startedAt = generation.get();
+    CompletableFuture<Optional<BankAccountResponse>> result = new CompletableFuture<>();
+    loader.apply(accountId)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .subscribe(account -> {
+          Long evictedAt = evictions.getIfPresent(accountId);
+          if (evictedAt != null && evictedAt > startedAt) {
+            cache.asMap().remove(accountId, result);
+          }
+          result.complete(account);
+        }, result::completeExceptionally);
+    return result;
+  }
+
+}
@@ -2,9 +2,11 @@ package com.nttbank.microservices.debitcardservice.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
 import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
 import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
 import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayFeign;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayResilience;
 import feign.FeignException;
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -24,10 +26,16 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class AccountService {
 
+  private static final ObjectMapper ERROR_MAPPER = new ObjectMapper();
+
   private final CloudGatewayFeign feignAccount;
+  private final AccountTransferBatcher transferBatcher;
+  private final AccountLookupCache accountCache;
+  private final CloudGatewayResilience resilience;
 
   /**
-   * Tranfer money between two accounts.
+   * Tranfer money between two accounts. The transfer is sent to the account service as part of the
+   * next {@link AccountTransferBatcher} batch.
    *
    * @param fromAccountId the ID of the account to transfer money from.
    * @param toAccountId   the ID of the account to transfer money to.
@@ -36,8 +44,25 @@ public class AccountService {
    */
   public Mono<AccountTransactionsResponse> accountTransfer(String fromAccountId, String toAccountId,
       BigDecimal amount) {
-    return feignAccount.accountTransfer(fromAccountId, toAccountId, amount)
+    return transferBatcher.submit(fromAccountId, toAccountId, amount)
+        .doFinally(signal -> {
+          accountCache.evict(fromAccountId);
+          accountCache.evict(toAccountId);
+        })
         .onErrorResume(e -> {
+          if (e instanceof IllegalArgumentException) {
+            log.error("Error performing account transfer operation: {}", e.getMessage());
+            return Mono.error(e);
+          }
+          if (e instanceof TransferOutcomeUnknownException) {
+            log.error("Outcome of account transfer unknown: {}", e.getMessage());
+            return Mono.error(e);
+          }
+          if (CloudGatewayResilience.isRejection(e)) {
+            log.error("Account transfer rejected by the resilience layer: {}", e.toString());
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Account service unavailable", e));
+          }
           if (e instanceof FeignException feignException) {
             String errorMessage = extractMessageFromFeignException(feignException);
             log.error("Error performing account transfer operation: {}", errorMessage);
@@ -57,7 +82,7 @@ public class AccountService {
   public String extractMessageFromFeignException(FeignException feignException) {
     try {
       String responseBody = feignException.contentUTF8();
-      JsonNode jsonNode = new ObjectMapper().readTree(responseBody);
+      JsonNode jsonNode = ERROR_MAPPER.readTree(responseBody);
       return jsonNode.path("message").asText("An error occurred");
     } catch (IOException ioException) {
       return "An error occurred";
@@ -65,19 +90,29 @@ public class AccountService {
   }
 
   /**
-   * Retrieves a bank account by its ID.
+   * Retrieves a bank account by its ID. Lookups are served from the {@link AccountLookupCache} and
+   * concurrent lookups of the same account share one remote call.
    *
    * @param accountId the ID of the account to retrieve.
    * @return a {@link Mono} containing the bank account response.
    */
   public Mono<BankAccountResponse> findById(String accountId) {
-    return feignAccount.findById(accountId)
+    return accountCache.get(accountId, this::fetchAccount);
+  }
+
+  private Mono<BankAccountResponse> fetchAccount(String accountId) {
+    return resilience.decorate(CloudGatewayResilience.FIND_BY_ID, true,
+            () -> feignAccount.findById(accountId))
         .onErrorResume(ex -> {
           if (ex instanceof FeignException
               && ((FeignException) ex).status() == HttpStatus.NOT_FOUND.value()) {
             log.error("Account with ID {} not found: {}", accountId, ex.getMessage());
             return Mono.empty();
           }
+          if (CloudGatewayResilience.isRejection(ex)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Account service unavailable", ex));
+          }
           return Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
               "An unexpected error occurred", ex));
         });
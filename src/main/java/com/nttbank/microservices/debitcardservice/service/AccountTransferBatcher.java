@@ -0,0 +1,203 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
+import com.nttbank.microservices.debitcardservice.model.request.AccountTransferRequest;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransferBatchItemResponse;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayFeign;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayResilience;
+import feign.FeignException;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Micro-batching stage for account transfers. Transfers are collected until the batch is full or
+ * the batch window elapses, sent to the account service as one batched request and the outcome of
+ * every transfer is handed back to its caller. Batches are only emitted when a dispatch slot is
+ * free, so a slow account service delays transfers instead of failing the stage. When the batch
+ * request fails after it was sent, the transfers may have been applied, so their callers get a
+ * {@link TransferOutcomeUnknownException} instead of a failure. When the account service does not
+ * expose the batch endpoint the batcher falls back to one request per transfer, and probes the
+ * endpoint again after the re-probe interval.
+ */
+@Slf4j
+@Component
+public class AccountTransferBatcher {
+
+  private static final List<Integer> UNSUPPORTED_STATUSES = List.of(
+      HttpStatus.NOT_FOUND.value(), HttpStatus.METHOD_NOT_ALLOWED.value(),
+      HttpStatus.NOT_IMPLEMENTED.value());
+
+  private final CloudGatewayFeign feignAccount;
+  private final CloudGatewayResilience resilience;
+  private final boolean enabled;
+  private final Sinks.Many<PendingTransfer> queue = Sinks.many().unicast().onBackpressureBuffer();
+  private final Disposable subscription;
+  private final long reprobeIntervalMillis;
+  private volatile long batchUnsupportedUntil;
+
+  /**
+   * Creates the batcher.
+   *
+   * @param feignAccount       the account service client.
+   * @param resilience         the resilience layer wrapped around every remote call.
+   * @param enabled            whether transfers are batched at all.
+   * @param maxSize            the maximum number of transfers per batch.
+   * @param window             the maximum time a transfer waits for its batch to fill.
+   * @param maxInFlightBatches the maximum number of batches sent at once.
+   * @param reprobeInterval    the time the batch endpoint is not used after it was found missing.
+   */
+  public AccountTransferBatcher(CloudGatewayFeign feignAccount, CloudGatewayResilience resilience,
+      @Value("${debitcard.transfer.batch.enabled:true}") boolean enabled,
+      @Value("${debitcard.transfer.batch.max-size:50}") int maxSize,
+      @Value("${debitcard.transfer.batch.window:5ms}") Duration window,
+      @Value("${debitcard.transfer.batch.max-in-flight:8}") int maxInFlightBatches,
+      @Value("${debitcard.transfer.batch.reprobe-interval:5m}") Duration reprobeInterval) {
+    this.feignAccount = feignAccount;
+    this.resilience = resilience;
+    this.enabled = enabled;
+    this.reprobeIntervalMillis = reprobeInterval.toMillis();
+    this.subscription = queue.asFlux()
+        .bufferTimeout(maxSize, window, true)
+        .flatMap(this::dispatch, maxInFlightBatches)
+        .subscribe();
+  }
+
+  /**
+   * Submits a transfer to the next batch.
+   *
+   * @param fromAccountId the ID of the account to transfer money from.
+   * @param toAccountId   the ID of the account to transfer money to.
+   * @param amount        the amount of money to transfer.
+   * @return a {@link Mono} containing the account transactions response of the transfer.
+   */
+  public Mono<AccountTransactionsResponse> submit(String fromAccountId, String toAccountId,
+      BigDecimal amount) {
+    if (!enabled) {
+      return transfer(fromAccountId, toAccountId, amount);
+    }
+    return Mono.defer(() -> {
+      PendingTransfer pending = new PendingTransfer(AccountTransferRequest.builder()
+          .requestId(UUID.randomUUID().toString())
+          .fromAccountId(fromAccountId)
+          .toAccountId(toAccountId)
+          .amount(amount)
+          .build(), Sinks.one());
+      Sinks.EmitResult result;
+      synchronized (queue) {
+        result = queue.tryEmitNext(pending);
+      }
+      if (result.isFailure()) {
+        return Mono.error(new IllegalStateException("Transfer batcher rejected transfer: "
+            + result));
+      }
+      return pending.result().asMono();
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    queue.tryEmitComplete();
+    subscription.dispose();
+  }
+
+  private Mono<Void> dispatch(List<PendingTransfer> batch) {
+    if (batch.size() == 1 || System.currentTimeMillis() < batchUnsupportedUntil) {
+      return sendIndividually(batch);
+    }
+    List<AccountTransferRequest> requests = batch.stream().map(PendingTransfer::request).toList();
+    return resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER_BATCH, false,
+            () -> feignAccount.accountTransferBatch(requests))
+        .doOnNext(responses -> complete(batch, responses))
+        .then()
+        .onErrorResume(e -> {
+          if (e instanceof FeignException feignException
+              && UNSUPPORTED_STATUSES.contains(feignException.status())) {
+            log.warn("Batch transfer endpoint unavailable ({}), falling back to single transfers",
+                feignException.status());
+            batchUnsupportedUntil = System.currentTimeMillis() + reprobeIntervalMillis;
+            return sendIndividually(batch);
+          }
+          if (isRejected(e)) {
+            batch.forEach(pending -> pending.result().tryEmitError(e));
+          } else {
+            log.error("Outcome of a batch of {} transfers is unknown: {}", batch.size(),
+                e.toString());
+            batch.forEach(pending -> pending.result().tryEmitError(
+                unknownOutcome(pending, e)));
+          }
+          return Mono.empty();
+        });
+  }
+
+  private Mono<Void> sendIndividually(List<PendingTransfer> batch) {
+    return Flux.fromIterable(batch)
+        .flatMap(pending -> transfer(pending.request().getFromAccountId(),
+                pending.request().getToAccountId(), pending.request().getAmount())
+            .doOnNext(response -> pending.result().tryEmitValue(response))
+            .doOnError(e -> pending.result().tryEmitError(e))
+            .doOnSuccess(response -> {
+              if (response == null) {
+                pending.result().tryEmitEmpty();
+              }
+            })
+            .onErrorResume(e -> Mono.empty()))
+        .then();
+  }
+
+  private Mono<AccountTransactionsResponse> transfer(String fromAccountId, String toAccountId,
+      BigDecimal amount) {
+    return resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+        () -> feignAccount.accountTransfer(fromAccountId, toAccountId, amount));
+  }
+
+  private void complete(List<PendingTransfer> batch,
+      List<AccountTransferBatchItemResponse> responses) {
+    Map<String, AccountTransferBatchItemResponse> byRequestId = responses.stream()
+        .collect(Collectors.toMap(AccountTransferBatchItemResponse::getRequestId,
+            Function.identity(), (first, second) -> first));
+    for (PendingTransfer pending : batch) {
+      AccountTransferBatchItemResponse response = byRequestId.get(pending.request().getRequestId());
+      if (response == null) {
+        pending.result().tryEmitError(unknownOutcome(pending, new IllegalStateException(
+            "No response for transfer " + pending.request().getRequestId())));
+      } else if (response.getStatus() >= 200 && response.getStatus() < 300) {
+        pending.result().tryEmitValue(response.getTransaction());
+      } else {
+        pending.result().tryEmitError(new IllegalArgumentException(response.getMessage()));
+      }
+    }
+  }
+
+  private static boolean isRejected(Throwable error) {
+    return CloudGatewayResilience.isNotSent(error)
+        || error instanceof FeignException feignException
+        && feignException.status() >= 400 && feignException.status() < 500;
+  }
+
+  private static TransferOutcomeUnknownException unknownOutcome(PendingTransfer pending,
+      Throwable cause) {
+    return new TransferOutcomeUnknownException(
+        "Outcome of transfer " + pending.request().getRequestId() + " is unknown", cause);
+  }
+
+  private record PendingTransfer(AccountTransferRequest request,
+                                 Sinks.One<AccountTransactionsResponse> result) {
+
+  }
+
+}
@@ -0,0 +1,214 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Store of the per-card daily and monthly aggregates of completed transfers, kept in the
+ * {@code debit_card_aggregates} collection. Every completed deposit or withdrawal increments the
+ * aggregates of its day and month with an atomic upsert, so totals are never computed from the
+ * transaction history, and a limit check is a single read of the stored aggregate by id. Reads
+ * that may lag, such as the current totals polled by dashboards, go through a short-lived
+ * in-memory window instead. The window is local to the instance and only ever loaded from the
+ * stored totals: the aggregates an instance increments are evicted once the surrounding
+ * transaction commits and re-read on the next lookup, so the window never holds totals older than
+ * its TTL and is never used for enforcement.
+ */
+@Component
+public class CardAggregateStore {
+
+  public static final String DEPOSIT = "DEPOSIT_DEBIT_CARD";
+  public static final String WITHDRAW = "WITHDRAW_DEBIT_CARD";
+
+  private final ReactiveMongoTemplate template;
+  private final AsyncCache<String, DebitCardAggregate> window;
+
+  /**
+   * Creates the store.
+   *
+   * @param template      the reactive Mongo template.
+   * @param meterRegistry the registry where the window statistics are published.
+   * @param maximumSize   the maximum number of aggregates kept in memory.
+   * @param ttl           the time an aggregate is kept in memory after it was loaded.
+   */
+  public CardAggregateStore(ReactiveMongoTemplate template, MeterRegistry meterRegistry,
+      @Value("${debitcard.aggregates.window.maximum-size:100000}") long maximumSize,
+      @Value("${debitcard.aggregates.window.ttl:2s}") Duration ttl) {
+    this.template = template;
+    this.window = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, window.synchronous(), "cardAggregates");
+  }
+
+  /**
+   * Adds a completed deposit or withdrawal to the aggregates of the current day and month. Other
+   * events are ignored.
+   *
+   * @param event the result event of the transfer.
+   * @return a {@link Mono} that completes once both aggregates are updated.
+   */
+  public Mono<Void> apply(DebitCardTransactionEvent event) {
+    if (!"completed".equals(event.getStatus())
+        || !(DEPOSIT.equals(event.getType()) || WITHDRAW.equals(event.getType()))) {
+      return Mono.empty();
+    }
+    LocalDate today = LocalDate.now();
+    YearMonth month = YearMonth.from(today);
+    return Flux.concat(
+            increment(DebitCardAggregate.dayId(event.getDebitCardNumber(), today),
+                DebitCardAggregate.DAY, today.toString(), event),
+            increment(DebitCardAggregate.monthId(event.getDebitCardNumber(), month),
+                DebitCardAggregate.MONTH, month.toString(), event))
+        .collectList()
+        .flatMap(this::evictAfterCommit);
+  }
+
+  /**
+   * Returns the stored aggregate of a card for the given day. Used to enforce limits.
+   *
+   * @param cardNumber the debit card number.
+   * @param day        the day.
+   * @return a {@link Mono} with the aggregate, with zero totals when nothing was recorded.
+   */
+  public Mono<DebitCardAggregate> findDay(String cardNumber, LocalDate day) {
+    return load(DebitCardAggregate.dayId(cardNumber, day), cardNumber, DebitCardAggregate.DAY,
+        day.toString());
+  }
+
+  /**
+   * Returns the stored aggregate of a card for the given month. Used to enforce limits.
+   *
+   * @param cardNumber the debit card number.
+   * @param month      the month.
+   * @return a {@link Mono} with the aggregate, with zero totals when nothing was recorded.
+   */
+  public Mono<DebitCardAggregate> findMonth(String cardNumber, YearMonth month) {
+    return load(DebitCardAggregate.monthId(cardNumber, month), cardNumber,
+        DebitCardAggregate.MONTH, month.toString());
+  }
+
+  /**
+   * Returns the aggregate of a card for the given day from the in-memory window, loading it when
+   * absent. The totals may be up to the window TTL old, so they must not be used to enforce limits.
+   *
+   * @param cardNumber the debit card number.
+   * @param day        the day.
+   * @return a {@link Mono} with the aggregate, with zero totals when nothing was recorded.
+   */
+  public Mono<DebitCardAggregate> findCachedDay(String cardNumber, LocalDate day) {
+    return cached(DebitCardAggregate.dayId(cardNumber, day), cardNumber, DebitCardAggregate.DAY,
+        day.toString());
+  }
+
+  /**
+   * Returns the aggregate of a card for the given month from the in-memory window, loading it when
+   * absent. The totals may be up to the window TTL old, so they must not be used to enforce limits.
+   *
+   * @param cardNumber the debit card number.
+   * @param month      the month.
+   * @return a {@link Mono} with the aggregate, with zero totals when nothing was recorded.
+   */
+  public Mono<DebitCardAggregate> findCachedMonth(String cardNumber, YearMonth month) {
+    return cached(DebitCardAggregate.monthId(cardNumber, month), cardNumber,
+        DebitCardAggregate.MONTH, month.toString());
+  }
+
+  /**
+   * Finds the stored aggregates of a card with the given granularity, sorted by period.
+   *
+   * @param cardNumber  the debit card number.
+   * @param granularity {@link DebitCardAggregate#DAY} or {@link DebitCardAggregate#MONTH}.
+   * @param from        the first period, inclusive.
+   * @param to          the last period, inclusive.
+   * @return the aggregates of the periods with completed transfers.
+   */
+  public Flux<DebitCardAggregate> findRange(String cardNumber, String granularity, String from,
+      String to) {
+    Query query = Query.query(Criteria.where("debitCardNumber").is(cardNumber)
+            .and("granularity").is(granularity)
+            .and("period").gte(from).lte(to))
+        .with(Sort.by(Sort.Direction.ASC, "period"));
+    return template.find(query, DebitCardAggregate.class);
+  }
+
+  private Mono<DebitCardAggregate> cached(String id, String cardNumber, String granularity,
+      String period) {
+    return Mono.fromFuture(() -> window.get(id, (key, executor) ->
+        load(key, cardNumber, granularity, period).toFuture()), true);
+  }
+
+  private Mono<DebitCardAggregate> load(String id, String cardNumber, String granularity,
+      String period) {
+    return template.findById(id, DebitCardAggregate.class)
+        .defaultIfEmpty(DebitCardAggregate.builder()
+            .id(id)
+            .debitCardNumber(cardNumber)
+            .granularity(granularity)
+            .period(period)
+            .build());
+  }
+
+  private Mono<DebitCardAggregate> increment(String id, String granularity, String period,
+      DebitCardTransactionEvent event) {
+    BigDecimal amount = event.getAmount() != null ? event.getAmount() : BigDecimal.ZERO;
+    String prefix = DEPOSIT.equals(event.getType()) ? "deposit" : "withdraw";
+    Update update = new Update()
+        .inc(prefix + "Count", 1)
+        .inc(prefix + "Amount", new Decimal128(amount))
+        .set("updatedAt", LocalDateTime.now())
+        .setOnInsert("debitCardNumber", event.getDebitCardNumber())
+        .setOnInsert("granularity", granularity)
+        .setOnInsert("period", period);
+    if (event.getBalanceUpdated() != null) {
+      update.set("lastBalance", new Decimal128(event.getBalanceUpdated()));
+    }
+    return template.findAndModify(Query.query(Criteria.where("id").is(id)), update,
+        FindAndModifyOptions.options().upsert(true).returnNew(true), DebitCardAggregate.class);
+  }
+
+  private Mono<Void> evictAfterCommit(List<DebitCardAggregate> aggregates) {
+    Runnable evict = () -> window.synchronous().invalidateAll(aggregates.stream()
+        .map(DebitCardAggregate::getId)
+        .toList());
+    return TransactionSynchronizationManager.forCurrentTransaction()
+        .filter(TransactionSynchronizationManager::isSynchronizationActive)
+        .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public Mono<Void> afterCommit() {
+                return Mono.fromRunnable(evict);
+              }
+            }))
+        .switchIfEmpty(Mono.fromRunnable(evict))
+        .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(evict))
+        .then();
+  }
+
+}
@@ -0,0 +1,161 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Execution engine that runs work keyed by debit card number on hash-partitioned lanes. Work
+ * submitted for the same card always lands on the same lane and is executed strictly in submission
+ * order, while different cards are spread across all lanes and run in parallel. Every executor
+ * runs on its own scheduler, so the {@link TransferLanes} of different transfer classes never
+ * share threads.
+ */
+@Slf4j
+public class CardLaneExecutor {
+
+  private final Scheduler scheduler;
+  private final Lane[] lanes;
+
+  /**
+   * Creates the executor with the configured number of lanes.
+   *
+   * @param meterRegistry the registry where the per-lane queue depth gauges are published.
+   * @param laneCount     the number of lanes, or {@code 0} to use twice the available cores.
+   */
+  public CardLaneExecutor(MeterRegistry meterRegistry, int laneCount) {
+    this(meterRegistry, "default", laneCount);
+  }
+
+  /**
+   * Creates a named executor with the configured number of lanes.
+   *
+   * @param meterRegistry the registry where the per-lane queue depth gauges are published.
+   * @param name          the name of the executor, used for its threads and as the {@code pool}
+   *                      tag of its gauges.
+   * @param laneCount     the number of lanes, or {@code 0} to use twice the available cores.
+   */
+  public CardLaneExecutor(MeterRegistry meterRegistry, String name, int laneCount) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    int count = laneCount > 0 ? laneCount : cores * 2;
+    this.scheduler = Schedulers.newParallel("card-lane-" + name, cores);
+    this.lanes = new Lane[count];
+    for (int i = 0; i < count; i++) {
+      lanes[i] = new Lane();
+      Gauge.builder("debitcard.transfer.lane.queue.depth", lanes[i].depth, AtomicInteger::get)
+          .description("Pending card transfers queued on the lane")
+          .tag("pool", name)
+          .tag("lane", String.valueOf(i))
+          .register(meterRegistry);
+    }
+    log.info("Card lane executor {} started with {} lanes", name, count);
+  }
+
+  /**
+   * Submits work for the given card. The work is started only after every previously submitted
+   * work for the same card has terminated.
+   *
+   * @param cardNumber the debit card number used as partition key.
+   * @param work       the supplier of the reactive work to execute.
+   * @return a {@link Mono} that mirrors the outcome of the work once it has run on its lane.
+   */
+  public <T> Mono<T> submit(String cardNumber, Supplier<Mono<T>> work) {
+    return Mono.defer(() -> {
+      Sinks.One<T> result = Sinks.one();
+      lanes[laneIndex(cardNumber)].enqueue(new Task<>(work, result));
+      return result.asMono();
+    });
+  }
+
+  /**
+   * Returns the number of lanes of this executor.
+   *
+   * @return the lane count.
+   */
+  public int laneCount() {
+    return lanes.length;
+  }
+
+  /**
+   * Returns the number of pending tasks, queued or running, on a lane.
+   *
+   * @param lane the lane index.
+   * @return the queue depth of the lane.
+   */
+  public int queueDepth(int lane) {
+    return lanes[lane].depth.get();
+  }
+
+  int laneIndex(String cardNumber) {
+    return cardNumber == null ? 0 : Math.floorMod(cardNumber.hashCode(), lanes.length);
+  }
+
+  public void shutdown() {
+    for (Lane lane : lanes) {
+      lane.dispose();
+    }
+    scheduler.dispose();
+  }
+
+  private final class Lane {
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Sinks.Many<Task<?>> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable subscription = queue.asFlux()
+        .concatMap(task -> task.run(depth))
+        .subscribe();
+
+    private synchronized void enqueue(Task<?> task) {
+      depth.incrementAndGet();
+      Sinks.EmitResult emitResult = queue.tryEmitNext(task);
+      if (emitResult.isFailure()) {
+        depth.decrementAndGet();
+        task.reject(new IllegalStateException("Card lane rejected task: " + emitResult));
+      }
+    }
+
+    private void dispose() {
+      queue.tryEmitComplete();
+      subscription.dispose();
+    }
+  }
+
+  private final class Task<T> {
+
+    private final Supplier<Mono<T>> work;
+    private final Sinks.One<T> result;
+
+    private Task(Supplier<Mono<T>> work, Sinks.One<T> result) {
+      this.work = work;
+      this.result = result;
+    }
+
+    private Mono<Void> run(AtomicInteger depth) {
+      return Mono.defer(work)
+          .subscribeOn(scheduler)
+          .doOnSuccess(value -> {
+            if (value == null) {
+              result.tryEmitEmpty();
+            } else {
+              result.tryEmitValue(value);
+            }
+          })
+          .doOnError(result::tryEmitError)
+          .onErrorResume(e -> Mono.empty())
+          .doFinally(signal -> depth.decrementAndGet())
+          .then();
+    }
+
+    private void reject(Throwable error) {
+      result.tryEmitError(error);
+    }
+  }
+
+}
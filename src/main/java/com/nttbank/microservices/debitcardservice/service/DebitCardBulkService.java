@@ -0,0 +1,150 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse.STATUS_CREATED;
+import static com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse.STATUS_FAILED;
+import static com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse.STATUS_REJECTED;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.nttbank.microservices.debitcardservice.mapper.DebitCardMapper;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse;
+import com.nttbank.microservices.debitcardservice.util.DebitCardUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Service class responsible for issuing debit cards in bulk. Records are validated, assigned an id
+ * and a main account id, and written in chunks with unordered MongoDB bulk inserts so one invalid
+ * or duplicated card does not stop the rest of its chunk.
+ */
+@Slf4j
+@Service
+public class DebitCardBulkService {
+
+  private final ReactiveMongoTemplate template;
+  private final DebitCardMapper mapper;
+  private final Validator validator;
+  private final int chunkSize;
+  private final int parallelism;
+
+  /**
+   * Creates the service.
+   *
+   * @param template    the reactive Mongo template.
+   * @param mapper      the debit card mapper.
+   * @param validator   the bean validator used for every record.
+   * @param chunkSize   the number of records written per bulk insert.
+   * @param parallelism the number of bulk inserts in flight at once.
+   */
+  public DebitCardBulkService(ReactiveMongoTemplate template, DebitCardMapper mapper,
+      Validator validator,
+      @Value("${debitcard.bulk.chunk-size:1000}") int chunkSize,
+      @Value("${debitcard.bulk.parallelism:4}") int parallelism) {
+    this.template = template;
+    this.mapper = mapper;
+    this.validator = validator;
+    this.chunkSize = chunkSize;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Issues the debit cards of the stream.
+   *
+   * @param records the debit card records.
+   * @return a {@link Flux} with one result per record, in the order of the records.
+   */
+  public Flux<BulkIssueResponse> issue(Flux<DebitCardRecord> records) {
+    return records.index()
+        .buffer(chunkSize)
+        .flatMapSequential(this::issueChunk, parallelism);
+  }
+
+  private Flux<BulkIssueResponse> issueChunk(List<Tuple2<Long, DebitCardRecord>> chunk) {
+    List<BulkIssueResponse> results = new ArrayList<>(chunk.size());
+    List<BulkIssueResponse> pending = new ArrayList<>(chunk.size());
+    List<Document> documents = new ArrayList<>(chunk.size());
+
+    for (Tuple2<Long, DebitCardRecord> indexed : chunk) {
+      DebitCardRecord cardRecord = indexed.getT2();
+      List<String> violations = validator.validate(cardRecord).stream()
+          .map(ConstraintViolation::getMessage)
+          .toList();
+      if (!violations.isEmpty()) {
+        results.add(BulkIssueResponse.builder()
+            .index(indexed.getT1())
+            .cardNumber(cardRecord.cardNumber())
+            .status(STATUS_REJECTED)
+            .errors(violations)
+            .build());
+        continue;
+      }
+
+      DebitCard debitCard = mapper.debitCardRecordToDebitCard(cardRecord);
+      debitCard.setId(new ObjectId().toHexString());
+      debitCard.setMainAccountId(DebitCardUtils.generateFormattedUuid());
+      Document document = new Document();
+      template.getConverter().write(debitCard, document);
+      documents.add(document);
+
+      BulkIssueResponse result = BulkIssueResponse.builder()
+          .index(indexed.getT1())
+          .id(debitCard.getId())
+          .cardNumber(debitCard.getCardNumber())
+          .mainAccountId(debitCard.getMainAccountId())
+          .status(STATUS_CREATED)
+          .build();
+      results.add(result);
+      pending.add(result);
+    }
+
+    if (documents.isEmpty()) {
+      return Flux.fromIterable(results);
+    }
+    return template.getCollection(template.getCollectionName(DebitCard.class))
+        .flatMap(collection -> Mono.from(
+            collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+        .then(Mono.fromCallable(() -> results))
+        .onErrorResume(e -> Mono.fromCallable(() -> {
+          markFailures(pending, e);
+          return results;
+        }))
+        .flatMapMany(Flux::fromIterable);
+  }
+
+  private void markFailures(List<BulkIssueResponse> pending, Throwable error) {
+    if (error instanceof MongoBulkWriteException bulkError) {
+      Map<Integer, String> failures = new HashMap<>();
+      for (BulkWriteError writeError : bulkError.getWriteErrors()) {
+        failures.put(writeError.getIndex(), writeError.getMessage());
+      }
+      failures.forEach((index, message) -> fail(pending.get(index), message));
+      return;
+    }
+    log.error("Bulk insert of {} debit cards failed: {}", pending.size(), error.getMessage());
+    pending.forEach(result -> fail(result, error.getMessage()));
+  }
+
+  private void fail(BulkIssueResponse result, String message) {
+    result.setStatus(STATUS_FAILED);
+    result.setId(null);
+    result.setMainAccountId(null);
+    result.setErrors(List.of(message));
+  }
+
+}
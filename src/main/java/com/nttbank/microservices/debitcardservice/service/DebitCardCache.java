@@ -0,0 +1,185 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded in-memory cache of debit cards indexed by id and by card number. Entries are evicted by
+ * size and by time to live, and concurrent lookups of the same key share a single repository call.
+ * A card loaded through one index is also stored in the other one. Every eviction bumps the
+ * generation of the evicted keys, and a load that started before the latest eviction of either of
+ * its keys returns its card without caching it, so a card read before a change is never cached
+ * after the change has evicted it. Hit, miss and eviction counters are published as
+ * {@code cache.*} meters. Callers get their own copy of the cached card, so changing it never
+ * leaks into the cache or to other callers.
+ */
+@Component
+public class DebitCardCache {
+
+  private final Index byId;
+  private final Index byCardNumber;
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * Creates the cache.
+   *
+   * @param meterRegistry the registry where the cache statistics are published.
+   * @param maximumSize   the maximum number of cards kept per index.
+   * @param ttl           the time an entry is kept after being written.
+   */
+  public DebitCardCache(MeterRegistry meterRegistry,
+      @Value("${debitcard.cache.maximum-size:100000}") long maximumSize,
+      @Value("${debitcard.cache.ttl:5m}") Duration ttl) {
+    this.byId = new Index(maximumSize, ttl, DebitCard::getId);
+    this.byCardNumber = new Index(maximumSize, ttl, DebitCard::getCardNumber);
+    CaffeineCacheMetrics.monitor(meterRegistry, byId.cards().synchronous(), "debitCardsById");
+    CaffeineCacheMetrics.monitor(meterRegistry, byCardNumber.cards().synchronous(),
+        "debitCardsByCardNumber");
+  }
+
+  /**
+   * Returns the card with the given id, loading it with the loader on a miss.
+   *
+   * @param id     the debit card id.
+   * @param loader the function that loads the card from the repository.
+   * @return a {@link Mono} with a copy of the card, or empty when it does not exist.
+   */
+  public Mono<DebitCard> findById(String id, Function<String, Mono<DebitCard>> loader) {
+    return Mono.fromFuture(() -> byId.cards().get(id,
+            (key, executor) -> load(key, loader, byId, byCardNumber)), true)
+        .map(DebitCardCache::copy);
+  }
+
+  /**
+   * Returns the card with the given card number, loading it with the loader on a miss.
+   *
+   * @param cardNumber the debit card number.
+   * @param loader     the function that loads the card from the repository.
+   * @return a {@link Mono} with a copy of the card, or empty when it does not exist.
+   */
+  public Mono<DebitCard> findByCardNumber(String cardNumber,
+      Function<String, Mono<DebitCard>> loader) {
+    return Mono.fromFuture(() -> byCardNumber.cards().get(cardNumber,
+            (key, executor) -> load(key, loader, byCardNumber, byId)), true)
+        .map(DebitCardCache::copy);
+  }
+
+  /**
+   * Evicts the entries of the given card from both indexes.
+   *
+   * @param card the changed card.
+   */
+  public void evict(DebitCard card) {
+    evictById(card.getId());
+    evict(byCardNumber, card.getCardNumber());
+  }
+
+  /**
+   * Evicts the card with the given id, including the card number entry of the cached copy.
+   *
+   * @param id the debit card id.
+   */
+  public void evictById(String id) {
+    if (id == null) {
+      return;
+    }
+    DebitCard card = cached(byId, id);
+    if (card != null) {
+      evict(byCardNumber, card.getCardNumber());
+    }
+    evict(byId, id);
+  }
+
+  /**
+   * Evicts the card with the given card number, including the id entry of the cached copy.
+   *
+   * @param cardNumber the debit card number.
+   */
+  public void evictByCardNumber(String cardNumber) {
+    if (cardNumber == null) {
+      return;
+    }
+    DebitCard card = cached(byCardNumber, cardNumber);
+    if (card != null) {
+      evict(byId, card.getId());
+    }
+    evict(byCardNumber, cardNumber);
+  }
+
+  private CompletableFuture<DebitCard> load(String key, Function<String, Mono<DebitCard>> loader,
+      Index own, Index other) {
+    long startedAt = generation.get();
+    CompletableFuture<DebitCard> result = new CompletableFuture<>();
+    loader.apply(key).subscribe(card -> {
+      String otherKey = other.keyOf().apply(card);
+      if (own.evictedSince(key, startedAt) || other.evictedSince(otherKey, startedAt)) {
+        own.cards().asMap().remove(key, result);
+      } else if (otherKey != null) {
+        other.cards().put(otherKey, CompletableFuture.completedFuture(card));
+      }
+      result.complete(card);
+    }, result::completeExceptionally, () -> result.complete(null));
+    return result;
+  }
+
+  private void evict(Index index, String key) {
+    if (key != null) {
+      index.evictions().put(key, generation.incrementAndGet());
+      index.cards().synchronous().invalidate(key);
+    }
+  }
+
+  private static DebitCard cached(Index index, String key) {
+    CompletableFuture<DebitCard> cached = index.cards().getIfPresent(key);
+    if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+      return cached.getNow(null);
+    }
+    return null;
+  }
+
+  private static DebitCard copy(DebitCard card) {
+    return card.toBuilder()
+        .linkedAccounts(card.getLinkedAccounts() == null ? null
+            : new LinkedHashSet<>(card.getLinkedAccounts()))
+        .build();
+  }
+
+  private record Index(AsyncCache<String, DebitCard> cards, Cache<String, Long> evictions,
+                       Function<DebitCard, String> keyOf) {
+
+    private Index(long maximumSize, Duration ttl, Function<DebitCard, String> keyOf) {
+      this(Caffeine.newBuilder()
+              .maximumSize(maximumSize)
+              .expireAfterWrite(ttl)
+              .recordStats()
+              .<String, DebitCard>buildAsync(),
+          Caffeine.newBuilder()
+              .maximumSize(maximumSize)
+              .expireAfterWrite(ttl)
+              .<String, Long>build(),
+          keyOf);
+    }
+
+    private boolean evictedSince(String key, long startedAt) {
+      if (key == null) {
+        return false;
+      }
+      Long evictedAt = evictions.getIfPresent(key);
+      return evictedAt != null && evictedAt > startedAt;
+    }
+
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.event.DebitCardChangedEvent;
+import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link DebitCardCache} of every instance coherent. Local changes evict the local entry
+ * and are published as {@link DebitCardChangedEvent}s, and the changes published by other
+ * instances evict the matching local entry.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DebitCardCacheSynchronizer {
+
+  public static final String CHANGE_UPDATED = "UPDATED";
+  public static final String CHANGE_DELETED = "DELETED";
+
+  private final DebitCardCache cache;
+  private final KafkaUtil kafkaUtil;
+
+  @Getter
+  private final String instanceId = UUID.randomUUID().toString();
+
+  @Value("${kafka.nttbank.topic.card-changes:debitcard-card-changes-v1}")
+  private String topicName;
+
+  /**
+   * Evicts the local entry of a created or updated card and notifies the other instances.
+   *
+   * @param card the changed card.
+   */
+  public void cardChanged(DebitCard card) {
+    cache.evict(card);
+    publish(card.getId(), card.getCardNumber(), CHANGE_UPDATED);
+  }
+
+  /**
+   * Evicts the local entries of a deleted card and notifies the other instances.
+   *
+   * @param card the deleted card, read before its deletion so both of its keys are known.
+   */
+  public void cardDeleted(DebitCard card) {
+    cache.evict(card);
+    publish(card.getId(), card.getCardNumber(), CHANGE_DELETED);
+  }
+
+  /**
+   * Listens to the change notifications of all instances and evicts the local entry of the cards
+   * changed elsewhere.
+   *
+   * @param event the change notification.
+   */
+  @KafkaListener(topics = "${kafka.nttbank.topic.card-changes:debitcard-card-changes-v1}",
+      groupId = "debitcard-cache-#{__listener.instanceId}",
+      containerFactory = "cardChangeListenerContainerFactory")
+  public void onCardChanged(DebitCardChangedEvent event) {
+    if (event == null || instanceId.equals(event.getOriginInstanceId())) {
+      return;
+    }
+    log.debug("Evicting debit card {} changed by instance {}", event.getCardId(),
+        event.getOriginInstanceId());
+    cache.evictById(event.getCardId());
+    cache.evictByCardNumber(event.getCardNumber());
+  }
+
+  private void publish(String cardId, String cardNumber, String changeType) {
+    try {
+      kafkaUtil.sendMessage(topicName, cardNumber, DebitCardChangedEvent.builder()
+          .cardId(cardId)
+          .cardNumber(cardNumber)
+          .changeType(changeType)
+          .originInstanceId(instanceId)
+          .changedAt(System.currentTimeMillis())
+          .build());
+    } catch (RuntimeException e) {
+      log.warn("Could not publish change of debit card {}: {}", cardId, e.getMessage());
+    }
+  }
+
+}
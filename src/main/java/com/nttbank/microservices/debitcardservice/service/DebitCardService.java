@@ -2,6 +2,7 @@ package com.nttbank.microservices.debitcardservice.service;
 
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
 import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import java.util.Set;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,6 +18,17 @@ public interface DebitCardService {
    */
   Flux<DebitCard> findAll();
 
+  /**
+   * findPage method finds the debit cards after the given cursor, sorted by id. Only the requested
+   * fields are read from the database; the cvv is never returned.
+   *
+   * @param afterId the id of the last card of the previous page, or null for the first page
+   * @param size    the maximum number of cards to return, or 0 for no limit
+   * @param fields  the fields to return, or null or empty for every field except the cvv
+   * @return the debit cards
+   */
+  Flux<DebitCard> findPage(String afterId, int size, Set<String> fields);
+
   /**
    * findById method finds the debit card by id.
    *
@@ -67,6 +79,24 @@ public interface DebitCardService {
    */
   Mono<DebitCard> removeLinkedAccount(String debitCardId, String accountId);
 
+  /**
+   * addLinkedAccounts method adds several linked accounts to the debit card in one update.
+   *
+   * @param debitCardId the debit card id
+   * @param accountIds  the account ids
+   * @return the debit card
+   */
+  Mono<DebitCard> addLinkedAccounts(String debitCardId, Set<String> accountIds);
+
+  /**
+   * removeLinkedAccounts method removes several linked accounts from the debit card in one update.
+   *
+   * @param debitCardId the debit card id
+   * @param accountIds  the account ids
+   * @return the debit card
+   */
+  Mono<DebitCard> removeLinkedAccounts(String debitCardId, Set<String> accountIds);
+
   /**
    * findByCardNumber method finds the debit card by card number.
    *
@@ -0,0 +1,114 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Chooses the account a card transfer is paid from. The main account of the card comes first,
+ * followed by its linked accounts in the order they are stored. The balances of all candidates
+ * are read in parallel through {@link AccountService#findById}, and the first active candidate, in
+ * priority order, whose balance covers the amount is selected, so falling back to a linked
+ * account costs about as much as reading a single account. When no candidate covers the amount
+ * the main account is used and the account service rejects the transfer as before. Every
+ * selection is counted in {@code debitcard.funding.selections} by the kind of account chosen.
+ */
+@Slf4j
+@Component
+public class FundingAccountSelector {
+
+  private final AccountService accountService;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final int maxAccounts;
+
+  /**
+   * Creates the selector.
+   *
+   * @param accountService the service used to read the account balances.
+   * @param meterRegistry  the registry where the selections are counted.
+   * @param enabled        whether linked accounts are considered at all.
+   * @param maxAccounts    the maximum number of accounts probed per transfer, main included.
+   */
+  public FundingAccountSelector(AccountService accountService, MeterRegistry meterRegistry,
+      @Value("${debitcard.funding.fallback.enabled:true}") boolean enabled,
+      @Value("${debitcard.funding.fallback.max-accounts:5}") int maxAccounts) {
+    this.accountService = accountService;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.maxAccounts = maxAccounts;
+  }
+
+  /**
+   * Selects the account that pays the given amount.
+   *
+   * @param debitCard the debit card of the transfer.
+   * @param amount    the amount of the transfer.
+   * @return a {@link Mono} with the id of the selected account.
+   */
+  public Mono<String> select(DebitCard debitCard, BigDecimal amount) {
+    String mainAccountId = debitCard.getMainAccountId();
+    List<String> candidates = candidates(debitCard);
+    if (!enabled || candidates.size() < 2 || amount == null) {
+      return Mono.just(mainAccountId);
+    }
+    return Flux.fromIterable(candidates)
+        .flatMapSequential(accountId -> probe(accountId, amount), candidates.size())
+        .next()
+        .map(accountId -> {
+          count(Objects.equals(mainAccountId, accountId) ? "main" : "linked");
+          return accountId;
+        })
+        .switchIfEmpty(Mono.fromSupplier(() -> {
+          count("none");
+          return mainAccountId;
+        }));
+  }
+
+  private List<String> candidates(DebitCard debitCard) {
+    Set<String> candidates = new LinkedHashSet<>();
+    candidates.add(debitCard.getMainAccountId());
+    if (debitCard.getLinkedAccounts() != null) {
+      debitCard.getLinkedAccounts().stream()
+          .filter(Objects::nonNull)
+          .forEach(candidates::add);
+    }
+    return candidates.stream().limit(Math.max(1, maxAccounts)).toList();
+  }
+
+  private Mono<String> probe(String accountId, BigDecimal amount) {
+    return accountService.findById(accountId)
+        .filter(account -> covers(account, amount))
+        .map(account -> accountId)
+        .onErrorResume(e -> {
+          log.warn("Could not read the balance of account {}: {}", accountId, e.getMessage());
+          return Mono.empty();
+        });
+  }
+
+  private static boolean covers(BankAccountResponse account, BigDecimal amount) {
+    return (account.getStatus() == null || "active".equalsIgnoreCase(account.getStatus()))
+        && account.getBalance() != null
+        && account.getBalance().compareTo(amount) >= 0;
+  }
+
+  private void count(String source) {
+    Counter.builder("debitcard.funding.selections")
+        .description("Accounts selected to pay card transfers")
+        .tag("source", source)
+        .register(meterRegistry)
+        .increment();
+  }
+
+}
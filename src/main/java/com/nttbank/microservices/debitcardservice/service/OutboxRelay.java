@@ -0,0 +1,250 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.debitcardservice.model.entity.OutboxMessage;
+import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Background relay that drains the outbox to Kafka. Pending messages are claimed in batches with a
+ * lease so several instances can relay concurrently and marked as sent once the broker has
+ * acknowledged them. Messages of the same key are sent one at a time in creation order, across
+ * instances too: a key is only claimed from its oldest pending message on, never past a message
+ * leased by another instance, and after claiming, an instance only sends the messages of a key
+ * that precede the first one it does not hold, releasing the rest. The first failed send stops
+ * the rest of its key, which is released untouched so the next poll resumes where the key
+ * stopped. A failed message is retried until it has failed
+ * {@code debitcard.outbox.relay.max-attempts} times, after which it is moved to the
+ * {@link OutboxMessage#STATUS_FAILED} status and counted in
+ * {@code debitcard.outbox.relay.dead.letters}.
+ * Each message carries the trace headers stored with it, so consumers of the result continue the
+ * trace of the transfer that produced it. The size of every claimed batch is recorded in
+ * {@code debitcard.outbox.relay.batch.size}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+  private final ReactiveMongoTemplate template;
+  private final OutboxService outboxService;
+  private final KafkaUtil kafkaUtil;
+  private final MeterRegistry meterRegistry;
+  private final String instanceId = UUID.randomUUID().toString();
+  private Disposable subscription;
+
+  @Value("${debitcard.outbox.relay.enabled:true}")
+  private boolean enabled;
+  @Value("${debitcard.outbox.relay.poll-interval:200ms}")
+  private Duration pollInterval;
+  @Value("${debitcard.outbox.relay.batch-size:500}")
+  private int batchSize;
+  @Value("${debitcard.outbox.relay.lease:30s}")
+  private Duration lease;
+  @Value("${debitcard.outbox.relay.max-attempts:10}")
+  private int maxAttempts;
+
+  /** Starts polling the outbox once the application is ready. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      log.info("Outbox relay disabled");
+      return;
+    }
+    subscription = Flux.interval(pollInterval)
+        .onBackpressureDrop()
+        .concatMap(tick -> relayBatch()
+            .onErrorResume(e -> {
+              log.error("Outbox relay iteration failed: {}", e.getMessage());
+              return Mono.just(0);
+            }))
+        .subscribe();
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+  }
+
+  /**
+   * Claims, sends and marks one batch of pending messages.
+   *
+   * @return a {@link Mono} with the number of messages sent.
+   */
+  public Mono<Integer> relayBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    Query candidates = Query.query(Criteria.where("status").is(OutboxMessage.STATUS_PENDING))
+        .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+        .limit(batchSize);
+    candidates.fields().include("id", "messageKey", "claimedBy", "claimedUntil");
+
+    return template.find(candidates, OutboxMessage.class)
+        .collectList()
+        .map(pending -> claimableHeads(pending, now))
+        .filter(heads -> !heads.isEmpty())
+        .flatMap(heads -> template.updateMulti(
+                Query.query(Criteria.where("id").in(ids(heads)).andOperator(claimable(now))),
+                new Update().set("claimedBy", instanceId)
+                    .set("claimedUntil", now.plus(lease)),
+                OutboxMessage.class)
+            .then(ownedHeads(heads.stream().map(OutboxMessage::getMessageKey).distinct()
+                .toList())))
+        .filter(owned -> !owned.isEmpty())
+        .flatMap(this::send)
+        .defaultIfEmpty(0);
+  }
+
+  /**
+   * Returns, for every key, the pending messages from the oldest one up to the first message
+   * leased by another instance.
+   */
+  private List<OutboxMessage> claimableHeads(List<OutboxMessage> pending, LocalDateTime now) {
+    List<OutboxMessage> heads = new ArrayList<>();
+    byKey(pending).values().forEach(messages -> {
+      for (OutboxMessage message : messages) {
+        if (message.getClaimedUntil() != null && !message.getClaimedUntil().isBefore(now)) {
+          break;
+        }
+        heads.add(message);
+      }
+    });
+    return heads;
+  }
+
+  /**
+   * Re-reads the pending messages of the claimed keys and keeps, for every key, the messages held
+   * by this instance up to the first one it does not hold. The claims past that point are
+   * released, since an older message of the key is being relayed elsewhere.
+   */
+  private Mono<List<OutboxMessage>> ownedHeads(List<String> keys) {
+    return template.find(Query.query(Criteria.where("status").is(OutboxMessage.STATUS_PENDING)
+                .and("messageKey").in(keys))
+            .with(Sort.by(Sort.Direction.ASC, "createdAt")), OutboxMessage.class)
+        .collectList()
+        .flatMap(pending -> {
+          List<OutboxMessage> owned = new ArrayList<>();
+          List<OutboxMessage> released = new ArrayList<>();
+          byKey(pending).values().forEach(messages -> {
+            boolean blocked = false;
+            for (OutboxMessage message : messages) {
+              if (!instanceId.equals(message.getClaimedBy())) {
+                blocked = true;
+              } else if (blocked) {
+                released.add(message);
+              } else {
+                owned.add(message);
+              }
+            }
+          });
+          return release(released).thenReturn(owned);
+        });
+  }
+
+  private Mono<Integer> send(List<OutboxMessage> messages) {
+    DistributionSummary.builder("debitcard.outbox.relay.batch.size")
+        .description("Number of outbox messages claimed per relay batch")
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(messages.size());
+    return Flux.fromIterable(byKey(messages).values())
+        .flatMap(this::sendKey)
+        .flatMapIterable(Function.identity())
+        .collectList()
+        .flatMap(sentIds -> sentIds.isEmpty()
+            ? Mono.just(0)
+            : template.updateMulti(Query.query(Criteria.where("id").in(sentIds)),
+                    new Update().set("status", OutboxMessage.STATUS_SENT)
+                        .set("sentAt", LocalDateTime.now())
+                        .unset("claimedBy")
+                        .unset("claimedUntil"),
+                    OutboxMessage.class)
+                .thenReturn(sentIds.size()));
+  }
+
+  private Mono<List<String>> sendKey(List<OutboxMessage> messages) {
+    List<String> sentIds = new ArrayList<>();
+    return Flux.fromIterable(messages)
+        .concatMap(message -> Mono.fromCallable(() -> outboxService.deserialize(message))
+            .flatMap(event -> kafkaUtil.sendAndAwait(message.getTopic(), message.getMessageKey(),
+                event, message.getTraceHeaders()))
+            .then(Mono.fromRunnable(() -> sentIds.add(message.getId())))
+            .thenReturn(message)
+            .onErrorResume(e -> {
+              log.warn("Could not relay outbox message {}: {}", message.getId(), e.getMessage());
+              List<OutboxMessage> unsent = messages.subList(sentIds.size() + 1, messages.size());
+              return fail(message, e).then(release(unsent)).then(Mono.error(e));
+            }))
+        .then(Mono.fromCallable(() -> sentIds))
+        .onErrorReturn(sentIds);
+  }
+
+  private Mono<Void> fail(OutboxMessage message, Throwable error) {
+    Update update = new Update().inc("attempts", 1).unset("claimedBy").unset("claimedUntil");
+    if (message.getAttempts() + 1 >= maxAttempts) {
+      log.error("Outbox message {} failed {} times, moving it to the dead letters",
+          message.getId(), message.getAttempts() + 1);
+      meterRegistry.counter("debitcard.outbox.relay.dead.letters",
+          "topic", Objects.toString(message.getTopic(), "unknown")).increment();
+      update.set("status", OutboxMessage.STATUS_FAILED).set("lastError", error.getMessage());
+    }
+    return template.updateFirst(Query.query(Criteria.where("id").is(message.getId())),
+            update, OutboxMessage.class)
+        .then();
+  }
+
+  private Mono<Void> release(List<OutboxMessage> messages) {
+    if (messages.isEmpty()) {
+      return Mono.empty();
+    }
+    return template.updateMulti(Query.query(Criteria.where("id")
+                .in(ids(messages))
+                .and("claimedBy").is(instanceId)),
+            new Update().unset("claimedBy").unset("claimedUntil"),
+            OutboxMessage.class)
+        .then();
+  }
+
+  private static Map<String, List<OutboxMessage>> byKey(List<OutboxMessage> messages) {
+    Map<String, List<OutboxMessage>> byKey = new LinkedHashMap<>();
+    messages.forEach(message -> byKey.computeIfAbsent(message.getMessageKey(),
+        key -> new ArrayList<>()).add(message));
+    return byKey;
+  }
+
+  private static List<String> ids(List<OutboxMessage> messages) {
+    return messages.stream().map(OutboxMessage::getId).toList();
+  }
+
+  private Criteria claimable(LocalDateTime now) {
+    return Criteria.where("status").is(OutboxMessage.STATUS_PENDING)
+        .orOperator(Criteria.where("claimedUntil").is(null),
+            Criteria.where("claimedUntil").lt(now));
+  }
+
+}
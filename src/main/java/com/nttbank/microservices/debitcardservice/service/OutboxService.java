@@ -0,0 +1,89 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.OutboxMessage;
+import com.nttbank.microservices.debitcardservice.util.TracingSupport;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class responsible for writing Kafka messages to the transactional outbox. The insert
+ * joins the surrounding reactive Mongo transaction when there is one, so the message is stored
+ * atomically with the state change that produced it, and the {@link OutboxRelay} delivers it.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+  private final ReactiveMongoTemplate template;
+  private final ObjectMapper objectMapper;
+  private final TracingSupport tracingSupport;
+
+  @Value("${kafka.nttbank.topic.producer:nttbank}")
+  private String topicName;
+
+  /**
+   * Stores the event in the outbox for the result topic, keyed by debit card number so the events
+   * of a card keep their order on one partition.
+   *
+   * @param event the event to publish.
+   * @return a {@link Mono} that completes once the message is stored.
+   */
+  public Mono<Void> enqueue(GenericEvent event) {
+    String key = event instanceof DebitCardTransactionEvent transaction
+        ? transaction.getDebitCardNumber()
+        : null;
+    return enqueue(topicName, key, event);
+  }
+
+  /**
+   * Stores the event in the outbox.
+   *
+   * @param topic the destination topic.
+   * @param key   the message key, or null.
+   * @param event the event to publish.
+   * @return a {@link Mono} that completes once the message is stored.
+   */
+  public Mono<Void> enqueue(String topic, String key, GenericEvent event) {
+    return Mono.deferContextual(context -> Mono.fromCallable(() -> OutboxMessage.builder()
+            .topic(topic)
+            .messageKey(key)
+            .payloadType(event.getClass().getName())
+            .payload(serialize(event))
+            .traceHeaders(tracingSupport.headers(context))
+            .status(OutboxMessage.STATUS_PENDING)
+            .createdAt(LocalDateTime.now())
+            .build()))
+        .flatMap(template::insert)
+        .then();
+  }
+
+  /**
+   * Rebuilds the event stored in an outbox message.
+   *
+   * @param message the outbox message.
+   * @return the event.
+   * @throws JsonProcessingException when the payload cannot be read.
+   * @throws ClassNotFoundException  when the payload type is unknown.
+   */
+  public GenericEvent deserialize(OutboxMessage message)
+      throws JsonProcessingException, ClassNotFoundException {
+    Class<?> type = Class.forName(message.getPayloadType());
+    if (!GenericEvent.class.isAssignableFrom(type)) {
+      throw new IllegalArgumentException("Unsupported outbox payload: " + type.getName());
+    }
+    return (GenericEvent) objectMapper.readValue(message.getPayload(), type);
+  }
+
+  private String serialize(GenericEvent event) throws JsonProcessingException {
+    return objectMapper.writeValueAsString(event);
+  }
+
+}
@@ -0,0 +1,193 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardTransactions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Append-only ledger of the processed transfers, stored in the {@code debit_card_transactions}
+ * collection. Entries recorded concurrently are collected until the batch is full or the batch
+ * window elapses and written with one insert, and every caller is notified once its entry is
+ * stored. Batches are only emitted when an insert slot is free. Every transfer is recorded at most
+ * once: when a batch holds a transfer that is already stored, its entries are written one by one
+ * and the duplicate is skipped. Reads are keyset-paginated by entry id within a card and a time
+ * range, and only touch the month buckets covering the range. The size of every written batch is
+ * recorded in {@code debitcard.ledger.batch.size}.
+ */
+@Slf4j
+@Component
+public class TransactionLedger {
+
+  private final ReactiveMongoTemplate template;
+  private final DistributionSummary batchSize;
+  private final int maxRetries;
+  private final int maxQueryMonths;
+  private final Sinks.Many<PendingEntry> queue = Sinks.many().unicast().onBackpressureBuffer();
+  private final Disposable subscription;
+
+  /**
+   * Creates the ledger.
+   *
+   * @param template           the reactive Mongo template.
+   * @param meterRegistry      the registry where the batch sizes are published.
+   * @param maxSize            the maximum number of entries per insert.
+   * @param window             the maximum time an entry waits for its batch to fill.
+   * @param maxInFlightBatches the maximum number of inserts running at once.
+   * @param maxRetries         the number of times a batch is retried on transient errors.
+   * @param maxQueryMonths     the maximum number of months a query may span.
+   */
+  public TransactionLedger(ReactiveMongoTemplate template, MeterRegistry meterRegistry,
+      @Value("${debitcard.ledger.batch.max-size:200}") int maxSize,
+      @Value("${debitcard.ledger.batch.window:20ms}") Duration window,
+      @Value("${debitcard.ledger.batch.max-in-flight:4}") int maxInFlightBatches,
+      @Value("${debitcard.ledger.batch.max-retries:3}") int maxRetries,
+      @Value("${debitcard.ledger.query.max-months:12}") int maxQueryMonths) {
+    this.template = template;
+    this.maxRetries = maxRetries;
+    this.maxQueryMonths = maxQueryMonths;
+    this.batchSize = DistributionSummary.builder("debitcard.ledger.batch.size")
+        .description("Ledger entries written per insert")
+        .register(meterRegistry);
+    this.subscription = queue.asFlux()
+        .bufferTimeout(maxSize, window, true)
+        .flatMap(this::write, maxInFlightBatches)
+        .subscribe();
+  }
+
+  /**
+   * Records the outcome of a transfer in the next batch.
+   *
+   * @param transfer the consumed transfer event.
+   * @param result   the result event of the transfer.
+   * @return a {@link Mono} that completes once the entry is stored.
+   */
+  public Mono<Void> record(TransferDebitCardEvent transfer, DebitCardTransactionEvent result) {
+    return Mono.defer(() -> {
+      LocalDateTime now = LocalDateTime.now();
+      PendingEntry pending = new PendingEntry(DebitCardTransactions.builder()
+          .id(new ObjectId().toHexString())
+          .transactionId(transfer.getTransactionId())
+          .debitCardNumber(transfer.getDebitCardNumber())
+          .month(DebitCardTransactions.monthOf(now))
+          .type(transfer.getType())
+          .accountId(transfer.getAccountId())
+          .amount(transfer.getAmount())
+          .balanceUpdated(result.getBalanceUpdated())
+          .status(result.getStatus())
+          .description(result.getDescription())
+          .createdAt(now)
+          .build(), Sinks.empty());
+      Sinks.EmitResult emitResult;
+      synchronized (queue) {
+        emitResult = queue.tryEmitNext(pending);
+      }
+      if (emitResult.isFailure()) {
+        return Mono.error(new IllegalStateException("Transaction ledger rejected entry: "
+            + emitResult));
+      }
+      return pending.stored().asMono();
+    });
+  }
+
+  /**
+   * Finds the entries of a card recorded in the given time range, sorted by id.
+   *
+   * @param cardNumber the debit card number.
+   * @param from       the start of the range, inclusive.
+   * @param to         the end of the range, exclusive.
+   * @param afterId    the id of the last entry of the previous page, or null for the first page.
+   * @param size       the maximum number of entries to return, or 0 for no limit.
+   * @return the entries.
+   */
+  public Flux<DebitCardTransactions> findPage(String cardNumber, LocalDateTime from,
+      LocalDateTime to, String afterId, int size) {
+    if (!from.isBefore(to)) {
+      return Flux.error(new IllegalArgumentException("from must be before to"));
+    }
+    List<String> months = DebitCardTransactions.monthsBetween(from, to);
+    if (months.size() > maxQueryMonths) {
+      return Flux.error(new IllegalArgumentException(
+          "The time range may span at most " + maxQueryMonths + " months"));
+    }
+    Query query = Query.query(Criteria.where("debitCardNumber").is(cardNumber)
+            .and("month").in(months)
+            .and("createdAt").gte(from).lt(to))
+        .with(Sort.by(Sort.Direction.ASC, "id"));
+    if (afterId != null && !afterId.isBlank()) {
+      query.addCriteria(Criteria.where("id").gt(afterId));
+    }
+    if (size > 0) {
+      query.limit(size);
+    }
+    return template.find(query, DebitCardTransactions.class);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    queue.tryEmitComplete();
+    subscription.dispose();
+  }
+
+  private Mono<Void> write(List<PendingEntry> batch) {
+    batchSize.record(batch.size());
+    List<DebitCardTransactions> entries = batch.stream().map(PendingEntry::entry).toList();
+    return Mono.defer(() -> template.insertAll(entries).then())
+        .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(50))
+            .filter(TransientDataAccessException.class::isInstance))
+        .doOnSuccess(done -> batch.forEach(pending -> pending.stored().tryEmitEmpty()))
+        .onErrorResume(DuplicateKeyException.class, e -> {
+          log.warn("Batch of {} ledger entries holds transfers already recorded, writing them "
+              + "one by one", batch.size());
+          return Flux.fromIterable(batch).concatMap(this::writeOne).then();
+        })
+        .onErrorResume(e -> {
+          log.error("Could not write {} ledger entries: {}", batch.size(), e.getMessage());
+          batch.forEach(pending -> pending.stored().tryEmitError(e));
+          return Mono.empty();
+        });
+  }
+
+  private Mono<Void> writeOne(PendingEntry pending) {
+    return Mono.defer(() -> template.insert(pending.entry()).then())
+        .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(50))
+            .filter(TransientDataAccessException.class::isInstance))
+        .onErrorResume(DuplicateKeyException.class, e -> {
+          log.debug("Transfer {} is already recorded in the ledger",
+              pending.entry().getTransactionId());
+          return Mono.empty();
+        })
+        .doOnSuccess(done -> pending.stored().tryEmitEmpty())
+        .onErrorResume(e -> {
+          log.error("Could not write the ledger entry of transfer {}: {}",
+              pending.entry().getTransactionId(), e.getMessage());
+          pending.stored().tryEmitError(e);
+          return Mono.empty();
+        });
+  }
+
+  private record PendingEntry(DebitCardTransactions entry, Sinks.Empty<Void> stored) {
+
+  }
+
+}
@@ -0,0 +1,187 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.ProcessedTransfer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Idempotency store of the transfer events. A transfer is claimed by inserting its transaction id
+ * in the {@code processed_transfers} collection, whose unique {@code _id} makes the claim atomic
+ * across every instance, and the claims expire through a TTL index. A claim is a lease: while it
+ * is {@code in_flight} and unexpired, another delivery of the same transfer fails so the batch is
+ * redelivered later, and once the lease expires the claim can be taken over. The outcome of the
+ * account transfer is stored on the claim before it is published, so a delivery that takes over
+ * the claim resumes from it instead of moving the money again. Only transfers whose result was
+ * published count as duplicates, and those are kept in a bounded in-memory front so replays of
+ * hot transactions are rejected without a database round trip.
+ */
+@Slf4j
+@Component
+public class TransferIdempotencyStore {
+
+  private final ReactiveMongoTemplate template;
+  private final Cache<String, String> recent;
+  private final Duration lease;
+
+  /**
+   * Creates the store.
+   *
+   * @param template      the reactive Mongo template.
+   * @param meterRegistry the registry where the in-memory front statistics are published.
+   * @param maximumSize   the maximum number of transaction ids kept in memory.
+   * @param ttl           the time a transaction id is kept in memory.
+   * @param lease         the time a claim is held before another delivery may take it over.
+   */
+  public TransferIdempotencyStore(ReactiveMongoTemplate template, MeterRegistry meterRegistry,
+      @Value("${debitcard.idempotency.maximum-size:200000}") long maximumSize,
+      @Value("${debitcard.idempotency.ttl:1h}") Duration ttl,
+      @Value("${debitcard.idempotency.lease:2m}") Duration lease) {
+    this.template = template;
+    this.lease = lease;
+    this.recent = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, recent, "processedTransfers");
+  }
+
+  /**
+   * Claims the transaction for processing.
+   *
+   * @param transactionId the transaction id of the transfer event.
+   * @param cardNumber    the debit card number of the transfer event.
+   * @return a {@link Mono} with the claim, which is not acquired when the result of the transfer
+   *     was already published, or that fails with an {@link IllegalStateException} when another
+   *     delivery still holds the claim.
+   */
+  public Mono<Claim> tryAcquire(String transactionId, String cardNumber) {
+    if (transactionId == null) {
+      return Mono.just(Claim.NEW);
+    }
+    if (recent.getIfPresent(transactionId) != null) {
+      return Mono.just(Claim.DUPLICATE);
+    }
+    LocalDateTime now = LocalDateTime.now();
+    ProcessedTransfer claim = ProcessedTransfer.builder()
+        .transactionId(transactionId)
+        .debitCardNumber(cardNumber)
+        .status(ProcessedTransfer.STATUS_IN_FLIGHT)
+        .claimedUntil(now.plus(lease))
+        .createdAt(now)
+        .build();
+    return template.insert(claim)
+        .thenReturn(Claim.NEW)
+        .onErrorResume(DuplicateKeyException.class, e -> takeOver(transactionId));
+  }
+
+  /**
+   * Stores the outcome of the account transfer on the claim and renews its lease.
+   *
+   * @param transactionId the transaction id of the transfer event.
+   * @param result        the result event of the transfer.
+   * @return a {@link Mono} that completes once the outcome is stored.
+   */
+  public Mono<Void> recordResult(String transactionId, DebitCardTransactionEvent result) {
+    if (transactionId == null) {
+      return Mono.empty();
+    }
+    return template.updateFirst(inFlight(transactionId),
+            new Update().set("result", ProcessedTransfer.TransferResult.from(result))
+                .set("claimedUntil", LocalDateTime.now().plus(lease)),
+            ProcessedTransfer.class)
+        .then();
+  }
+
+  /**
+   * Releases the claim of a transfer whose processing failed, so its redelivery is processed
+   * at once. Claims without a stored outcome are deleted, and claims with one are kept but their
+   * lease is expired so the redelivery resumes from the stored outcome.
+   *
+   * @param transactionId the transaction id of the transfer event.
+   * @return a {@link Mono} that completes once the claim is released.
+   */
+  public Mono<Void> release(String transactionId) {
+    if (transactionId == null) {
+      return Mono.empty();
+    }
+    recent.invalidate(transactionId);
+    return template.remove(inFlight(transactionId).addCriteria(Criteria.where("result")
+                .exists(false)), ProcessedTransfer.class)
+        .then(template.updateFirst(inFlight(transactionId),
+            new Update().set("claimedUntil", LocalDateTime.now()), ProcessedTransfer.class))
+        .then();
+  }
+
+  /**
+   * Records the final status of a claimed transaction.
+   *
+   * @param transactionId the transaction id of the transfer event.
+   * @param status        the status of the published result event.
+   * @return a {@link Mono} that completes once the status is stored.
+   */
+  public Mono<Void> complete(String transactionId, String status) {
+    if (transactionId == null) {
+      return Mono.empty();
+    }
+    return template.updateFirst(Query.query(Criteria.where("transactionId").is(transactionId)),
+            new Update().set("status", status).set("completedAt", LocalDateTime.now()),
+            ProcessedTransfer.class)
+        .doOnSuccess(result -> recent.put(transactionId, status))
+        .then();
+  }
+
+  private Mono<Claim> takeOver(String transactionId) {
+    LocalDateTime now = LocalDateTime.now();
+    Query expired = inFlight(transactionId).addCriteria(new Criteria().orOperator(
+        Criteria.where("claimedUntil").lt(now),
+        Criteria.where("claimedUntil").exists(false)));
+    return template.findAndModify(expired, new Update().set("claimedUntil", now.plus(lease)),
+            ProcessedTransfer.class)
+        .map(previous -> {
+          log.warn("Taking over the expired claim of transfer {}", transactionId);
+          return previous.getResult() == null ? Claim.NEW : new Claim(true, previous.getResult());
+        })
+        .switchIfEmpty(Mono.defer(() -> template.findById(transactionId, ProcessedTransfer.class)
+            .filter(existing -> !ProcessedTransfer.STATUS_IN_FLIGHT.equals(existing.getStatus()))
+            .map(existing -> {
+              recent.put(transactionId, existing.getStatus());
+              return Claim.DUPLICATE;
+            })
+            .switchIfEmpty(Mono.error(new IllegalStateException(
+                "Transfer " + transactionId + " is still being processed")))));
+  }
+
+  private static Query inFlight(String transactionId) {
+    return Query.query(Criteria.where("transactionId").is(transactionId)
+        .and("status").is(ProcessedTransfer.STATUS_IN_FLIGHT));
+  }
+
+  /**
+   * Claim of a transfer.
+   *
+   * @param acquired whether the caller must process the transfer.
+   * @param result   the stored outcome of the account transfer, or null when it has not run.
+   */
+  public record Claim(boolean acquired, ProcessedTransfer.TransferResult result) {
+
+    public static final Claim NEW = new Claim(true, null);
+    public static final Claim DUPLICATE = new Claim(false, null);
+
+  }
+
+}
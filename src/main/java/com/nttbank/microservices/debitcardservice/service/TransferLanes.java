@@ -0,0 +1,88 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.config.TransferLaneProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Priority lanes of the transfer pipeline. Transfers are classed by what they do to the card: a
+ * {@code DEPOSIT_DEBIT_CARD} pays from the card into another account and runs on the
+ * {@link #SPEND} lane, a {@code WITHDRAW_DEBIT_CARD} moves money from another account onto the
+ * card and runs on the {@link #TOP_UP} lane, and any other transfer runs on the
+ * {@link #MANAGEMENT} lane. Every lane has its own {@link CardLaneExecutor}, whatever topic the
+ * transfer was consumed from, so a backlog of one class never queues ahead of the work of another.
+ * Transfers of the same card stay in order within a class, but are not ordered across classes.
+ */
+@Component
+public class TransferLanes {
+
+  public static final String SPEND = "spend";
+  public static final String TOP_UP = "top-up";
+  public static final String MANAGEMENT = "management";
+
+  private final Map<String, CardLaneExecutor> executors;
+
+  /**
+   * Creates one executor per lane.
+   *
+   * @param meterRegistry the registry where the lane gauges are published.
+   * @param properties    the lane configuration.
+   */
+  public TransferLanes(MeterRegistry meterRegistry, TransferLaneProperties properties) {
+    this.executors = Map.of(
+        SPEND, new CardLaneExecutor(meterRegistry, SPEND,
+            properties.getSpend().getCardLanes()),
+        TOP_UP, new CardLaneExecutor(meterRegistry, TOP_UP,
+            properties.getTopUp().getCardLanes()),
+        MANAGEMENT, new CardLaneExecutor(meterRegistry, MANAGEMENT,
+            properties.getManagement().getCardLanes()));
+  }
+
+  /**
+   * Returns the lane of a transfer.
+   *
+   * @param transfer the transfer event.
+   * @return {@link #SPEND}, {@link #TOP_UP} or {@link #MANAGEMENT}.
+   */
+  public static String laneOf(TransferDebitCardEvent transfer) {
+    if (CardAggregateStore.DEPOSIT.equals(transfer.getType())) {
+      return SPEND;
+    }
+    if (CardAggregateStore.WITHDRAW.equals(transfer.getType())) {
+      return TOP_UP;
+    }
+    return MANAGEMENT;
+  }
+
+  /**
+   * Submits the work of a transfer to the card lane of its class.
+   *
+   * @param transfer the transfer event.
+   * @param work     the supplier of the reactive work to execute.
+   * @return a {@link Mono} that mirrors the outcome of the work once it has run on its lane.
+   */
+  public <T> Mono<T> submit(TransferDebitCardEvent transfer, Supplier<Mono<T>> work) {
+    return executor(laneOf(transfer)).submit(transfer.getDebitCardNumber(), work);
+  }
+
+  /**
+   * Returns the executor of a lane.
+   *
+   * @param lane the lane name.
+   * @return the executor.
+   */
+  public CardLaneExecutor executor(String lane) {
+    return executors.get(lane);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executors.values().forEach(CardLaneExecutor::shutdown);
+  }
+
+}
@@ -0,0 +1,147 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Local pre-authorization of card transfers. Before the account transfer is requested, the status
+ * of the card is checked. When the transfer debits the card, a {@code DEPOSIT_DEBIT_CARD} paid from
+ * one of the card's accounts, the status of that account and its {@code withdrawAmountMax},
+ * {@code allowedDayOperation} and {@code maxMonthlyTrans} are checked as well, against the cached
+ * account and the number of debits of the card in its aggregates, so transfers that would fail
+ * downstream are rejected without a remote call. A {@code WITHDRAW_DEBIT_CARD} credits the card
+ * from an account that does not belong to it, so its account limits are left to the account
+ * service. Every decision is counted in {@code debitcard.limits.decisions} by transfer type and
+ * decision.
+ */
+@Slf4j
+@Component
+public class TransferLimitEngine {
+
+  private final AccountService accountService;
+  private final CardAggregateStore aggregates;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+
+  /**
+   * Creates the engine.
+   *
+   * @param accountService the service used to read the cached account rules.
+   * @param aggregates     the store of the card aggregates.
+   * @param meterRegistry  the registry where the decisions are counted.
+   * @param enabled        whether transfers are checked at all.
+   */
+  public TransferLimitEngine(AccountService accountService, CardAggregateStore aggregates,
+      MeterRegistry meterRegistry,
+      @Value("${debitcard.limits.enabled:true}") boolean enabled) {
+    this.accountService = accountService;
+    this.aggregates = aggregates;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Checks the transfer against the card and account limits.
+   *
+   * @param transfer        the transfer event.
+   * @param debitCard       the debit card of the transfer.
+   * @param sourceAccountId the id of the account the money leaves, only checked when the transfer
+   *                        debits the card.
+   * @return a {@link Mono} that completes when the transfer is allowed, or fails with an
+   *     {@link IllegalArgumentException} describing the violated limit.
+   */
+  public Mono<Void> authorize(TransferDebitCardEvent transfer, DebitCard debitCard,
+      String sourceAccountId) {
+    if (!CardAggregateStore.DEPOSIT.equals(transfer.getType())
+        && !CardAggregateStore.WITHDRAW.equals(transfer.getType())) {
+      return Mono.empty();
+    }
+    if (!enabled) {
+      return Mono.empty();
+    }
+    if (!"active".equals(debitCard.getStatus())) {
+      return complete(transfer, Decision.CARD_INACTIVE);
+    }
+    if (!CardAggregateStore.DEPOSIT.equals(transfer.getType())) {
+      return complete(transfer, Decision.APPROVED);
+    }
+    LocalDate today = LocalDate.now();
+    return Mono.zip(
+            accountService.findById(sourceAccountId).map(Optional::of)
+                .defaultIfEmpty(Optional.empty()),
+            aggregates.findDay(transfer.getDebitCardNumber(), today),
+            aggregates.findMonth(transfer.getDebitCardNumber(), YearMonth.from(today)))
+        .flatMap(rules -> complete(transfer, decide(transfer, rules.getT1().orElse(null),
+            rules.getT2(), rules.getT3())));
+  }
+
+  static Decision decide(TransferDebitCardEvent transfer, BankAccountResponse account,
+      DebitCardAggregate day, DebitCardAggregate month) {
+    if (account == null) {
+      return Decision.ACCOUNT_NOT_FOUND;
+    }
+    if (account.getStatus() != null && !"active".equalsIgnoreCase(account.getStatus())) {
+      return Decision.ACCOUNT_INACTIVE;
+    }
+    if (account.getWithdrawAmountMax() != null && transfer.getAmount() != null
+        && transfer.getAmount().compareTo(account.getWithdrawAmountMax()) > 0) {
+      return Decision.AMOUNT_EXCEEDED;
+    }
+    if (account.getAllowedDayOperation() != null
+        && day.getDepositCount() >= account.getAllowedDayOperation()) {
+      return Decision.DAILY_OPERATIONS_EXCEEDED;
+    }
+    if (account.getMaxMonthlyTrans() != null
+        && month.getDepositCount() >= account.getMaxMonthlyTrans()) {
+      return Decision.MONTHLY_TRANSACTIONS_EXCEEDED;
+    }
+    return Decision.APPROVED;
+  }
+
+  private Mono<Void> complete(TransferDebitCardEvent transfer, Decision decision) {
+    Counter.builder("debitcard.limits.decisions")
+        .description("Pre-authorization decisions of card transfers")
+        .tag("type", transfer.getType())
+        .tag("decision", decision.code)
+        .register(meterRegistry)
+        .increment();
+    if (decision == Decision.APPROVED) {
+      return Mono.empty();
+    }
+    log.info("Transfer {} rejected before the account transfer: {}", transfer.getTransactionId(),
+        decision.code);
+    return Mono.error(new IllegalArgumentException(decision.message));
+  }
+
+  enum Decision {
+    APPROVED("approved", null),
+    CARD_INACTIVE("card_inactive", "Debit card is not active"),
+    ACCOUNT_NOT_FOUND("account_not_found", "Account not found"),
+    ACCOUNT_INACTIVE("account_inactive", "Account is not active"),
+    AMOUNT_EXCEEDED("amount_exceeded", "Amount exceeds the maximum withdraw amount"),
+    DAILY_OPERATIONS_EXCEEDED("daily_operations_exceeded",
+        "Daily operations limit reached"),
+    MONTHLY_TRANSACTIONS_EXCEEDED("monthly_transactions_exceeded",
+        "Monthly transactions limit reached");
+
+    private final String code;
+    private final String message;
+
+    Decision(String code, String message) {
+      this.code = code;
+      this.message = message;
+    }
+  }
+
+}
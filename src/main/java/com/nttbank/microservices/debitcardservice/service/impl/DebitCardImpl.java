@@ -2,11 +2,14 @@ package com.nttbank.microservices.debitcardservice.service.impl;
 
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
 import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.service.DebitCardCache;
+import com.nttbank.microservices.debitcardservice.service.DebitCardCacheSynchronizer;
 import com.nttbank.microservices.debitcardservice.service.DebitCardService;
+import com.nttbank.microservices.debitcardservice.service.OutboxService;
 import com.nttbank.microservices.debitcardservice.service.repository.IDebitCardRepo;
 import com.nttbank.microservices.debitcardservice.util.DebitCardUtils;
-import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
-import java.util.UUID;
+import java.util.HashSet;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -19,8 +22,14 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class DebitCardImpl implements DebitCardService {
 
+  private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "customerId", "cardNumber",
+      "cardholderName", "expirationDate", "mainAccountId", "linkedAccounts", "createdAt",
+      "updatedAt", "status");
+
   private final IDebitCardRepo repo;
-  private final KafkaUtil kafkaUtil;
+  private final OutboxService outboxService;
+  private final DebitCardCache cache;
+  private final DebitCardCacheSynchronizer cacheSynchronizer;
 
   @Override
   public Flux<DebitCard> findAll() {
@@ -28,60 +37,82 @@ public class DebitCardImpl implements DebitCardService {
   }
 
   @Override
-  public Mono<DebitCard> findById(String debitCardId) {
-    return repo.findById(debitCardId);
+  public Flux<DebitCard> findPage(String afterId, int size, Set<String> fields) {
+    Set<String> projection = new HashSet<>(PROJECTABLE_FIELDS);
+    if (fields != null && !fields.isEmpty()) {
+      Set<String> unknown = new HashSet<>(fields);
+      unknown.removeAll(PROJECTABLE_FIELDS);
+      if (!unknown.isEmpty()) {
+        return Flux.error(new IllegalArgumentException("Unknown fields: " + unknown));
+      }
+      projection = new HashSet<>(fields);
+      projection.add("id");
+    }
+    return repo.findPage(afterId, size, projection);
   }
 
   @Override
-  public Mono<DebitCard> save(DebitCard t) {
-    t.setMainAccountId(generateFormattedUuid());
-    return repo.save(t);
+  public Mono<DebitCard> findById(String debitCardId) {
+    return cache.findById(debitCardId, repo::findById);
   }
 
-  private String generateFormattedUuid() {
-    String uuid = UUID.randomUUID().toString().replace("-", "");
-    return uuid.substring(0, Math.min(uuid.length(), 16));
+  @Override
+  public Mono<DebitCard> save(DebitCard t) {
+    t.setMainAccountId(DebitCardUtils.generateFormattedUuid());
+    return repo.save(t)
+        .doOnNext(cacheSynchronizer::cardChanged);
   }
 
   @Override
   public Mono<DebitCard> update(DebitCard t) {
-    return repo.save(t);
+    return repo.save(t)
+        .doOnNext(cacheSynchronizer::cardChanged);
   }
 
   @Override
   public Mono<Void> delete(String debitCardId) {
-    return repo.deleteById(debitCardId);
+    return repo.findById(debitCardId)
+        .defaultIfEmpty(DebitCard.builder().id(debitCardId).build())
+        .flatMap(debitCard -> repo.deleteById(debitCardId)
+            .doFinally(signal -> cacheSynchronizer.cardDeleted(debitCard)));
   }
 
   @Override
   public Mono<DebitCard> addLinkedAccount(String debitCardId, String accountId) {
-    return repo.findById(debitCardId)
-        .flatMap(debitCard -> {
-          DebitCardUtils.addElementToSet(debitCard, accountId, DebitCard::getLinkedAccounts,
-              DebitCard::setLinkedAccounts);
-          return repo.save(debitCard);
-        });
+    return addLinkedAccounts(debitCardId, Set.of(accountId));
   }
 
   @Override
   public Mono<DebitCard> removeLinkedAccount(String debitCardId, String accountId) {
-    return repo.findById(debitCardId)
-        .flatMap(debitCard -> {
-          DebitCardUtils.removeElementToSet(debitCard, accountId, DebitCard::getLinkedAccounts,
-              DebitCard::setLinkedAccounts);
-          return repo.save(debitCard);
-        });
+    return removeLinkedAccounts(debitCardId, Set.of(accountId));
+  }
+
+  @Override
+  public Mono<DebitCard> addLinkedAccounts(String debitCardId, Set<String> accountIds) {
+    if (accountIds == null || accountIds.isEmpty()) {
+      return Mono.error(new IllegalArgumentException("At least one account id is required"));
+    }
+    return repo.addLinkedAccounts(debitCardId, accountIds)
+        .doOnNext(cacheSynchronizer::cardChanged);
+  }
+
+  @Override
+  public Mono<DebitCard> removeLinkedAccounts(String debitCardId, Set<String> accountIds) {
+    if (accountIds == null || accountIds.isEmpty()) {
+      return Mono.error(new IllegalArgumentException("At least one account id is required"));
+    }
+    return repo.removeLinkedAccounts(debitCardId, accountIds)
+        .doOnNext(cacheSynchronizer::cardChanged);
   }
 
   @Override
   public Mono<DebitCard> findByCardNumber(String cardNumber) {
-    return repo.findByCardNumber(cardNumber);
+    return cache.findByCardNumber(cardNumber, repo::findByCardNumber);
   }
 
   @Override
   public Mono<Void> sendKafkaMessage(GenericEvent obj) {
-    kafkaUtil.sendMessage(obj);
-    return Mono.empty();
+    return outboxService.enqueue(obj);
   }
 
 }
@@ -7,7 +7,8 @@ import reactor.core.publisher.Mono;
 /**
  * IDebitCardRepo interface provides the repository for the Debit Card entity.
  */
-public interface IDebitCardRepo extends ReactiveMongoRepository<DebitCard, String> {
+public interface IDebitCardRepo extends ReactiveMongoRepository<DebitCard, String>,
+    IDebitCardRepoCustom {
 
   /**
    * findByCardNumber method finds the debit card by card number.
@@ -0,0 +1,44 @@
+package com.nttbank.microservices.debitcardservice.service.repository;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * IDebitCardRepoCustom interface provides the repository operations for the Debit Card entity that
+ * are built directly on top of the reactive Mongo template.
+ */
+public interface IDebitCardRepoCustom {
+
+  /**
+   * findPage method finds the debit cards whose id is greater than the given cursor, sorted by id.
+   * The fields that are not selected are left null, even those the entity defaults.
+   *
+   * @param afterId the id of the last card of the previous page, or null for the first page
+   * @param size    the maximum number of cards to return, or 0 for no limit
+   * @param fields  the fields to include in the returned cards
+   * @return the debit cards
+   */
+  Flux<DebitCard> findPage(String afterId, int size, Collection<String> fields);
+
+  /**
+   * addLinkedAccounts method atomically adds the accounts to the linked accounts of the debit card.
+   *
+   * @param debitCardId the debit card id
+   * @param accountIds  the account ids to link
+   * @return the updated debit card, or empty when it does not exist
+   */
+  Mono<DebitCard> addLinkedAccounts(String debitCardId, Collection<String> accountIds);
+
+  /**
+   * removeLinkedAccounts method atomically removes the accounts from the linked accounts of the
+   * debit card.
+   *
+   * @param debitCardId the debit card id
+   * @param accountIds  the account ids to unlink
+   * @return the updated debit card, or empty when it does not exist
+   */
+  Mono<DebitCard> removeLinkedAccounts(String debitCardId, Collection<String> accountIds);
+
+}
@@ -0,0 +1,79 @@
+package com.nttbank.microservices.debitcardservice.service.repository;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * IDebitCardRepoCustomImpl class provides the implementation of the custom Debit Card repository
+ * operations.
+ */
+@RequiredArgsConstructor
+public class IDebitCardRepoCustomImpl implements IDebitCardRepoCustom {
+
+  private final ReactiveMongoTemplate template;
+
+  @Override
+  public Flux<DebitCard> findPage(String afterId, int size, Collection<String> fields) {
+    Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id"));
+    if (afterId != null && !afterId.isBlank()) {
+      query.addCriteria(Criteria.where("id").gt(afterId));
+    }
+    if (size > 0) {
+      query.limit(size);
+    }
+    if (fields == null || fields.isEmpty()) {
+      return template.find(query, DebitCard.class);
+    }
+    query.fields().include(fields.toArray(String[]::new));
+    return template.find(query, DebitCard.class)
+        .map(debitCard -> withoutUnselectedDefaults(debitCard, fields));
+  }
+
+  /**
+   * Clears the fields that the entity fills with a default value when they were not selected, so a
+   * projected card only carries the fields read from the database.
+   */
+  private static DebitCard withoutUnselectedDefaults(DebitCard debitCard,
+      Collection<String> fields) {
+    if (!fields.contains("createdAt")) {
+      debitCard.setCreatedAt(null);
+    }
+    if (!fields.contains("updatedAt")) {
+      debitCard.setUpdatedAt(null);
+    }
+    if (!fields.contains("status")) {
+      debitCard.setStatus(null);
+    }
+    return debitCard;
+  }
+
+  @Override
+  public Mono<DebitCard> addLinkedAccounts(String debitCardId, Collection<String> accountIds) {
+    Update update = new Update().addToSet("linkedAccounts").each(accountIds.toArray())
+        .set("updatedAt", LocalDateTime.now());
+    return modify(debitCardId, update);
+  }
+
+  @Override
+  public Mono<DebitCard> removeLinkedAccounts(String debitCardId, Collection<String> accountIds) {
+    Update update = new Update().pullAll("linkedAccounts", accountIds.toArray())
+        .set("updatedAt", LocalDateTime.now());
+    return modify(debitCardId, update);
+  }
+
+  private Mono<DebitCard> modify(String debitCardId, Update update) {
+    return template.findAndModify(Query.query(Criteria.where("id").is(debitCardId)), update,
+        FindAndModifyOptions.options().returnNew(true), DebitCard.class);
+  }
+
+}
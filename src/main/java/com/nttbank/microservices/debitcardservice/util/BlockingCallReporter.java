@@ -0,0 +1,60 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * BlockHound integration that reports blocking calls made on Netty event loops and non-blocking
+ * Reactor schedulers. Every call is logged with the stack trace of the offending code and counted
+ * in {@code debitcard.diagnostics.blocking.calls}, tagged with the blocking method. In fail mode
+ * the call is also rejected with a {@link BlockingOperationError}.
+ */
+@Slf4j
+public class BlockingCallReporter implements BlockHoundIntegration {
+
+  static final String METRIC = "debitcard.diagnostics.blocking.calls";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean fail;
+
+  /**
+   * Creates the reporter.
+   *
+   * @param meterRegistry the registry where blocking calls are counted.
+   * @param fail          whether blocking calls are rejected after being reported.
+   */
+  public BlockingCallReporter(MeterRegistry meterRegistry, boolean fail) {
+    this.meterRegistry = meterRegistry;
+    this.fail = fail;
+  }
+
+  @Override
+  public void applyTo(BlockHound.Builder builder) {
+    builder.blockingMethodCallback(this::report)
+        // Seeding the secure random used by UUID reads from the entropy source once per JVM.
+        .allowBlockingCallsInside("java.util.UUID", "randomUUID")
+        // Log output, including the reports themselves, is written synchronously by design.
+        .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes");
+  }
+
+  void report(BlockingMethod method) {
+    String name = method.getClassName() + "." + method.getName();
+    Counter.builder(METRIC)
+        .description("Blocking calls detected on non-blocking threads")
+        .tag("method", name)
+        .register(meterRegistry)
+        .increment();
+    BlockingOperationError error = new BlockingOperationError(method);
+    log.warn("Blocking call {} detected on thread {}", name, Thread.currentThread().getName(),
+        error);
+    if (fail) {
+      throw error;
+    }
+  }
+
+}
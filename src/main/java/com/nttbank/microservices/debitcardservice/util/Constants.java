@@ -9,4 +9,8 @@ public class Constants {
   public static final String MESSAGE_KEY = "message";
   public static final String PATH_KEY = "path";
   public static final String ERROR_KEY = "error";
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  public static final int MAX_PAGE_SIZE = 1000;
 }
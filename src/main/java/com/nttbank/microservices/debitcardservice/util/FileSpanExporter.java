@@ -0,0 +1,104 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Span exporter for local use that appends every finished span as one JSON line to a file, so a
+ * trace can be followed without running a collector. Spans of the same trace share the
+ * {@code traceId} and are linked through {@code parentSpanId}.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+  private final ObjectMapper objectMapper;
+  private final BufferedWriter writer;
+
+  /**
+   * Opens the file for appending, creating it and its parent directories when needed.
+   *
+   * @param path the file the spans are written to.
+   * @param objectMapper the mapper used to write each span.
+   */
+  public FileSpanExporter(Path path, ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open span file " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try {
+      for (SpanData span : spans) {
+        writer.write(objectMapper.writeValueAsString(toMap(span)));
+        writer.newLine();
+      }
+      writer.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      log.warn("Could not export {} spans: {}", spans.size(), e.getMessage());
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode flush() {
+    try {
+      writer.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    try {
+      writer.close();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  private static Map<String, Object> toMap(SpanData span) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("traceId", span.getTraceId());
+    json.put("spanId", span.getSpanId());
+    json.put("parentSpanId", span.getParentSpanContext().isValid()
+        ? span.getParentSpanId() : null);
+    json.put("name", span.getName());
+    json.put("kind", span.getKind().name());
+    json.put("startEpochNanos", span.getStartEpochNanos());
+    json.put("durationMicros", TimeUnit.NANOSECONDS.toMicros(
+        span.getEndEpochNanos() - span.getStartEpochNanos()));
+    json.put("status", span.getStatus().getStatusCode().name());
+    json.put("attributes", attributes);
+    return json;
+  }
+
+}
@@ -1,25 +1,88 @@
 package com.nttbank.microservices.debitcardservice.util;
 
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
+/**
+ * Utility component for publishing events to Kafka. Every send is timed from the call until the
+ * broker acknowledgement in {@code debitcard.kafka.publish.latency}, tagged by topic and outcome.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class KafkaUtil {
 
   private final KafkaTemplate<String, GenericEvent> kafkaTemplate;
+  private final MeterRegistry meterRegistry;
 
   @Value("${kafka.nttbank.topic.producer:nttbank}")
   private String topicName;
 
+  public KafkaUtil(KafkaTemplate<String, GenericEvent> kafkaTemplate,
+      MeterRegistry meterRegistry) {
+    this.kafkaTemplate = kafkaTemplate;
+    this.meterRegistry = meterRegistry;
+  }
+
   public void sendMessage(GenericEvent obj) {
-    log.info("Sending message to the topic " + topicName);
-    kafkaTemplate.send(topicName, obj);
+    sendMessage(topicName, null, obj);
+  }
+
+  public void sendMessage(String topic, GenericEvent obj) {
+    sendMessage(topic, null, obj);
+  }
+
+  /** Sends the message without waiting for the broker, logging a failed send. */
+  public void sendMessage(String topic, String key, GenericEvent obj) {
+    sendAndAwait(topic, key, obj)
+        .subscribe(null, e -> log.warn("Could not send message to the topic {}: {}", topic,
+            e.getMessage()));
+  }
+
+  /**
+   * Sends the message and completes once the broker has acknowledged it, failing when the send
+   * fails. Messages with the same key land on the same partition.
+   */
+  public Mono<Void> sendAndAwait(String topic, String key, GenericEvent obj) {
+    return sendAndAwait(topic, key, obj, Map.of());
+  }
+
+  /**
+   * Sends the message with the given headers, such as trace propagation headers, and completes
+   * once the broker has acknowledged it.
+   */
+  public Mono<Void> sendAndAwait(String topic, String key, GenericEvent obj,
+      Map<String, String> headers) {
+    return Mono.defer(() -> {
+      log.debug("Sending message to the topic {}", topic);
+      ProducerRecord<String, GenericEvent> producerRecord = new ProducerRecord<>(topic, key, obj);
+      if (headers != null) {
+        headers.forEach((name, value) -> producerRecord.headers()
+            .add(name, value.getBytes(StandardCharsets.UTF_8)));
+      }
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return Mono.fromFuture(kafkaTemplate.send(producerRecord))
+          .doOnSuccess(result -> sample.stop(publishTimer(topic, "success")))
+          .doOnError(e -> sample.stop(publishTimer(topic, "error")))
+          .then();
+    });
+  }
+
+  private Timer publishTimer(String topic, String outcome) {
+    return Timer.builder("debitcard.kafka.publish.latency")
+        .description("Time from send until the broker acknowledged the record")
+        .tag("topic", topic)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
   }
 
 }
@@ -0,0 +1,71 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Times reactive pipelines from subscription until they terminate, which is when the work they
+ * describe actually runs. Every timer gets an {@code outcome} tag ({@code success}, {@code error}
+ * or {@code cancelled}) and an {@code exception} tag holding the error class name.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveMetrics {
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Times the given {@link Mono}.
+   *
+   * @param name the timer name.
+   * @param mono the pipeline to time.
+   * @param tags additional tags as key/value pairs.
+   * @return the timed pipeline.
+   */
+  public <T> Mono<T> time(String name, Mono<T> mono, String... tags) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      return mono.doOnError(error::set)
+          .doFinally(signal -> sample.stop(timer(name, signal, error.get(), tags)));
+    });
+  }
+
+  /**
+   * Times the given {@link Flux} until it completes.
+   *
+   * @param name the timer name.
+   * @param flux the pipeline to time.
+   * @param tags additional tags as key/value pairs.
+   * @return the timed pipeline.
+   */
+  public <T> Flux<T> time(String name, Flux<T> flux, String... tags) {
+    return Flux.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      return flux.doOnError(error::set)
+          .doFinally(signal -> sample.stop(timer(name, signal, error.get(), tags)));
+    });
+  }
+
+  private Timer timer(String name, SignalType signal, Throwable error, String... tags) {
+    String outcome = switch (signal) {
+      case ON_ERROR -> "error";
+      case CANCEL -> "cancelled";
+      default -> "success";
+    };
+    return Timer.builder(name)
+        .tags(Tags.of(tags))
+        .tag("outcome", outcome)
+        .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+        .register(meterRegistry);
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.ReceiverContext;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+import io.micrometer.tracing.propagation.Propagator;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+import reactor.util.context.ContextView;
+
+/**
+ * Helpers to carry trace context across the boundaries of the reactive chain: Kafka record headers
+ * on the way in, and string header maps for outgoing HTTP requests and outbox messages on the way
+ * out. The current observation travels in the Reactor context under
+ * {@link ObservationThreadLocalAccessor#KEY}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TracingSupport {
+
+  private final Propagator propagator;
+
+  /**
+   * Returns the propagation headers of the observation held in the Reactor context.
+   *
+   * @param context the Reactor context.
+   * @return the headers, empty when there is no traced observation.
+   */
+  public Map<String, String> headers(ContextView context) {
+    Map<String, String> headers = new HashMap<>();
+    Observation observation = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+    if (observation == null) {
+      return headers;
+    }
+    TracingObservationHandler.TracingContext tracingContext =
+        observation.getContext().get(TracingObservationHandler.TracingContext.class);
+    Span span = tracingContext == null ? null : tracingContext.getSpan();
+    if (span != null) {
+      propagator.inject(span.context(), headers, Map::put);
+    }
+    return headers;
+  }
+
+  /**
+   * Creates a receiver context whose parent trace is read from Kafka record headers.
+   *
+   * @param headers the record headers, may be null.
+   * @return the receiver context.
+   */
+  public static ReceiverContext<Headers> kafkaReceiverContext(Headers headers) {
+    ReceiverContext<Headers> context = new ReceiverContext<>((carrier, key) -> {
+      Header header = carrier == null ? null : carrier.lastHeader(key);
+      return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    });
+    context.setCarrier(headers);
+    return context;
+  }
+
+}
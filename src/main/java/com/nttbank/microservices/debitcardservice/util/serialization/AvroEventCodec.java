@@ -0,0 +1,118 @@
+package com.nttbank.microservices.debitcardservice.util.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Avro codec for event classes that have a schema in the {@link FileSchemaRegistry}. Payloads use
+ * the Avro single-object encoding: the two marker bytes {@code C3 01}, the little-endian schema
+ * fingerprint and the binary record. Events are read and written by reflection, so the common
+ * library classes need no generated code.
+ */
+public class AvroEventCodec {
+
+  private static final byte[] MAGIC = {(byte) 0xC3, (byte) 0x01};
+  private static final int HEADER_LENGTH = MAGIC.length + Long.BYTES;
+
+  private final FileSchemaRegistry registry;
+  private final Map<Class<?>, Writer> writers = new ConcurrentHashMap<>();
+  private final Map<Long, ReflectDatumReader<Object>> readers = new ConcurrentHashMap<>();
+
+  public AvroEventCodec(FileSchemaRegistry registry) {
+    this.registry = registry;
+  }
+
+  /** Returns whether the class has a registered schema. */
+  public boolean supports(Class<?> type) {
+    return registry.findLatest(type.getName()) != null;
+  }
+
+  /** Returns whether the payload starts with the single-object encoding marker. */
+  public static boolean isAvro(byte[] data) {
+    return data != null && data.length >= HEADER_LENGTH
+        && data[0] == MAGIC[0] && data[1] == MAGIC[1];
+  }
+
+  /**
+   * Encodes an event with the latest schema of its class.
+   *
+   * @param event the event.
+   * @return the encoded payload.
+   */
+  public byte[] encode(Object event) {
+    Writer writer = writers.computeIfAbsent(event.getClass(), this::writerFor);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+    out.writeBytes(writer.header);
+    try {
+      BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+      writer.datumWriter.write(event, encoder);
+      encoder.flush();
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException("Could not encode " + event.getClass().getName(), e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes a payload written with any registered schema into the latest version of its class.
+   *
+   * @param data the encoded payload.
+   * @return the event.
+   */
+  public Object decode(byte[] data) {
+    if (!isAvro(data)) {
+      throw new SerializationException("Payload is not Avro single-object encoded");
+    }
+    long fingerprint = ByteBuffer.wrap(data, MAGIC.length, Long.BYTES)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .getLong();
+    ReflectDatumReader<Object> reader = readers.computeIfAbsent(fingerprint, this::readerFor);
+    try {
+      BinaryDecoder decoder = DecoderFactory.get()
+          .binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, null);
+      return reader.read(null, decoder);
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException("Could not decode Avro payload " + fingerprint, e);
+    }
+  }
+
+  private Writer writerFor(Class<?> type) {
+    Schema schema = registry.findLatest(type.getName());
+    if (schema == null) {
+      throw new SerializationException("No Avro schema registered for " + type.getName());
+    }
+    byte[] header = ByteBuffer.allocate(HEADER_LENGTH)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .put(MAGIC)
+        .putLong(SchemaNormalization.parsingFingerprint64(schema))
+        .array();
+    return new Writer(header, new ReflectDatumWriter<>(schema, ReflectData.get()));
+  }
+
+  private ReflectDatumReader<Object> readerFor(long fingerprint) {
+    Schema writerSchema = registry.findByFingerprint(fingerprint);
+    if (writerSchema == null) {
+      throw new SerializationException("Unknown Avro schema fingerprint " + fingerprint);
+    }
+    Schema readerSchema = registry.findLatest(writerSchema.getFullName());
+    return new ReflectDatumReader<>(writerSchema, readerSchema, ReflectData.get());
+  }
+
+  private record Writer(byte[] header, ReflectDatumWriter<Object> datumWriter) {
+  }
+
+}
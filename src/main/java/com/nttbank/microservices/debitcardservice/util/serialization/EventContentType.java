@@ -0,0 +1,37 @@
+package com.nttbank.microservices.debitcardservice.util.serialization;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Content types carried in the {@code content-type} header of event records, so JSON and Avro
+ * payloads can share a topic while producers and consumers migrate.
+ */
+public final class EventContentType {
+
+  public static final String HEADER = "content-type";
+  public static final String JSON = "application/json";
+  public static final String AVRO = "application/avro";
+
+  /** Configuration key selecting the format written by {@link GenericEventSerializer}. */
+  public static final String FORMAT_CONFIG = "debitcard.serialization.format";
+  /** Configuration key holding the resource pattern of the Avro schema files. */
+  public static final String SCHEMA_LOCATION_CONFIG = "debitcard.serialization.schema-location";
+
+  private EventContentType() {
+  }
+
+  static void write(Headers headers, String contentType) {
+    if (headers != null) {
+      headers.remove(HEADER);
+      headers.add(HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  static String read(Headers headers) {
+    Header header = headers == null ? null : headers.lastHeader(HEADER);
+    return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+  }
+
+}
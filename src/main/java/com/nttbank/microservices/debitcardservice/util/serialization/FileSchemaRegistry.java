@@ -0,0 +1,88 @@
+package com.nttbank.microservices.debitcardservice.util.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * Local stand-in for a schema registry. Avro schemas are read from {@code .avsc} files and
+ * indexed by their 64-bit parsing fingerprint, which is what the single-object encoding writes in
+ * front of every payload. The newest schema of each record name is used to read older payloads and
+ * to write new ones; a file holding a newer version of a record must sort after the older one.
+ */
+@Slf4j
+public class FileSchemaRegistry implements SchemaStore {
+
+  public static final String DEFAULT_LOCATION = "classpath*:schemas/*.avsc";
+
+  private static final Map<String, FileSchemaRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+  private final Map<Long, Schema> byFingerprint = new ConcurrentHashMap<>();
+  private final Map<String, Schema> latestByName = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the registry for the given location, loading it on first use.
+   *
+   * @param location a Spring resource pattern matching the schema files.
+   * @return the registry.
+   */
+  public static FileSchemaRegistry forLocation(String location) {
+    return REGISTRIES.computeIfAbsent(location, FileSchemaRegistry::load);
+  }
+
+  private static FileSchemaRegistry load(String location) {
+    FileSchemaRegistry registry = new FileSchemaRegistry();
+    try {
+      Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+      Arrays.sort(resources, Comparator.comparing(Resource::getFilename));
+      for (Resource resource : resources) {
+        try (InputStream in = resource.getInputStream()) {
+          registry.register(new Schema.Parser().parse(in));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not load Avro schemas from " + location, e);
+    }
+    log.info("Loaded {} Avro schemas from {}", registry.byFingerprint.size(), location);
+    return registry;
+  }
+
+  /**
+   * Registers a schema, making it the latest version of its record name.
+   *
+   * @param schema the schema.
+   * @return the fingerprint of the schema.
+   */
+  public long register(Schema schema) {
+    long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+    byFingerprint.put(fingerprint, schema);
+    latestByName.put(schema.getFullName(), schema);
+    return fingerprint;
+  }
+
+  @Override
+  public Schema findByFingerprint(long fingerprint) {
+    return byFingerprint.get(fingerprint);
+  }
+
+  /**
+   * Returns the latest schema registered for a record name, or null.
+   *
+   * @param fullName the full record name, which is the Java class name of the event.
+   * @return the schema, or null.
+   */
+  public Schema findLatest(String fullName) {
+    return latestByName.get(fullName);
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.nttbank.microservices.debitcardservice.util.serialization;
+
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import java.util.Map;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Kafka deserializer for {@link GenericEvent} values that reads both formats written during the
+ * migration: Avro when the {@code content-type} header says so, or when a header-less payload
+ * starts with the Avro marker, and Spring's {@link JsonDeserializer} otherwise.
+ */
+public class GenericEventDeserializer implements Deserializer<GenericEvent> {
+
+  private final JsonDeserializer<GenericEvent> json = new JsonDeserializer<>();
+  private AvroEventCodec avro;
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    json.configure(configs, isKey);
+    Object location = configs.get(EventContentType.SCHEMA_LOCATION_CONFIG);
+    avro = new AvroEventCodec(FileSchemaRegistry.forLocation(
+        location == null ? FileSchemaRegistry.DEFAULT_LOCATION : location.toString()));
+  }
+
+  @Override
+  public GenericEvent deserialize(String topic, byte[] data) {
+    return deserialize(topic, null, data);
+  }
+
+  @Override
+  public GenericEvent deserialize(String topic, Headers headers, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    String contentType = EventContentType.read(headers);
+    if (EventContentType.AVRO.equals(contentType)
+        || (contentType == null && AvroEventCodec.isAvro(data))) {
+      return (GenericEvent) avro.decode(data);
+    }
+    return headers == null
+        ? json.deserialize(topic, data)
+        : json.deserialize(topic, headers, data);
+  }
+
+  @Override
+  public void close() {
+    json.close();
+  }
+
+}
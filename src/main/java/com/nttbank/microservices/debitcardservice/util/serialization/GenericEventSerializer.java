@@ -0,0 +1,54 @@
+package com.nttbank.microservices.debitcardservice.util.serialization;
+
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import java.util.Map;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Kafka serializer for {@link GenericEvent} values. With {@code debitcard.serialization.format}
+ * set to {@code avro}, events that have a registered schema are written in Avro; everything else
+ * is written by Spring's {@link JsonSerializer}. The chosen format is recorded in the
+ * {@code content-type} header.
+ */
+public class GenericEventSerializer implements Serializer<GenericEvent> {
+
+  private final JsonSerializer<GenericEvent> json = new JsonSerializer<>();
+  private AvroEventCodec avro;
+  private boolean avroEnabled;
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    json.configure(configs, isKey);
+    avroEnabled = "avro".equalsIgnoreCase(
+        String.valueOf(configs.getOrDefault(EventContentType.FORMAT_CONFIG, "json")));
+    Object location = configs.get(EventContentType.SCHEMA_LOCATION_CONFIG);
+    avro = new AvroEventCodec(FileSchemaRegistry.forLocation(
+        location == null ? FileSchemaRegistry.DEFAULT_LOCATION : location.toString()));
+  }
+
+  @Override
+  public byte[] serialize(String topic, GenericEvent data) {
+    return serialize(topic, null, data);
+  }
+
+  @Override
+  public byte[] serialize(String topic, Headers headers, GenericEvent data) {
+    if (data == null) {
+      return null;
+    }
+    if (avroEnabled && avro.supports(data.getClass())) {
+      EventContentType.write(headers, EventContentType.AVRO);
+      return avro.encode(data);
+    }
+    EventContentType.write(headers, EventContentType.JSON);
+    return json.serialize(topic, headers, data);
+  }
+
+  @Override
+  public void close() {
+    json.close();
+  }
+
+}
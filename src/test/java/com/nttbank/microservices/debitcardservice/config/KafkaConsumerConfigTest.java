@@ -3,20 +3,39 @@ package com.nttbank.microservices.debitcardservice.config;
 import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
 import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
 import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.ProcessedTransfer;
 import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
 import com.nttbank.microservices.debitcardservice.service.AccountService;
+import com.nttbank.microservices.debitcardservice.service.CardAggregateStore;
 import com.nttbank.microservices.debitcardservice.service.DebitCardService;
+import com.nttbank.microservices.debitcardservice.service.FundingAccountSelector;
+import com.nttbank.microservices.debitcardservice.service.TransactionLedger;
+import com.nttbank.microservices.debitcardservice.service.TransferIdempotencyStore;
+import com.nttbank.microservices.debitcardservice.service.TransferLanes;
+import com.nttbank.microservices.debitcardservice.service.TransferLimitEngine;
 import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import java.util.Map;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -30,18 +49,62 @@ class KafkaConsumerConfigTest {
   private DebitCardService debitCardService;
   private AccountService accountService;
   private KafkaUtil kafkaUtil;
+  private TransferIdempotencyStore idempotencyStore;
+  private TransactionalOperator transactionalOperator;
+  private SimpleMeterRegistry meterRegistry;
+  private TransactionLedger ledger;
+  private CardAggregateStore aggregates;
+  private TransferLimitEngine limitEngine;
+  private FundingAccountSelector fundingAccountSelector;
+  private TransferLaneProperties laneProperties;
 
   @BeforeEach
   void setUp() throws Exception {
     debitCardService = mock(DebitCardService.class);
     accountService = mock(AccountService.class);
     kafkaUtil = mock(KafkaUtil.class);
-    kafkaConsumerConfig = new KafkaConsumerConfig(debitCardService, accountService, kafkaUtil);
+    idempotencyStore = mock(TransferIdempotencyStore.class);
+    transactionalOperator = mock(TransactionalOperator.class);
+    meterRegistry = new SimpleMeterRegistry();
+    ledger = mock(TransactionLedger.class);
+    aggregates = mock(CardAggregateStore.class);
+    limitEngine = mock(TransferLimitEngine.class);
+    fundingAccountSelector = mock(FundingAccountSelector.class);
+    laneProperties = new TransferLaneProperties();
+    laneProperties.getManagement().setMaxInFlight(4);
+    laneProperties.getManagement().setCardLanes(4);
+    kafkaConsumerConfig = new KafkaConsumerConfig(debitCardService, accountService, kafkaUtil,
+        new TransferLanes(meterRegistry, laneProperties), idempotencyStore, transactionalOperator,
+        meterRegistry, ObservationRegistry.NOOP, ledger, aggregates, limitEngine,
+        fundingAccountSelector, laneProperties);
 
     // Use reflection to set private fields
     setPrivateField(kafkaConsumerConfig, "kafkaServer", "localhost");
     setPrivateField(kafkaConsumerConfig, "kafkaPort", "9092");
     setPrivateField(kafkaConsumerConfig, "topicName", "nttbank");
+    setPrivateField(kafkaConsumerConfig, "maxPollRecords", 500);
+    setPrivateField(kafkaConsumerConfig, "batchTimeout", Duration.ofSeconds(5));
+    setPrivateField(kafkaConsumerConfig, "retryInitialInterval", Duration.ofSeconds(1));
+    setPrivateField(kafkaConsumerConfig, "retryMaxInterval", Duration.ofSeconds(30));
+
+    when(debitCardService.sendKafkaMessage(any())).thenReturn(Mono.empty());
+    when(idempotencyStore.tryAcquire(any(), any()))
+        .thenReturn(Mono.just(TransferIdempotencyStore.Claim.NEW));
+    when(idempotencyStore.recordResult(any(), any())).thenReturn(Mono.empty());
+    when(idempotencyStore.release(any())).thenReturn(Mono.empty());
+    when(idempotencyStore.complete(any(), any())).thenReturn(Mono.empty());
+    when(ledger.record(any(), any())).thenReturn(Mono.empty());
+    when(aggregates.apply(any())).thenReturn(Mono.empty());
+    when(limitEngine.authorize(any(), any(), any())).thenReturn(Mono.empty());
+    when(fundingAccountSelector.select(any(), any())).thenAnswer(invocation ->
+        Mono.just(invocation.<DebitCard>getArgument(0).getMainAccountId()));
+    when(transactionalOperator.transactional(any(Mono.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  private static ConsumerRecord<String, GenericEvent<? extends GenericEvent>> consumerRecord(
+      long offset, GenericEvent<? extends GenericEvent> event) {
+    return new ConsumerRecord<>("debitcard-service-management-v1", 0, offset, null, event);
   }
 
   private void setPrivateField(Object target, String fieldName, Object value) throws Exception {
@@ -50,6 +113,32 @@ class KafkaConsumerConfigTest {
     field.set(target, value);
   }
 
+  private static Object getPrivateField(Object target, String fieldName) {
+    try {
+      Field field = target.getClass().getDeclaredField(fieldName);
+      field.setAccessible(true);
+      return field.get(target);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void testLaneListeners_joinTheirOwnConsumerGroups() throws Exception {
+    for (String lane : List.of("management", "spend", "topUp")) {
+      String method = "management".equals(lane) ? "listenBatch"
+          : "spend".equals(lane) ? "listenSpends" : "listenTopUps";
+      KafkaListener listener = KafkaConsumerConfig.class
+          .getMethod(method, List.class, Acknowledgment.class)
+          .getAnnotation(KafkaListener.class);
+      assertEquals("#{@transferLaneProperties." + lane + ".groupId}", listener.groupId());
+    }
+    Set<String> groups = Set.of(laneProperties.getSpend().getGroupId(),
+        laneProperties.getTopUp().getGroupId(), "nttbank");
+    assertEquals(3, groups.size());
+    assertNull(laneProperties.getManagement().getGroupId());
+  }
+
   @Test
   void testConsumerFactory() {
     ConsumerFactory<String, GenericEvent<? extends GenericEvent>> consumerFactory =
@@ -65,6 +154,8 @@ class KafkaConsumerConfigTest {
         configs.get(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG));
     assertEquals(ErrorHandlingDeserializer.class,
         configs.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+    assertEquals(false, configs.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG));
+    assertEquals(500, configs.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG));
   }
 
   @Test
@@ -72,10 +163,130 @@ class KafkaConsumerConfigTest {
     var factory = kafkaConsumerConfig.kafkaListenerContainerFactory();
     assertNotNull(factory);
     assertNotNull(factory.getConsumerFactory());
+    assertTrue(factory.isBatchListener());
+    assertEquals(ContainerProperties.AckMode.MANUAL_IMMEDIATE,
+        factory.getContainerProperties().getAckMode());
+  }
+
+  @Test
+  void testLaneListenerContainerFactories() {
+    laneProperties.getSpend().setConcurrency(6);
+
+    var spend = kafkaConsumerConfig.spendListenerContainerFactory();
+    var topUp = kafkaConsumerConfig.topUpListenerContainerFactory();
+
+    assertTrue(spend.isBatchListener());
+    assertTrue(topUp.isBatchListener());
+    assertEquals(6, getPrivateField(spend, "concurrency"));
+    assertEquals(1, getPrivateField(topUp, "concurrency"));
+    assertEquals(ContainerProperties.AckMode.MANUAL_IMMEDIATE,
+        spend.getContainerProperties().getAckMode());
+  }
+
+  @Test
+  void testListenSpends_processesCardPaymentsOnTheSpendLane() {
+    TransferDebitCardEvent payment = new TransferDebitCardEvent();
+    payment.setDebitCardNumber("1234");
+    payment.setType("DEPOSIT_DEBIT_CARD");
+    payment.setAccountId("2");
+    payment.setTransactionId("trans-1");
+    payment.setAmount(BigDecimal.TEN);
+
+    when(debitCardService.findByCardNumber("1234"))
+        .thenReturn(Mono.just(DebitCard.builder().mainAccountId("1").build()));
+    when(accountService.accountTransfer("1", "2", BigDecimal.TEN))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder()
+            .balanceAfterMovement(BigDecimal.TEN).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenSpends(List.of(consumerRecord(0, payment)), ack);
+
+    verify(accountService, times(1)).accountTransfer("1", "2", BigDecimal.TEN);
+    verify(ack, times(1)).acknowledge();
+    assertEquals(TransferLanes.SPEND, TransferLanes.laneOf(payment));
+    assertNotNull(meterRegistry.find("debitcard.transfer.lane.queue.depth")
+        .tag("pool", TransferLanes.SPEND).gauge());
+  }
+
+  @Test
+  void testListenTopUps_processesCardTopUpsOnTheTopUpLane() {
+    TransferDebitCardEvent topUp = new TransferDebitCardEvent();
+    topUp.setDebitCardNumber("1234");
+    topUp.setType("WITHDRAW_DEBIT_CARD");
+    topUp.setAccountId("2");
+    topUp.setTransactionId("trans-1");
+    topUp.setAmount(BigDecimal.TEN);
+
+    when(debitCardService.findByCardNumber("1234"))
+        .thenReturn(Mono.just(DebitCard.builder().mainAccountId("1").build()));
+    when(accountService.accountTransfer("2", "1", BigDecimal.TEN))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder()
+            .balanceAfterMovement(BigDecimal.TEN).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenTopUps(List.of(consumerRecord(0, topUp)), ack);
+
+    verify(accountService, times(1)).accountTransfer("2", "1", BigDecimal.TEN);
+    verify(ack, times(1)).acknowledge();
+    assertEquals(TransferLanes.TOP_UP, TransferLanes.laneOf(topUp));
+  }
+
+  @Test
+  void testListenBatch_processesTransfersAndAcknowledges() {
+    TransferDebitCardEvent deposit = new TransferDebitCardEvent();
+    deposit.setDebitCardNumber("1234");
+    deposit.setType("DEPOSIT_DEBIT_CARD");
+    deposit.setAccountId("2");
+    deposit.setTransactionId("trans-1");
+    deposit.setAmount(BigDecimal.ONE);
+
+    TransferDebitCardEvent withdraw = new TransferDebitCardEvent();
+    withdraw.setDebitCardNumber("1234");
+    withdraw.setType("WITHDRAW_DEBIT_CARD");
+    withdraw.setAccountId("2");
+    withdraw.setTransactionId("trans-2");
+    withdraw.setAmount(BigDecimal.TEN);
+
+    DebitCard debitCard = DebitCard.builder().mainAccountId("1").build();
+    when(debitCardService.findByCardNumber("1234")).thenReturn(Mono.just(debitCard));
+    when(accountService.accountTransfer(anyString(), anyString(), any(BigDecimal.class)))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder()
+            .balanceAfterMovement(BigDecimal.TEN).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    GenericEvent<?> other = mock(GenericEvent.class);
+    kafkaConsumerConfig.listenBatch(
+        List.of(consumerRecord(0, deposit), consumerRecord(1, withdraw),
+            consumerRecord(2, (GenericEvent<? extends GenericEvent>) other)), ack);
+
+    verify(accountService, times(1)).accountTransfer("1", "2", BigDecimal.ONE);
+    verify(accountService, times(1)).accountTransfer("2", "1", BigDecimal.TEN);
+    verify(debitCardService, times(2)).sendKafkaMessage(any());
+    verify(ack, times(1)).acknowledge();
   }
 
   @Test
-  void testListenTopic_withDepositTransferEvent() {
+  void testListenBatch_doesNotAcknowledgeWhenPublishingFails() {
+    TransferDebitCardEvent deposit = new TransferDebitCardEvent();
+    deposit.setDebitCardNumber("1234");
+    deposit.setType("DEPOSIT_DEBIT_CARD");
+    deposit.setAccountId("2");
+    deposit.setTransactionId("trans-1");
+    deposit.setAmount(BigDecimal.ONE);
+
+    when(debitCardService.findByCardNumber("1234")).thenReturn(Mono.empty());
+    when(debitCardService.sendKafkaMessage(any()))
+        .thenReturn(Mono.error(new IllegalStateException("broker unavailable")));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    assertThrows(IllegalStateException.class,
+        () -> kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, deposit)), ack));
+
+    verify(ack, never()).acknowledge();
+  }
+
+  @Test
+  void testListenBatch_withDepositTransferEvent() {
     TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
     transferEvent.setDebitCardNumber("1234");
     transferEvent.setType("DEPOSIT_DEBIT_CARD");
@@ -88,8 +299,11 @@ class KafkaConsumerConfigTest {
     when(accountService.accountTransfer("1", "2", BigDecimal.ONE))
         .thenReturn(Mono.just(AccountTransactionsResponse.builder()
             .balanceAfterMovement(BigDecimal.TEN).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
 
-    kafkaConsumerConfig.listenTopic(transferEvent);
+    verify(ack, times(1)).acknowledge();
 
     StepVerifier.create(debitCardService.findByCardNumber("1234"))
         .expectNext(debitCard)
@@ -109,7 +323,7 @@ class KafkaConsumerConfigTest {
   }
 
   @Test
-  void testListenTopic_withWithdrawTransferEvent() {
+  void testListenBatch_withWithdrawTransferEvent() {
     TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
     transferEvent.setDebitCardNumber("1234");
     transferEvent.setType("WITHDRAW_DEBIT_CARD");
@@ -122,8 +336,11 @@ class KafkaConsumerConfigTest {
     when(accountService.accountTransfer("1", "2", BigDecimal.ONE))
         .thenReturn(Mono.just(AccountTransactionsResponse.builder()
             .balanceAfterMovement(BigDecimal.TEN).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
 
-    kafkaConsumerConfig.listenTopic(transferEvent);
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
 
     StepVerifier.create(debitCardService.findByCardNumber("1234"))
         .expectNext(debitCard)
@@ -143,7 +360,37 @@ class KafkaConsumerConfigTest {
   }
 
   @Test
-  void testListenTopic_withInvalidTransferEvent() {
+  void testListenBatch_withUnknownTransferOutcome_publishesPendingEvent() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("WITHDRAW_DEBIT_CARD");
+    transferEvent.setAccountId("1");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.ONE);
+
+    DebitCard debitCard = DebitCard.builder().mainAccountId("2").build();
+    when(debitCardService.findByCardNumber("1234")).thenReturn(Mono.just(debitCard));
+    when(accountService.accountTransfer("1", "2", BigDecimal.ONE))
+        .thenReturn(Mono.error(new TransferOutcomeUnknownException(
+            "Outcome of transfer transId is unknown", new IOException("Connection reset"))));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
+
+    ArgumentCaptor<DebitCardTransactionEvent> captor =
+        ArgumentCaptor.forClass(DebitCardTransactionEvent.class);
+    verify(debitCardService, times(1)).sendKafkaMessage(captor.capture());
+
+    DebitCardTransactionEvent event = captor.getValue();
+    assertEquals("TRANSACTION_PENDING", event.getType());
+    assertEquals("pending", event.getStatus());
+    assertEquals(BigDecimal.ONE, event.getAmount());
+  }
+
+  @Test
+  void testListenBatch_withInvalidTransferEvent() {
     TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
     transferEvent.setDebitCardNumber("1234");
     transferEvent.setType("INVALID_TYPE");
@@ -152,8 +399,11 @@ class KafkaConsumerConfigTest {
     transferEvent.setAmount(BigDecimal.ONE);
 
     when(debitCardService.findByCardNumber("1234")).thenReturn(Mono.empty());
+    Acknowledgment ack = mock(Acknowledgment.class);
 
-    kafkaConsumerConfig.listenTopic(transferEvent);
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
 
     verify(debitCardService, times(1)).findByCardNumber("1234");
 
@@ -168,10 +418,206 @@ class KafkaConsumerConfigTest {
   }
 
   @Test
-  void testListenTopic_withInvalidEvent() {
+  void testListenBatch_withTransferRejectedByLimits() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("WITHDRAW_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.valueOf(5000));
+
+    when(debitCardService.findByCardNumber("1234"))
+        .thenReturn(Mono.just(DebitCard.builder().mainAccountId("1").build()));
+    when(limitEngine.authorize(eq(transferEvent), any(DebitCard.class), eq("2")))
+        .thenReturn(Mono.error(
+            new IllegalArgumentException("Amount exceeds the maximum withdraw amount")));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
+
+    verifyNoInteractions(accountService);
+    ArgumentCaptor<DebitCardTransactionEvent> captor =
+        ArgumentCaptor.forClass(DebitCardTransactionEvent.class);
+    verify(debitCardService, times(1)).sendKafkaMessage(captor.capture());
+    assertEquals("TRANSACTION_FAILED", captor.getValue().getType());
+    assertEquals("Amount exceeds the maximum withdraw amount",
+        captor.getValue().getDescription());
+  }
+
+  @Test
+  void testListenBatch_withDepositPaidFromLinkedAccount() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("DEPOSIT_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.TEN);
+
+    DebitCard debitCard = DebitCard.builder().mainAccountId("1").linkedAccounts(Set.of("3"))
+        .build();
+    when(debitCardService.findByCardNumber("1234")).thenReturn(Mono.just(debitCard));
+    when(fundingAccountSelector.select(debitCard, BigDecimal.TEN)).thenReturn(Mono.just("3"));
+    when(accountService.accountTransfer("3", "2", BigDecimal.TEN))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder()
+            .balanceAfterMovement(BigDecimal.ONE).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
+
+    verify(limitEngine, times(1)).authorize(transferEvent, debitCard, "3");
+    verify(accountService, never()).accountTransfer(eq("1"), anyString(), any());
+    ArgumentCaptor<DebitCardTransactionEvent> captor =
+        ArgumentCaptor.forClass(DebitCardTransactionEvent.class);
+    verify(debitCardService, times(1)).sendKafkaMessage(captor.capture());
+    assertEquals("completed", captor.getValue().getStatus());
+  }
+
+  @Test
+  void testListenBatch_withDuplicateTransferEvent() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("DEPOSIT_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.ONE);
+
+    when(idempotencyStore.tryAcquire("transId", "1234"))
+        .thenReturn(Mono.just(TransferIdempotencyStore.Claim.DUPLICATE));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
+
+    verifyNoInteractions(accountService);
+    verify(debitCardService, never()).findByCardNumber(anyString());
+    verify(debitCardService, never()).sendKafkaMessage(any());
+    verify(idempotencyStore, never()).complete(any(), any());
+    verify(ledger, never()).record(any(), any());
+    verify(aggregates, never()).apply(any());
+    assertEquals(1, meterRegistry.get("debitcard.transfer.latency")
+        .tags("type", "DEPOSIT_DEBIT_CARD", "outcome", "duplicate").timer().count());
+  }
+
+  @Test
+  void testListenBatch_withTransferClaimedByAnotherDelivery_failsWithoutAcknowledging() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("DEPOSIT_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.ONE);
+
+    when(idempotencyStore.tryAcquire("transId", "1234")).thenReturn(Mono.error(
+        new IllegalStateException("Transfer transId is still being processed")));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    assertThrows(IllegalStateException.class,
+        () -> kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack));
+
+    verify(ack, never()).acknowledge();
+    verifyNoInteractions(accountService);
+  }
+
+  @Test
+  void testListenBatch_withStoredResult_publishesWithoutTransferringAgain() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("DEPOSIT_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.ONE);
+
+    when(idempotencyStore.tryAcquire("transId", "1234")).thenReturn(Mono.just(
+        new TransferIdempotencyStore.Claim(true, ProcessedTransfer.TransferResult.builder()
+            .type("DEPOSIT_DEBIT_CARD")
+            .status("completed")
+            .balanceUpdated(BigDecimal.TEN)
+            .build())));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
+
+    verifyNoInteractions(accountService);
+    verify(debitCardService, never()).findByCardNumber(anyString());
+    ArgumentCaptor<DebitCardTransactionEvent> captor =
+        ArgumentCaptor.forClass(DebitCardTransactionEvent.class);
+    verify(debitCardService, times(1)).sendKafkaMessage(captor.capture());
+    assertEquals("transId", captor.getValue().getTransId());
+    assertEquals(BigDecimal.TEN, captor.getValue().getBalanceUpdated());
+    verify(idempotencyStore, times(1)).complete("transId", "completed");
+  }
+
+  @Test
+  void testListenBatch_withFailedOutboxWrite_releasesTheClaim() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("DEPOSIT_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.ONE);
+
+    when(debitCardService.findByCardNumber("1234"))
+        .thenReturn(Mono.just(DebitCard.builder().mainAccountId("1").build()));
+    when(accountService.accountTransfer("1", "2", BigDecimal.ONE))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder()
+            .balanceAfterMovement(BigDecimal.TEN).build()));
+    when(debitCardService.sendKafkaMessage(any()))
+        .thenReturn(Mono.error(new IllegalStateException("outbox unavailable")));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    assertThrows(IllegalStateException.class,
+        () -> kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack));
+
+    verify(idempotencyStore, times(1)).recordResult(eq("transId"),
+        any(DebitCardTransactionEvent.class));
+    verify(idempotencyStore, times(1)).release("transId");
+    verify(ack, never()).acknowledge();
+  }
+
+  @Test
+  void testListenBatch_recordsCompletedTransfer() {
+    TransferDebitCardEvent transferEvent = new TransferDebitCardEvent();
+    transferEvent.setDebitCardNumber("1234");
+    transferEvent.setType("DEPOSIT_DEBIT_CARD");
+    transferEvent.setAccountId("2");
+    transferEvent.setTransactionId("transId");
+    transferEvent.setAmount(BigDecimal.ONE);
+
+    when(debitCardService.findByCardNumber("1234"))
+        .thenReturn(Mono.just(DebitCard.builder().mainAccountId("1").build()));
+    when(accountService.accountTransfer("1", "2", BigDecimal.ONE))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder()
+            .balanceAfterMovement(BigDecimal.TEN).build()));
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(List.of(consumerRecord(0, transferEvent)), ack);
+
+    verify(ack, times(1)).acknowledge();
+
+    verify(idempotencyStore, times(1)).complete("transId", "completed");
+    verify(ledger, times(1)).record(eq(transferEvent), any(DebitCardTransactionEvent.class));
+    verify(aggregates, times(1)).apply(argThat(event -> "completed".equals(event.getStatus())));
+    verify(transactionalOperator, times(1)).transactional(any(Mono.class));
+    assertEquals(1, meterRegistry.get("debitcard.transfer.latency")
+        .tags("type", "DEPOSIT_DEBIT_CARD", "outcome", "completed").timer().count());
+  }
+
+  @Test
+  void testListenBatch_withInvalidEvent() {
     GenericEvent<?> invalidEvent = mock(GenericEvent.class);
+    Acknowledgment ack = mock(Acknowledgment.class);
+
+    kafkaConsumerConfig.listenBatch(
+        List.of(consumerRecord(0, (GenericEvent<? extends GenericEvent>) invalidEvent)), ack);
 
-    kafkaConsumerConfig.listenTopic((GenericEvent<? extends GenericEvent>) invalidEvent);
+    verify(ack, times(1)).acknowledge();
 
     // No interactions should occur for invalid event
     verifyNoInteractions(debitCardService);
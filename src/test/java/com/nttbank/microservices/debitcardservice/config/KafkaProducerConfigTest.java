@@ -0,0 +1,39 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+class KafkaProducerConfigTest {
+
+  @Test
+  void testThroughputProfileBatchesAndCompresses() {
+    Map<String, Object> properties =
+        KafkaProducerConfig.profileProperties(KafkaProducerConfig.PROFILE_THROUGHPUT);
+
+    assertEquals(20, properties.get(ProducerConfig.LINGER_MS_CONFIG));
+    assertEquals(131072, properties.get(ProducerConfig.BATCH_SIZE_CONFIG));
+    assertEquals("lz4", properties.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    assertEquals("all", properties.get(ProducerConfig.ACKS_CONFIG));
+    assertEquals(true, properties.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+  }
+
+  @Test
+  void testLowLatencyProfileSendsImmediately() {
+    Map<String, Object> properties =
+        KafkaProducerConfig.profileProperties(KafkaProducerConfig.PROFILE_LOW_LATENCY);
+
+    assertEquals(0, properties.get(ProducerConfig.LINGER_MS_CONFIG));
+    assertEquals("none", properties.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    assertEquals(true, properties.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+  }
+
+  @Test
+  void testUnknownProfileIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> KafkaProducerConfig.profileProperties("fastest"));
+  }
+
+}
@@ -0,0 +1,57 @@
+package com.nttbank.microservices.debitcardservice.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class MongoIndexConfigTest {
+
+  private ReactiveIndexOperations indexOps;
+  private MongoIndexConfig config;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    indexOps = mock(ReactiveIndexOperations.class);
+    when(template.indexOps(any(Class.class))).thenReturn(indexOps);
+    when(template.getCollectionName(any())).thenReturn("collection");
+    when(indexOps.ensureIndex(any(IndexDefinition.class))).thenReturn(Mono.just("index"));
+    when(indexOps.getIndexInfo()).thenReturn(Flux.empty());
+
+    config = new MongoIndexConfig(template, new MongoMappingContext());
+    setPrivateField("failOnError", true);
+    setPrivateField("timeout", Duration.ofSeconds(5));
+  }
+
+  @Test
+  void start_ShouldFailTheStartupWhenIndexesAreMissing() {
+    IllegalStateException error = assertThrows(IllegalStateException.class, config::start);
+
+    assertTrue(error.getMessage().startsWith("MongoDB index verification failed"));
+    assertFalse(config.isRunning());
+    verify(indexOps, atLeastOnce()).ensureIndex(any(IndexDefinition.class));
+  }
+
+  @Test
+  void getPhase_ShouldRunBeforeTheKafkaListenerContainers() {
+    assertTrue(config.getPhase() < AbstractMessageListenerContainer.DEFAULT_PHASE);
+  }
+
+  private void setPrivateField(String fieldName, Object value) throws Exception {
+    Field field = MongoIndexConfig.class.getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(config, value);
+  }
+
+}
@@ -4,9 +4,17 @@ import static org.hamcrest.Matchers.hasItem;
 
 import com.nttbank.microservices.debitcardservice.mapper.DebitCardMapper;
 import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardTransactions;
 import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse;
+import com.nttbank.microservices.debitcardservice.service.CardAggregateStore;
+import com.nttbank.microservices.debitcardservice.service.DebitCardBulkService;
 import com.nttbank.microservices.debitcardservice.service.DebitCardService;
+import com.nttbank.microservices.debitcardservice.service.TransactionLedger;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +36,15 @@ class DebitCardControllerTest {
   @Mock
   private DebitCardMapper mapper;
 
+  @Mock
+  private DebitCardBulkService bulkService;
+
+  @Mock
+  private TransactionLedger ledger;
+
+  @Mock
+  private CardAggregateStore aggregates;
+
   WebTestClient client;
 
   private static final String BASE_URL = "/debitcards";
@@ -39,7 +56,8 @@ class DebitCardControllerTest {
 
   @BeforeEach
   void setUp() {
-    client = WebTestClient.bindToController(new DebitCardController(service, mapper))
+    client = WebTestClient.bindToController(new DebitCardController(service, mapper, bulkService,
+        ledger, aggregates))
         .build();
     debitCard = DebitCard.builder()
         .id("1234")
@@ -68,7 +86,7 @@ class DebitCardControllerTest {
 
   @Test
   void findById_ShouldReturnDebitCard() {
-    Mockito.when(service.findAll()).thenReturn(Flux.just(debitCard));
+    Mockito.when(service.findPage(null, 100, null)).thenReturn(Flux.just(debitCard));
 
     client.get().uri(BASE_URL)
         .accept(MediaType.APPLICATION_JSON)
@@ -76,10 +94,38 @@ class DebitCardControllerTest {
         .expectStatus()
         .isOk()
         .expectHeader().contentType(MediaType.APPLICATION_JSON)
+        .expectHeader().doesNotExist("X-Next-Cursor")
         .expectBodyList(DebitCard.class)
         .hasSize(1).contains(debitCard);
 
-    Mockito.verify(service, Mockito.times(1)).findAll();
+    Mockito.verify(service, Mockito.times(1)).findPage(null, 100, null);
+  }
+
+  @Test
+  void findAll_ShouldReturnNextCursorWhenPageIsFull() {
+    Mockito.when(service.findPage("1000", 1, Set.of("cardNumber")))
+        .thenReturn(Flux.just(debitCard));
+
+    client.get().uri(BASE_URL + "?after=1000&size=1&fields=cardNumber")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals("X-Next-Cursor", "1234")
+        .expectBodyList(DebitCard.class)
+        .hasSize(1);
+  }
+
+  @Test
+  void streamAll_ShouldStreamNdjson() {
+    Mockito.when(service.findPage(null, 0, null)).thenReturn(Flux.just(debitCard));
+
+    client.get().uri(BASE_URL)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(DebitCard.class)
+        .hasSize(1).contains(debitCard);
   }
 
   @Test
@@ -104,6 +150,22 @@ class DebitCardControllerTest {
     Mockito.verify(service, Mockito.times(1)).save(Mockito.any(DebitCard.class));
   }
 
+  @Test
+  void bulkSave_ShouldStreamOneResultPerRecord() {
+    Mockito.when(bulkService.issue(Mockito.any())).thenReturn(Flux.just(
+        BulkIssueResponse.builder().index(0).id("1234").status("created").build(),
+        BulkIssueResponse.builder().index(1).status("rejected").build()));
+
+    client.post().uri(BASE_URL + "/bulk")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .body(Flux.just(debitCardRecord, debitCardRecord), DebitCardRecord.class)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(BulkIssueResponse.class)
+        .hasSize(2);
+  }
+
   @Test
   void addLinkedAccount_ShouldAddAccountToDebitCard() {
     String debitCardId = "1234";
@@ -172,4 +234,90 @@ class DebitCardControllerTest {
     Mockito.verify(service, Mockito.times(1)).removeLinkedAccount(debitCardId, accountId);
   }
 
-}
\ No newline at end of file
+  @Test
+  void findTransactions_ShouldReturnNextCursorWhenPageIsFull() {
+    LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+    LocalDateTime to = LocalDateTime.of(2024, 3, 1, 0, 0);
+    DebitCardTransactions transaction = DebitCardTransactions.builder()
+        .id("65a0000000000000000000ff")
+        .debitCardNumber(debitCard.getCardNumber())
+        .month("2024-02")
+        .status("completed")
+        .build();
+    Mockito.when(service.findById("1234")).thenReturn(Mono.just(debitCard));
+    Mockito.when(ledger.findPage(debitCard.getCardNumber(), from, to, null, 1))
+        .thenReturn(Flux.just(transaction));
+
+    client.get().uri(BASE_URL + "/1234/transactions?from=2024-01-01T00:00:00"
+            + "&to=2024-03-01T00:00:00&size=1")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals("X-Next-Cursor", "65a0000000000000000000ff")
+        .expectBodyList(DebitCardTransactions.class)
+        .hasSize(1).contains(transaction);
+  }
+
+  @Test
+  void findTransactions_ShouldReturnNotFoundForUnknownCard() {
+    Mockito.when(service.findById("9999")).thenReturn(Mono.empty());
+
+    client.get().uri(BASE_URL + "/9999/transactions")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isNotFound();
+
+    Mockito.verifyNoInteractions(ledger);
+  }
+
+  @Test
+  void findAggregates_ShouldReturnMonthlyTotals() {
+    DebitCardAggregate aggregate = DebitCardAggregate.builder()
+        .id(debitCard.getCardNumber() + ":2024-02")
+        .debitCardNumber(debitCard.getCardNumber())
+        .granularity(DebitCardAggregate.MONTH)
+        .period("2024-02")
+        .withdrawCount(3)
+        .build();
+    Mockito.when(service.findById("1234")).thenReturn(Mono.just(debitCard));
+    Mockito.when(aggregates.findRange(debitCard.getCardNumber(), DebitCardAggregate.MONTH,
+        "2024-01", "2024-03")).thenReturn(Flux.just(aggregate));
+
+    client.get().uri(BASE_URL + "/1234/aggregates?granularity=month&from=2024-01&to=2024-03")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(DebitCardAggregate.class)
+        .hasSize(1).contains(aggregate);
+  }
+
+  @Test
+  void findCurrentAggregates_ShouldReadTheWindowOfTheCurrentDayAndMonth() {
+    LocalDate today = LocalDate.now();
+    DebitCardAggregate day = DebitCardAggregate.builder()
+        .debitCardNumber(debitCard.getCardNumber())
+        .granularity(DebitCardAggregate.DAY)
+        .period(today.toString())
+        .depositCount(1)
+        .build();
+    DebitCardAggregate month = day.toBuilder()
+        .granularity(DebitCardAggregate.MONTH)
+        .period(YearMonth.from(today).toString())
+        .build();
+    Mockito.when(service.findById("1234")).thenReturn(Mono.just(debitCard));
+    Mockito.when(aggregates.findCachedDay(debitCard.getCardNumber(), today))
+        .thenReturn(Mono.just(day));
+    Mockito.when(aggregates.findCachedMonth(debitCard.getCardNumber(), YearMonth.from(today)))
+        .thenReturn(Mono.just(month));
+
+    client.get().uri(BASE_URL + "/1234/aggregates/current")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(DebitCardAggregate.class)
+        .containsExactly(day, month);
+
+    Mockito.verify(aggregates, Mockito.never()).findDay(Mockito.any(), Mockito.any());
+  }
+
+}
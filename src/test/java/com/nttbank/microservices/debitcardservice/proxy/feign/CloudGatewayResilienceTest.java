@@ -0,0 +1,191 @@
+package com.nttbank.microservices.debitcardservice.proxy.feign;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nttbank.microservices.debitcardservice.config.CloudGatewayResilienceProperties;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CloudGatewayResilienceTest {
+
+  private CloudGatewayResilienceProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    properties = new CloudGatewayResilienceProperties();
+    properties.setRetryBackoff(Duration.ofMillis(1));
+    properties.setTimeout(Duration.ofMillis(200));
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void decorate_ShouldRetryIdempotentCalls() {
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+    AtomicInteger attempts = new AtomicInteger();
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.FIND_BY_ID, true,
+            () -> attempts.incrementAndGet() < 3
+                ? Mono.error(new IOException("connection reset"))
+                : Mono.just("account")))
+        .expectNext("account")
+        .verifyComplete();
+
+    assertEquals(3, attempts.get());
+    assertEquals(2, meterRegistry.counter("debitcard.gateway.retries",
+        "operation", CloudGatewayResilience.FIND_BY_ID).count());
+    assertEquals(2, meterRegistry.get("debitcard.gateway.requests")
+        .tags("operation", CloudGatewayResilience.FIND_BY_ID, "outcome", "error").timer().count());
+    assertEquals(1, meterRegistry.get("debitcard.gateway.requests")
+        .tags("operation", CloudGatewayResilience.FIND_BY_ID, "outcome", "success").timer()
+        .count());
+  }
+
+  @Test
+  void decorate_ShouldNotRetryNonIdempotentCalls() {
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+    AtomicInteger attempts = new AtomicInteger();
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+            () -> {
+              attempts.incrementAndGet();
+              return Mono.error(new IOException("connection reset"));
+            }))
+        .expectErrorMatches(e -> e instanceof TransferOutcomeUnknownException
+            && e.getCause() instanceof IOException)
+        .verify();
+
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  void decorate_ShouldReportServerErrorsOfNonIdempotentCallsAsUnknownOutcomes() {
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+    FeignException badGateway = feignException(FeignException.class, 502);
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+            () -> Mono.error(badGateway)))
+        .expectErrorMatches(e -> e instanceof TransferOutcomeUnknownException
+            && e.getCause() == badGateway)
+        .verify();
+  }
+
+  @Test
+  void decorate_ShouldReportConnectionFailuresOfNonIdempotentCallsAsUnknownOutcomes() {
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+    RetryableException connectionReset = feignException(RetryableException.class, -1);
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+            () -> Mono.error(connectionReset)))
+        .expectErrorMatches(e -> e instanceof TransferOutcomeUnknownException
+            && e.getCause() == connectionReset)
+        .verify();
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+            () -> Mono.error(new IllegalStateException(new IOException("connection reset")))))
+        .expectError(TransferOutcomeUnknownException.class)
+        .verify();
+  }
+
+  @Test
+  void decorate_ShouldKeepDefiniteFailuresOfNonIdempotentCalls() {
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+    FeignException badRequest = feignException(FeignException.class, 400);
+    FeignException notImplemented = feignException(FeignException.class, 501);
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+            () -> Mono.error(badRequest)))
+        .expectErrorMatches(e -> e == badRequest)
+        .verify();
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER_BATCH, false,
+            () -> Mono.error(notImplemented)))
+        .expectErrorMatches(e -> e == notImplemented)
+        .verify();
+  }
+
+  @Test
+  void decorate_ShouldReportTimeoutsOfNonIdempotentCallsAsUnknownOutcomes() {
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.ACCOUNT_TRANSFER, false,
+            () -> Mono.just("transaction").delayElement(Duration.ofMillis(500))))
+        .expectErrorMatches(e -> e instanceof TransferOutcomeUnknownException
+            && e.getCause() instanceof TimeoutException)
+        .verify(Duration.ofSeconds(5));
+
+    assertEquals(1, meterRegistry.get("debitcard.gateway.requests")
+        .tags("operation", CloudGatewayResilience.ACCOUNT_TRANSFER, "outcome", "timeout").timer()
+        .count());
+  }
+
+  @Test
+  void decorate_ShouldStopRetryingWhenBudgetIsExhausted() {
+    properties.setRetryBudgetMaxTokens(1);
+    properties.setRetryBudgetRatio(0);
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+    AtomicInteger attempts = new AtomicInteger();
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.FIND_BY_ID, true,
+            () -> {
+              attempts.incrementAndGet();
+              return Mono.error(new IOException("connection reset"));
+            }))
+        .expectError(IOException.class)
+        .verify();
+
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  void decorate_ShouldTimeOutAndFailFastOnceTheCircuitIsOpen() {
+    properties.setMaxRetries(0);
+    properties.setSlidingWindowSize(2);
+    properties.setMinimumNumberOfCalls(2);
+    CloudGatewayResilience resilience = new CloudGatewayResilience(meterRegistry, properties);
+
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(resilience.decorate(CloudGatewayResilience.FIND_BY_ID, true,
+              Mono::never))
+          .expectError(TimeoutException.class)
+          .verify(Duration.ofSeconds(5));
+    }
+
+    StepVerifier.create(resilience.decorate(CloudGatewayResilience.FIND_BY_ID, true,
+            () -> Mono.just("never called")))
+        .expectError(CallNotPermittedException.class)
+        .verify();
+    assertEquals(1, meterRegistry.counter("debitcard.gateway.circuitbreaker.transitions",
+        "operation", CloudGatewayResilience.FIND_BY_ID, "from", "CLOSED", "to", "OPEN")
+        .count());
+  }
+
+  @Test
+  void retryBudget_ShouldRefillWithSuccessfulCalls() {
+    RetryBudget budget = new RetryBudget(0.5, 1);
+    assertTrue(budget.tryAcquire());
+    assertFalse(budget.tryAcquire());
+    budget.onSuccess();
+    budget.onSuccess();
+    assertTrue(budget.tryAcquire());
+  }
+
+  private static <T extends FeignException> T feignException(Class<T> type, int status) {
+    T exception = mock(type);
+    when(exception.status()).thenReturn(status);
+    return exception;
+  }
+}
@@ -6,19 +6,26 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.nttbank.microservices.debitcardservice.config.CloudGatewayResilienceProperties;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
 import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
 import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
 import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayFeign;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayResilience;
 import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 public class AccountServiceTests {
@@ -26,12 +33,21 @@ public class AccountServiceTests {
   @Mock
   private CloudGatewayFeign feignAccount;
 
-  @InjectMocks
   private AccountService accountService;
 
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
+    CloudGatewayResilienceProperties properties = new CloudGatewayResilienceProperties();
+    properties.setMaxRetries(0);
+    CloudGatewayResilience resilience =
+        new CloudGatewayResilience(new SimpleMeterRegistry(), properties);
+    accountService = new AccountService(feignAccount,
+        new AccountTransferBatcher(feignAccount, resilience, false, 50, Duration.ofMillis(5), 8,
+            Duration.ofMinutes(5)),
+        new AccountLookupCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1),
+            Duration.ofMinutes(1)),
+        resilience);
   }
 
   @Test
@@ -59,6 +75,7 @@ public class AccountServiceTests {
 
     when(feignAccount.accountTransfer(fromAccountId, toAccountId, amount)).thenReturn(
         Mono.error(feignException));
+    when(feignException.status()).thenReturn(400);
     when(feignException.contentUTF8()).thenReturn("{\"message\":\"Error occurred\"}");
 
     StepVerifier.create(accountService.accountTransfer(fromAccountId, toAccountId, amount))
@@ -68,6 +85,32 @@ public class AccountServiceTests {
     verify(feignAccount, times(1)).accountTransfer(fromAccountId, toAccountId, amount);
   }
 
+  @Test
+  public void testAccountTransfer_ShouldReportServerErrorsAsUnknownOutcomes() {
+    BigDecimal amount = BigDecimal.valueOf(100);
+    FeignException serviceUnavailable = mock(FeignException.class);
+    when(serviceUnavailable.status()).thenReturn(503);
+    when(feignAccount.accountTransfer("fromAccountId", "toAccountId", amount))
+        .thenReturn(Mono.error(serviceUnavailable));
+
+    StepVerifier.create(accountService.accountTransfer("fromAccountId", "toAccountId", amount))
+        .expectError(TransferOutcomeUnknownException.class)
+        .verify();
+  }
+
+  @Test
+  public void testAccountTransfer_ShouldReportConnectionFailuresAsUnknownOutcomes() {
+    BigDecimal amount = BigDecimal.valueOf(100);
+    RetryableException connectionReset = mock(RetryableException.class);
+    when(connectionReset.status()).thenReturn(-1);
+    when(feignAccount.accountTransfer("fromAccountId", "toAccountId", amount))
+        .thenReturn(Mono.error(connectionReset));
+
+    StepVerifier.create(accountService.accountTransfer("fromAccountId", "toAccountId", amount))
+        .expectError(TransferOutcomeUnknownException.class)
+        .verify();
+  }
+
   @Test
   public void testExtractMessageFromFeignException_IOException() {
     FeignException feignException = mock(FeignException.class);
@@ -120,4 +163,70 @@ public class AccountServiceTests {
 
     verify(feignAccount, times(1)).findById(accountId);
   }
+
+  @Test
+  public void testFindById_ShouldCoalesceConcurrentLookups() {
+    String accountId = "accountId";
+    BankAccountResponse response = BankAccountResponse.builder().id(accountId).build();
+    when(feignAccount.findById(accountId))
+        .thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(response));
+
+    StepVerifier.create(Flux.range(0, 10).flatMap(i -> accountService.findById(accountId)))
+        .expectNextCount(10)
+        .verifyComplete();
+
+    verify(feignAccount, times(1)).findById(accountId);
+  }
+
+  @Test
+  public void testFindById_ShouldCacheMissingAccounts() {
+    String accountId = "accountId";
+    FeignException feignException = mock(FeignException.class);
+    when(feignAccount.findById(accountId)).thenReturn(Mono.error(feignException));
+    when(feignException.status()).thenReturn(HttpStatus.NOT_FOUND.value());
+
+    StepVerifier.create(accountService.findById(accountId)).verifyComplete();
+    StepVerifier.create(accountService.findById(accountId)).verifyComplete();
+
+    verify(feignAccount, times(1)).findById(accountId);
+  }
+
+  @Test
+  public void testAccountTransfer_ShouldEvictCachedAccounts() {
+    BankAccountResponse response = BankAccountResponse.builder().id("fromAccountId").build();
+    when(feignAccount.findById("fromAccountId")).thenReturn(Mono.just(response));
+    when(feignAccount.accountTransfer("fromAccountId", "toAccountId", BigDecimal.ONE))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder().build()));
+
+    StepVerifier.create(accountService.findById("fromAccountId")).expectNext(response)
+        .verifyComplete();
+    StepVerifier.create(accountService.accountTransfer("fromAccountId", "toAccountId",
+        BigDecimal.ONE)).expectNextCount(1).verifyComplete();
+    StepVerifier.create(accountService.findById("fromAccountId")).expectNext(response)
+        .verifyComplete();
+
+    verify(feignAccount, times(2)).findById("fromAccountId");
+  }
+
+  @Test
+  public void testFindById_ShouldNotCacheLookupsStartedBeforeATransfer() {
+    BankAccountResponse before = BankAccountResponse.builder().balance(BigDecimal.TEN).build();
+    BankAccountResponse after = BankAccountResponse.builder().balance(BigDecimal.ONE).build();
+    Sinks.One<BankAccountResponse> inFlight = Sinks.one();
+    when(feignAccount.findById("fromAccountId"))
+        .thenReturn(inFlight.asMono(), Mono.just(after));
+    when(feignAccount.accountTransfer("fromAccountId", "toAccountId", BigDecimal.ONE))
+        .thenReturn(Mono.just(AccountTransactionsResponse.builder().build()));
+
+    Mono<BankAccountResponse> lookup = accountService.findById("fromAccountId").cache();
+    lookup.subscribe();
+    StepVerifier.create(accountService.accountTransfer("fromAccountId", "toAccountId",
+        BigDecimal.ONE)).expectNextCount(1).verifyComplete();
+    inFlight.tryEmitValue(before);
+
+    StepVerifier.create(lookup).expectNext(before).verifyComplete();
+    StepVerifier.create(accountService.findById("fromAccountId")).expectNext(after)
+        .verifyComplete();
+    verify(feignAccount, times(2)).findById("fromAccountId");
+  }
 }
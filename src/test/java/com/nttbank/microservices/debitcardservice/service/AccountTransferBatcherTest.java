@@ -0,0 +1,215 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nttbank.microservices.debitcardservice.config.CloudGatewayResilienceProperties;
+import com.nttbank.microservices.debitcardservice.exception.TransferOutcomeUnknownException;
+import com.nttbank.microservices.debitcardservice.model.request.AccountTransferRequest;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransactionsResponse;
+import com.nttbank.microservices.debitcardservice.model.response.AccountTransferBatchItemResponse;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayFeign;
+import com.nttbank.microservices.debitcardservice.proxy.feign.CloudGatewayResilience;
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class AccountTransferBatcherTest {
+
+  private AccountTransferBatcher batcher;
+
+  @AfterEach
+  void tearDown() {
+    batcher.shutdown();
+  }
+
+  private static CloudGatewayResilience resilience() {
+    return new CloudGatewayResilience(new SimpleMeterRegistry(),
+        new CloudGatewayResilienceProperties());
+  }
+
+  @Test
+  void submit_ShouldSendConcurrentTransfersAsOneBatch() {
+    StubAccountService stub = new StubAccountService(true);
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 10, Duration.ofMillis(50), 2,
+        Duration.ofMinutes(5));
+
+    List<AccountTransactionsResponse> responses = Flux.range(1, 10)
+        .flatMap(i -> batcher.submit("from-" + i, "to", BigDecimal.valueOf(i)))
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(10, responses.size());
+    assertEquals(1, stub.batchCalls.get());
+    assertEquals(0, stub.singleCalls.get());
+  }
+
+  @Test
+  void submit_ShouldFailOnlyTheRejectedTransferOfTheBatch() {
+    StubAccountService stub = new StubAccountService(true);
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 2, Duration.ofMillis(50), 2,
+        Duration.ofMinutes(5));
+
+    Mono<AccountTransactionsResponse> accepted = batcher.submit("from", "to", BigDecimal.ONE);
+    Mono<AccountTransactionsResponse> rejected = batcher.submit("from", "to", BigDecimal.ZERO);
+
+    StepVerifier.create(Flux.merge(accepted.map(r -> "ok"),
+            rejected.map(r -> "ok").onErrorReturn(IllegalArgumentException.class, "rejected")))
+        .expectNextCount(2)
+        .verifyComplete();
+    assertEquals(1, stub.batchCalls.get());
+  }
+
+  @Test
+  void submit_ShouldFallBackToSingleTransfersWhenBatchEndpointIsMissing() {
+    StubAccountService stub = new StubAccountService(false);
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 5, Duration.ofMillis(50), 2,
+        Duration.ofMinutes(5));
+
+    List<AccountTransactionsResponse> responses = Flux.range(1, 5)
+        .flatMap(i -> batcher.submit("from-" + i, "to", BigDecimal.valueOf(i)))
+        .collectList()
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(5, responses.size());
+    assertEquals(1, stub.batchCalls.get());
+    assertEquals(5, stub.singleCalls.get());
+  }
+
+  @Test
+  void submit_ShouldReportAnUnknownOutcomeWhenTheBatchResponseIsLost() {
+    StubAccountService stub = new StubAccountService(true);
+    stub.batchFailure = new IOException("Connection reset");
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 2, Duration.ofMillis(50), 2,
+        Duration.ofMinutes(5));
+
+    StepVerifier.create(Flux.merge(batcher.submit("from", "to", BigDecimal.ONE),
+            batcher.submit("from", "to", BigDecimal.TEN)))
+        .expectError(TransferOutcomeUnknownException.class)
+        .verify(Duration.ofSeconds(5));
+    assertEquals(0, stub.singleCalls.get());
+  }
+
+  @Test
+  void submit_ShouldFailTheBatchWhenTheAccountServiceRejectsIt() {
+    StubAccountService stub = new StubAccountService(true);
+    FeignException badRequest = mock(FeignException.class);
+    when(badRequest.status()).thenReturn(400);
+    stub.batchFailure = badRequest;
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 2, Duration.ofMillis(50), 2,
+        Duration.ofMinutes(5));
+
+    StepVerifier.create(Flux.merge(batcher.submit("from", "to", BigDecimal.ONE),
+            batcher.submit("from", "to", BigDecimal.TEN)))
+        .expectErrorMatches(e -> e == badRequest)
+        .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void submit_ShouldProbeTheBatchEndpointAgainAfterTheReprobeInterval() throws Exception {
+    StubAccountService stub = new StubAccountService(false);
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 2, Duration.ofMillis(50), 2,
+        Duration.ofMillis(100));
+
+    Flux.merge(batcher.submit("from", "to", BigDecimal.ONE),
+        batcher.submit("from", "to", BigDecimal.TEN)).blockLast(Duration.ofSeconds(5));
+    Flux.merge(batcher.submit("from", "to", BigDecimal.ONE),
+        batcher.submit("from", "to", BigDecimal.TEN)).blockLast(Duration.ofSeconds(5));
+    assertEquals(1, stub.batchCalls.get());
+
+    Thread.sleep(150);
+    Flux.merge(batcher.submit("from", "to", BigDecimal.ONE),
+        batcher.submit("from", "to", BigDecimal.TEN)).blockLast(Duration.ofSeconds(5));
+    assertEquals(2, stub.batchCalls.get());
+  }
+
+  @Test
+  void submit_ShouldKeepBatchingWhenMoreTransfersArriveThanBatchesInFlight() {
+    StubAccountService stub = new StubAccountService(true);
+    stub.batchDelay = Duration.ofMillis(20);
+    batcher = new AccountTransferBatcher(stub, resilience(), true, 5, Duration.ofMillis(1), 1,
+        Duration.ofMinutes(5));
+
+    List<AccountTransactionsResponse> responses = Flux.range(1, 200)
+        .flatMap(i -> batcher.submit("from-" + i, "to", BigDecimal.valueOf(i)))
+        .collectList()
+        .block(Duration.ofSeconds(10));
+
+    assertEquals(200, responses.size());
+    StepVerifier.create(batcher.submit("from", "to", BigDecimal.ONE))
+        .expectNextCount(1)
+        .verifyComplete();
+  }
+
+  /** Local stand-in for the account service behind the cloud gateway. */
+  private static final class StubAccountService implements CloudGatewayFeign {
+
+    private final boolean batchSupported;
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private Throwable batchFailure;
+    private Duration batchDelay = Duration.ZERO;
+
+    private StubAccountService(boolean batchSupported) {
+      this.batchSupported = batchSupported;
+    }
+
+    @Override
+    public Mono<AccountTransactionsResponse> accountTransfer(String fromAccountId,
+        String toAccountId, BigDecimal amount) {
+      singleCalls.incrementAndGet();
+      return Mono.just(transaction(fromAccountId, amount));
+    }
+
+    @Override
+    public Mono<List<AccountTransferBatchItemResponse>> accountTransferBatch(
+        List<AccountTransferRequest> transfers) {
+      batchCalls.incrementAndGet();
+      if (!batchSupported) {
+        FeignException notFound = mock(FeignException.class);
+        when(notFound.status()).thenReturn(404);
+        return Mono.error(notFound);
+      }
+      if (batchFailure != null) {
+        return Mono.error(batchFailure);
+      }
+      return Mono.delay(batchDelay).then(Mono.just(transfers.stream()
+          .map(transfer -> transfer.getAmount().signum() > 0
+              ? AccountTransferBatchItemResponse.builder()
+                  .requestId(transfer.getRequestId())
+                  .status(200)
+                  .transaction(transaction(transfer.getFromAccountId(), transfer.getAmount()))
+                  .build()
+              : AccountTransferBatchItemResponse.builder()
+                  .requestId(transfer.getRequestId())
+                  .status(400)
+                  .message("Invalid amount")
+                  .build())
+          .toList()));
+    }
+
+    @Override
+    public Mono<BankAccountResponse> findById(String accountId) {
+      return Mono.empty();
+    }
+
+    private AccountTransactionsResponse transaction(String accountId, BigDecimal amount) {
+      return AccountTransactionsResponse.builder()
+          .accountId(accountId)
+          .amount(amount)
+          .balanceAfterMovement(BigDecimal.TEN)
+          .build();
+    }
+  }
+}
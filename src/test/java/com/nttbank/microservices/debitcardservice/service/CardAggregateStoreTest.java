@@ -0,0 +1,138 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CardAggregateStoreTest {
+
+  private ReactiveMongoTemplate template;
+  private CardAggregateStore store;
+
+  @BeforeEach
+  void setUp() {
+    template = mock(ReactiveMongoTemplate.class);
+    store = new CardAggregateStore(template, new SimpleMeterRegistry(), 100,
+        Duration.ofMinutes(1));
+  }
+
+  @Test
+  void apply_ShouldIncrementDayAndMonthAndEvictTheWindow() {
+    LocalDate today = LocalDate.now();
+    String dayId = DebitCardAggregate.dayId("1234", today);
+    DebitCardAggregate before = DebitCardAggregate.builder().id(dayId).withdrawCount(1).build();
+    DebitCardAggregate day = DebitCardAggregate.builder()
+        .id(dayId)
+        .withdrawCount(2)
+        .withdrawAmount(BigDecimal.valueOf(30))
+        .build();
+    DebitCardAggregate month = DebitCardAggregate.builder()
+        .id(DebitCardAggregate.monthId("1234", YearMonth.from(today)))
+        .withdrawCount(5)
+        .build();
+    when(template.findById(dayId, DebitCardAggregate.class))
+        .thenReturn(Mono.just(before), Mono.just(day));
+    when(template.findAndModify(any(Query.class), any(Update.class),
+        any(FindAndModifyOptions.class), eq(DebitCardAggregate.class)))
+        .thenReturn(Mono.just(day), Mono.just(month));
+
+    StepVerifier.create(store.findCachedDay("1234", today))
+        .expectNext(before)
+        .verifyComplete();
+    StepVerifier.create(store.apply(event("WITHDRAW_DEBIT_CARD", "completed")))
+        .verifyComplete();
+
+    ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+    verify(template, times(2)).findAndModify(any(Query.class), captor.capture(),
+        any(FindAndModifyOptions.class), eq(DebitCardAggregate.class));
+    Document inc = captor.getValue().getUpdateObject().get("$inc", Document.class);
+    assertEquals(1, inc.get("withdrawCount"));
+    assertEquals(new Decimal128(BigDecimal.TEN), inc.get("withdrawAmount"));
+
+    StepVerifier.create(store.findCachedDay("1234", today))
+        .assertNext(aggregate -> assertEquals(2, aggregate.getWithdrawCount()))
+        .verifyComplete();
+    verify(template, times(2)).findById(dayId, DebitCardAggregate.class);
+  }
+
+  @Test
+  void apply_ShouldIgnoreFailedTransfers() {
+    StepVerifier.create(store.apply(event("TRANSACTION_FAILED", "error")))
+        .verifyComplete();
+
+    verifyNoInteractions(template);
+  }
+
+  @Test
+  void findDay_ShouldReturnZeroTotalsForCardsWithoutTransfers() {
+    when(template.findById(any(), eq(DebitCardAggregate.class))).thenReturn(Mono.empty());
+    LocalDate day = LocalDate.of(2024, 2, 1);
+
+    StepVerifier.create(store.findDay("1234", day))
+        .assertNext(aggregate -> {
+          assertEquals("1234:2024-02-01", aggregate.getId());
+          assertEquals(0, aggregate.totalCount());
+          assertEquals(BigDecimal.ZERO, aggregate.getWithdrawAmount());
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void findDay_ShouldAlwaysReadTheStoredTotals() {
+    LocalDate day = LocalDate.of(2024, 2, 1);
+    when(template.findById("1234:2024-02-01", DebitCardAggregate.class))
+        .thenReturn(Mono.just(DebitCardAggregate.builder().depositCount(1).build()),
+            Mono.just(DebitCardAggregate.builder().depositCount(2).build()));
+
+    StepVerifier.create(store.findCachedDay("1234", day))
+        .assertNext(aggregate -> assertEquals(1, aggregate.getDepositCount()))
+        .verifyComplete();
+    StepVerifier.create(store.findDay("1234", day))
+        .assertNext(aggregate -> assertEquals(2, aggregate.getDepositCount()))
+        .verifyComplete();
+  }
+
+  @Test
+  void findCachedDay_ShouldLoadEachAggregateOnce() {
+    when(template.findById(any(), eq(DebitCardAggregate.class))).thenReturn(Mono.empty());
+    LocalDate day = LocalDate.of(2024, 2, 1);
+
+    StepVerifier.create(store.findCachedDay("1234", day))
+        .expectNextCount(1)
+        .verifyComplete();
+    StepVerifier.create(store.findCachedDay("1234", day))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    verify(template, times(1)).findById("1234:2024-02-01", DebitCardAggregate.class);
+  }
+
+  private static DebitCardTransactionEvent event(String type, String status) {
+    return DebitCardTransactionEvent.builder()
+        .type(type)
+        .status(status)
+        .debitCardNumber("1234")
+        .amount(BigDecimal.TEN)
+        .balanceUpdated(BigDecimal.valueOf(90))
+        .build();
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CardLaneExecutorTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private CardLaneExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    executor = new CardLaneExecutor(meterRegistry, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  void submit_ShouldRunWorkForSameCardInOrder() {
+    List<Integer> executed = new CopyOnWriteArrayList<>();
+
+    Flux.range(0, 20)
+        .flatMap(i -> executor.submit("1234", () -> Mono.delay(Duration.ofMillis(20 - i))
+            .doOnNext(tick -> executed.add(i))
+            .thenReturn(i)), 20)
+        .blockLast(Duration.ofSeconds(5));
+
+    assertEquals(Flux.range(0, 20).collectList().block(), executed);
+  }
+
+  @Test
+  void submit_ShouldPropagateErrorsAndKeepLaneRunning() {
+    StepVerifier.create(executor.submit("1234",
+            () -> Mono.error(new IllegalArgumentException("boom"))))
+        .expectError(IllegalArgumentException.class)
+        .verify(Duration.ofSeconds(5));
+
+    StepVerifier.create(executor.submit("1234", () -> Mono.just("ok")))
+        .expectNext("ok")
+        .verifyComplete();
+
+    StepVerifier.create(executor.submit("1234", Mono::<String>empty))
+        .verifyComplete();
+  }
+
+  @Test
+  void queueDepth_ShouldBePublishedPerLane() {
+    assertEquals(4, executor.laneCount());
+    assertNotNull(meterRegistry.find("debitcard.transfer.lane.queue.depth")
+        .tag("lane", "3").gauge());
+    assertEquals(0, executor.queueDepth(executor.laneIndex("1234")));
+  }
+
+  @Test
+  void namedExecutors_ShouldPublishTheirGaugesUnderTheirPool() {
+    CardLaneExecutor withdraw = new CardLaneExecutor(meterRegistry, "withdraw", 2);
+    try {
+      assertNotNull(meterRegistry.find("debitcard.transfer.lane.queue.depth")
+          .tags("pool", "withdraw", "lane", "1").gauge());
+      assertNotNull(meterRegistry.find("debitcard.transfer.lane.queue.depth")
+          .tags("pool", "default", "lane", "3").gauge());
+    } finally {
+      withdraw.shutdown();
+    }
+  }
+}
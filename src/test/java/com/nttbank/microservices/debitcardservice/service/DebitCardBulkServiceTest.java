@@ -0,0 +1,145 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse.STATUS_CREATED;
+import static com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse.STATUS_FAILED;
+import static com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse.STATUS_REJECTED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttbank.microservices.debitcardservice.mapper.DebitCardMapper;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.record.DebitCardRecord;
+import com.nttbank.microservices.debitcardservice.model.response.BulkIssueResponse;
+import jakarta.validation.Validation;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DebitCardBulkServiceTest {
+
+  private ReactiveMongoTemplate template;
+  private MongoCollection<Document> collection;
+  private final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    template = mock(ReactiveMongoTemplate.class);
+    collection = mock(MongoCollection.class);
+    when(template.getConverter()).thenReturn(mock(MongoConverter.class));
+    when(template.getCollectionName(DebitCard.class)).thenReturn("debit_cards");
+    when(template.getCollection("debit_cards")).thenReturn(Mono.just(collection));
+  }
+
+  @Test
+  void issue_ShouldRejectInvalidRecordsWithoutWritingThem() {
+    StepVerifier.create(service(10).issue(Flux.just(cardRecord("1111", null))))
+        .assertNext(result -> {
+          assertEquals(0, result.getIndex());
+          assertEquals(STATUS_REJECTED, result.getStatus());
+          assertNull(result.getId());
+          assertTrue(result.getErrors().contains("Customer ID cannot be null"));
+        })
+        .verifyComplete();
+
+    verify(template, never()).getCollection(anyString());
+  }
+
+  @Test
+  void issue_ShouldOnlyFailTheRecordsOfTheWriteErrors() {
+    insertManyFails(new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+        List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)),
+        null, new ServerAddress(), Set.of()));
+
+    StepVerifier.create(service(10).issue(Flux.just(cardRecord("1111", "customer"),
+            cardRecord("2222", null), cardRecord("3333", "customer"))))
+        .assertNext(result -> {
+          assertEquals(STATUS_CREATED, result.getStatus());
+          assertNotNull(result.getId());
+          assertNotNull(result.getMainAccountId());
+        })
+        .assertNext(result -> assertEquals(STATUS_REJECTED, result.getStatus()))
+        .assertNext(result -> {
+          assertEquals(2, result.getIndex());
+          assertEquals("3333", result.getCardNumber());
+          assertEquals(STATUS_FAILED, result.getStatus());
+          assertNull(result.getId());
+          assertNull(result.getMainAccountId());
+          assertEquals(List.of("E11000 duplicate key"), result.getErrors());
+        })
+        .verifyComplete();
+
+    assertEquals(List.of(2), chunkSizes);
+  }
+
+  @Test
+  void issue_ShouldFailTheWholeChunkWhenTheBulkInsertFails() {
+    insertManyFails(new IllegalStateException("connection reset"));
+
+    StepVerifier.create(service(10).issue(Flux.just(cardRecord("1111", "customer"),
+            cardRecord("2222", "customer")))
+            .map(BulkIssueResponse::getStatus))
+        .expectNext(STATUS_FAILED, STATUS_FAILED)
+        .verifyComplete();
+
+    assertEquals(List.of(2), chunkSizes);
+  }
+
+  @Test
+  void issue_ShouldWriteOneBulkInsertPerChunkAndKeepTheRecordOrder() {
+    AtomicInteger calls = new AtomicInteger();
+    when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenAnswer(invocation -> {
+      chunkSizes.add(invocation.<List<?>>getArgument(0).size());
+      Duration delay = Duration.ofMillis(calls.getAndIncrement() == 0 ? 200 : 0);
+      return Mono.just(mock(InsertManyResult.class)).delayElement(delay);
+    });
+
+    StepVerifier.create(service(2).issue(Flux.range(0, 5)
+            .map(i -> cardRecord(String.valueOf(i), "customer")))
+            .map(BulkIssueResponse::getIndex))
+        .expectNext(0L, 1L, 2L, 3L, 4L)
+        .verifyComplete();
+
+    assertEquals(List.of(2, 2, 1), chunkSizes);
+  }
+
+  private DebitCardBulkService service(int chunkSize) {
+    return new DebitCardBulkService(template, DebitCardMapper.INSTANCE,
+        Validation.buildDefaultValidatorFactory().getValidator(), chunkSize, 4);
+  }
+
+  private void insertManyFails(Throwable error) {
+    when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenAnswer(invocation -> {
+      chunkSizes.add(invocation.<List<?>>getArgument(0).size());
+      return Mono.error(error);
+    });
+  }
+
+  private static DebitCardRecord cardRecord(String cardNumber, String customerId) {
+    return DebitCardRecord.builder()
+        .customerId(customerId)
+        .cardNumber(cardNumber)
+        .mainAccountId("main")
+        .build();
+  }
+
+}
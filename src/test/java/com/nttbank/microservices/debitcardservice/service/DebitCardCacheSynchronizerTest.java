@@ -0,0 +1,134 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.event.DebitCardChangedEvent;
+import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import reactor.core.publisher.Mono;
+
+@EmbeddedKafka(partitions = 1, topics = DebitCardCacheSynchronizerTest.TOPIC)
+class DebitCardCacheSynchronizerTest {
+
+  static final String TOPIC = "debitcard-card-changes-v1";
+
+  @Test
+  void cardChanged_ShouldEvictTheCachedCardOnOtherInstances(EmbeddedKafkaBroker broker)
+      throws Exception {
+    DebitCard debitCard = DebitCard.builder().id("card-1").cardNumber("1234").build();
+    AtomicInteger remoteLoads = new AtomicInteger();
+    DebitCardCache remoteCache = new DebitCardCache(new SimpleMeterRegistry(), 100,
+        Duration.ofMinutes(5));
+    DebitCardCacheSynchronizer remote = synchronizer(remoteCache, broker);
+    remoteCache.findByCardNumber("1234", n -> {
+      remoteLoads.incrementAndGet();
+      return Mono.just(debitCard);
+    }).block();
+
+    CountDownLatch received = new CountDownLatch(1);
+    KafkaMessageListenerContainer<String, DebitCardChangedEvent> container =
+        listenerContainer(broker, event -> {
+          remote.onCardChanged(event);
+          received.countDown();
+        });
+    container.start();
+    ContainerTestUtils.waitForAssignment(container, 1);
+
+    try {
+      DebitCardCacheSynchronizer local = synchronizer(
+          new DebitCardCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)), broker);
+      local.cardChanged(debitCard);
+
+      assertTrue(received.await(10, TimeUnit.SECONDS));
+      remoteCache.findByCardNumber("1234", n -> {
+        remoteLoads.incrementAndGet();
+        return Mono.just(debitCard);
+      }).block();
+      assertEquals(2, remoteLoads.get());
+    } finally {
+      container.stop();
+    }
+  }
+
+  @Test
+  void onCardChanged_ShouldIgnoreOwnNotifications(EmbeddedKafkaBroker broker) throws Exception {
+    DebitCard debitCard = DebitCard.builder().id("card-1").cardNumber("1234").build();
+    AtomicInteger loads = new AtomicInteger();
+    DebitCardCache cache = new DebitCardCache(new SimpleMeterRegistry(), 100,
+        Duration.ofMinutes(5));
+    DebitCardCacheSynchronizer synchronizer = synchronizer(cache, broker);
+    cache.findById("card-1", id -> {
+      loads.incrementAndGet();
+      return Mono.just(debitCard);
+    }).block();
+
+    synchronizer.onCardChanged(DebitCardChangedEvent.builder()
+        .cardId("card-1")
+        .cardNumber("1234")
+        .originInstanceId(synchronizer.getInstanceId())
+        .build());
+    cache.findById("card-1", id -> {
+      loads.incrementAndGet();
+      return Mono.just(debitCard);
+    }).block();
+
+    assertEquals(1, loads.get());
+  }
+
+  private DebitCardCacheSynchronizer synchronizer(DebitCardCache cache,
+      EmbeddedKafkaBroker broker) throws Exception {
+    Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+    producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+    KafkaTemplate<String, GenericEvent> template =
+        new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+
+    DebitCardCacheSynchronizer synchronizer =
+        new DebitCardCacheSynchronizer(cache, new KafkaUtil(template, new SimpleMeterRegistry()));
+    Field field = DebitCardCacheSynchronizer.class.getDeclaredField("topicName");
+    field.setAccessible(true);
+    field.set(synchronizer, TOPIC);
+    return synchronizer;
+  }
+
+  private KafkaMessageListenerContainer<String, DebitCardChangedEvent> listenerContainer(
+      EmbeddedKafkaBroker broker, Consumer<DebitCardChangedEvent> listener) {
+    Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("remote", "false", broker);
+    consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+    consumerProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.nttbank.microservices.*");
+
+    ContainerProperties containerProps = new ContainerProperties(TOPIC);
+    containerProps.setMessageListener(
+        (MessageListener<String, DebitCardChangedEvent>) rec -> listener.accept(rec.value()));
+    return new KafkaMessageListenerContainer<>(
+        new DefaultKafkaConsumerFactory<>(consumerProps), containerProps);
+  }
+}
@@ -5,16 +5,21 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.nttbank.microservices.commonlibrary.event.GenericEvent;
 import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.event.DebitCardChangedEvent;
 import com.nttbank.microservices.debitcardservice.service.impl.DebitCardImpl;
 import com.nttbank.microservices.debitcardservice.service.repository.IDebitCardRepo;
 import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 import reactor.test.StepVerifier;
 
@@ -26,12 +31,18 @@ public class DebitCardServiceTest {
   @Mock
   private KafkaUtil kafkaUtil;
 
-  @InjectMocks
+  @Mock
+  private OutboxService outboxService;
+
   private DebitCardImpl debitCardService;
 
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
+    DebitCardCache cache = new DebitCardCache(new SimpleMeterRegistry(), 100,
+        Duration.ofMinutes(1));
+    debitCardService = new DebitCardImpl(repo, outboxService, cache,
+        new DebitCardCacheSynchronizer(cache, kafkaUtil));
   }
 
   @Test
@@ -68,67 +79,99 @@ public class DebitCardServiceTest {
   @Test
   public void testDelete() {
     String id = UUID.randomUUID().toString();
+    when(repo.findById(id)).thenReturn(Mono.empty());
     when(repo.deleteById(id)).thenReturn(Mono.empty());
     Mono<Void> result = debitCardService.delete(id);
     assertNotNull(result);
   }
 
+  @Test
+  public void testDelete_ShouldEvictTheCardNumberEntryOnEveryInstance() {
+    String cardNumber = "1234567890123456";
+    DebitCard debitCard = DebitCard.builder().id("card-1").cardNumber(cardNumber).build();
+    when(repo.findByCardNumber(cardNumber)).thenReturn(Mono.just(debitCard), Mono.empty());
+    when(repo.findById("card-1")).thenReturn(Mono.just(debitCard));
+    when(repo.deleteById("card-1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .expectNext(debitCard)
+        .verifyComplete();
+    StepVerifier.create(debitCardService.delete("card-1"))
+        .verifyComplete();
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .verifyComplete();
+
+    verify(repo, times(2)).findByCardNumber(cardNumber);
+    verify(kafkaUtil).sendMessage(any(), eq(cardNumber), argThat(event ->
+        event instanceof DebitCardChangedEvent changed
+            && DebitCardCacheSynchronizer.CHANGE_DELETED.equals(changed.getChangeType())
+            && cardNumber.equals(changed.getCardNumber())));
+  }
+
   @Test
   public void testAddLinkedAccount() {
     String debitCardId = UUID.randomUUID().toString();
     String accountId = UUID.randomUUID().toString();
-    DebitCard debitCard = new DebitCard();
+    DebitCard debitCard = DebitCard.builder().id(debitCardId).linkedAccounts(Set.of(accountId))
+        .build();
 
     // Mock repository behavior for a found debit card
-    when(repo.findById(debitCardId)).thenReturn(Mono.just(debitCard));
-    when(repo.save(debitCard)).thenReturn(Mono.just(debitCard));
+    when(repo.addLinkedAccounts(debitCardId, Set.of(accountId))).thenReturn(Mono.just(debitCard));
 
     // Test case where the debit card is found and linked account is added
     StepVerifier.create(debitCardService.addLinkedAccount(debitCardId, accountId))
         .expectNext(debitCard)
         .verifyComplete();
 
-    verify(repo, times(1)).findById(debitCardId);
-    verify(repo, times(1)).save(debitCard);
+    verify(repo, times(1)).addLinkedAccounts(debitCardId, Set.of(accountId));
+    verify(repo, never()).save(any());
 
     // Mock repository behavior for a not found debit card
-    when(repo.findById(debitCardId)).thenReturn(Mono.empty());
+    when(repo.addLinkedAccounts(debitCardId, Set.of(accountId))).thenReturn(Mono.empty());
 
     // Test case where the debit card is not found
     StepVerifier.create(debitCardService.addLinkedAccount(debitCardId, accountId))
         .verifyComplete();
 
-    verify(repo, times(2)).findById(debitCardId); // Called twice in total
+    verify(repo, times(2)).addLinkedAccounts(debitCardId, Set.of(accountId));
   }
 
   @Test
   public void testRemoveLinkedAccount() {
     String debitCardId = UUID.randomUUID().toString();
     String accountId = UUID.randomUUID().toString();
-    DebitCard debitCard = new DebitCard();
+    DebitCard debitCard = DebitCard.builder().id(debitCardId).linkedAccounts(Set.of()).build();
 
     // Mock repository behavior for a found debit card
-    when(repo.findById(debitCardId)).thenReturn(Mono.just(debitCard));
-    when(repo.save(debitCard)).thenReturn(Mono.just(debitCard));
+    when(repo.removeLinkedAccounts(debitCardId, Set.of(accountId)))
+        .thenReturn(Mono.just(debitCard));
 
     // Test case where the debit card is found and  account is removed
     StepVerifier.create(debitCardService.removeLinkedAccount(debitCardId, accountId))
         .expectNext(debitCard)
         .verifyComplete();
 
-    verify(repo, times(1)).findById(debitCardId);
-    verify(repo, times(1)).save(debitCard);
+    verify(repo, times(1)).removeLinkedAccounts(debitCardId, Set.of(accountId));
+    verify(repo, never()).save(any());
 
     // Mock repository behavior for a not found debit card
-    when(repo.findById(debitCardId)).thenReturn(Mono.empty());
+    when(repo.removeLinkedAccounts(debitCardId, Set.of(accountId))).thenReturn(Mono.empty());
 
     // Test case where the debit card is not found
     StepVerifier.create(debitCardService.removeLinkedAccount(debitCardId, accountId))
         .verifyComplete();
 
-    verify(repo, times(2)).findById(debitCardId); // Called twice in total
+    verify(repo, times(2)).removeLinkedAccounts(debitCardId, Set.of(accountId));
   }
 
+  @Test
+  public void testAddLinkedAccounts_ShouldRejectEmptyBatch() {
+    StepVerifier.create(debitCardService.addLinkedAccounts("card-1", Set.of()))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+
+    verify(repo, never()).addLinkedAccounts(any(), any());
+  }
 
   @Test
   public void testFindByCardNumber() {
@@ -141,8 +184,118 @@ public class DebitCardServiceTest {
   @Test
   public void testSendKafkaMessage() {
     GenericEvent event = new GenericEvent();
-    doNothing().when(kafkaUtil).sendMessage(event);
-    Mono<Void> result = debitCardService.sendKafkaMessage(event);
-    assertNotNull(result);
+    when(outboxService.enqueue(event)).thenReturn(Mono.empty());
+    StepVerifier.create(debitCardService.sendKafkaMessage(event))
+        .verifyComplete();
+    verify(outboxService).enqueue(event);
+    verifyNoInteractions(kafkaUtil);
+  }
+
+  @Test
+  public void testFindByCardNumber_ShouldServeRepeatedLookupsFromCache() {
+    String cardNumber = "1234567890123456";
+    DebitCard debitCard = DebitCard.builder().id("card-1").cardNumber(cardNumber).build();
+    when(repo.findByCardNumber(cardNumber)).thenReturn(Mono.just(debitCard));
+
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .expectNext(debitCard)
+        .verifyComplete();
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .expectNext(debitCard)
+        .verifyComplete();
+    StepVerifier.create(debitCardService.findById("card-1"))
+        .expectNext(debitCard)
+        .verifyComplete();
+
+    verify(repo, times(1)).findByCardNumber(cardNumber);
+    verify(repo, never()).findById("card-1");
+  }
+
+  @Test
+  public void testFindByCardNumber_ShouldNotShareTheCachedCard() {
+    String cardNumber = "1234567890123456";
+    DebitCard debitCard = DebitCard.builder().id("card-1").cardNumber(cardNumber)
+        .linkedAccounts(new HashSet<>(Set.of("2"))).build();
+    when(repo.findByCardNumber(cardNumber)).thenReturn(Mono.just(debitCard));
+
+    DebitCard first = debitCardService.findByCardNumber(cardNumber).block();
+    first.setStatus("blocked");
+    first.getLinkedAccounts().add("3");
+
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .assertNext(card -> {
+          assertNotSame(first, card);
+          assertEquals("active", card.getStatus());
+          assertEquals(Set.of("2"), card.getLinkedAccounts());
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  public void testFindByCardNumber_ShouldNotCacheLookupsStartedBeforeAChange() {
+    String cardNumber = "1234567890123456";
+    DebitCard before = DebitCard.builder().id("card-1").cardNumber(cardNumber)
+        .mainAccountId("1").build();
+    DebitCard after = before.toBuilder().mainAccountId("2").build();
+    Sinks.One<DebitCard> inFlight = Sinks.one();
+    when(repo.findByCardNumber(cardNumber)).thenReturn(inFlight.asMono(), Mono.just(after));
+    when(repo.findById("card-1")).thenReturn(Mono.just(after));
+    when(repo.save(after)).thenReturn(Mono.just(after));
+
+    Mono<DebitCard> lookup = debitCardService.findByCardNumber(cardNumber).cache();
+    lookup.subscribe();
+    StepVerifier.create(debitCardService.update(after)).expectNextCount(1).verifyComplete();
+    inFlight.tryEmitValue(before);
+
+    StepVerifier.create(lookup.map(DebitCard::getMainAccountId)).expectNext("1")
+        .verifyComplete();
+    StepVerifier.create(debitCardService.findById("card-1").map(DebitCard::getMainAccountId))
+        .expectNext("2")
+        .verifyComplete();
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber)
+            .map(DebitCard::getMainAccountId))
+        .expectNext("2")
+        .verifyComplete();
+    verify(repo, times(2)).findByCardNumber(cardNumber);
+  }
+
+  @Test
+  public void testUpdate_ShouldInvalidateCachedCard() {
+    String cardNumber = "1234567890123456";
+    DebitCard debitCard = DebitCard.builder().id("card-1").cardNumber(cardNumber).build();
+    when(repo.findByCardNumber(cardNumber)).thenReturn(Mono.just(debitCard));
+    when(repo.save(debitCard)).thenReturn(Mono.just(debitCard));
+
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .expectNext(debitCard)
+        .verifyComplete();
+    StepVerifier.create(debitCardService.update(debitCard))
+        .expectNext(debitCard)
+        .verifyComplete();
+    StepVerifier.create(debitCardService.findByCardNumber(cardNumber))
+        .expectNext(debitCard)
+        .verifyComplete();
+
+    verify(repo, times(2)).findByCardNumber(cardNumber);
+  }
+
+  @Test
+  public void testFindPage_ShouldNeverProjectCvv() {
+    when(repo.findPage(eq("1000"), eq(10), anyCollection())).thenReturn(Flux.empty());
+
+    StepVerifier.create(debitCardService.findPage("1000", 10, null))
+        .verifyComplete();
+
+    verify(repo).findPage(eq("1000"), eq(10),
+        argThat(fields -> fields.contains("cardNumber") && !fields.contains("cvv")));
+  }
+
+  @Test
+  public void testFindPage_ShouldRejectUnknownFields() {
+    StepVerifier.create(debitCardService.findPage(null, 10, Set.of("cvv")))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+
+    verify(repo, never()).findPage(any(), anyInt(), any());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class FundingAccountSelectorTest {
+
+  private AccountService accountService;
+  private SimpleMeterRegistry meterRegistry;
+  private FundingAccountSelector selector;
+
+  @BeforeEach
+  void setUp() {
+    accountService = mock(AccountService.class);
+    meterRegistry = new SimpleMeterRegistry();
+    selector = new FundingAccountSelector(accountService, meterRegistry, true, 5);
+  }
+
+  @Test
+  void select_ShouldPreferTheMainAccountWhenItCoversTheAmount() {
+    when(accountService.findById("1")).thenReturn(Mono.just(account("1", 100)));
+    when(accountService.findById("2")).thenReturn(Mono.just(account("2", 500)));
+
+    StepVerifier.create(selector.select(card("2"), BigDecimal.TEN))
+        .expectNext("1")
+        .verifyComplete();
+
+    assertEquals(1, selections("main"));
+  }
+
+  @Test
+  void select_ShouldFallBackToTheFirstLinkedAccountInPriorityOrder() {
+    when(accountService.findById("1")).thenReturn(Mono.just(account("1", 5)));
+    when(accountService.findById("2")).thenReturn(Mono.just(account("2", 50)
+        .toBuilder().status("closed").build()));
+    when(accountService.findById("3"))
+        .thenReturn(Mono.just(account("3", 20)).delayElement(Duration.ofMillis(50)));
+    when(accountService.findById("4")).thenReturn(Mono.just(account("4", 80)));
+
+    StepVerifier.create(selector.select(card("2", "3", "4"), BigDecimal.TEN))
+        .expectNext("3")
+        .verifyComplete();
+
+    verify(accountService, times(1)).findById("4");
+    assertEquals(1, selections("linked"));
+  }
+
+  @Test
+  void select_ShouldProbeTheAccountsInParallel() {
+    when(accountService.findById(anyString())).thenAnswer(invocation ->
+        Mono.just(account(invocation.getArgument(0), 0)).delayElement(Duration.ofMillis(200)));
+
+    long start = System.nanoTime();
+    StepVerifier.create(selector.select(card("2", "3", "4"), BigDecimal.TEN))
+        .expectNext("1")
+        .verifyComplete();
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 600);
+    assertEquals(1, selections("none"));
+  }
+
+  @Test
+  void select_ShouldSkipAccountsThatCannotBeRead() {
+    when(accountService.findById("1")).thenReturn(Mono.error(
+        new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Account service unavailable")));
+    when(accountService.findById("2")).thenReturn(Mono.empty());
+    when(accountService.findById("3")).thenReturn(Mono.just(account("3", 20)));
+
+    StepVerifier.create(selector.select(card("2", "3"), BigDecimal.TEN))
+        .expectNext("3")
+        .verifyComplete();
+  }
+
+  @Test
+  void select_ShouldUseTheMainAccountWithoutProbingWhenThereAreNoLinkedAccounts() {
+    StepVerifier.create(selector.select(card(), BigDecimal.TEN))
+        .expectNext("1")
+        .verifyComplete();
+
+    verifyNoInteractions(accountService);
+  }
+
+  private double selections(String source) {
+    return meterRegistry.get("debitcard.funding.selections").tag("source", source).counter()
+        .count();
+  }
+
+  private static DebitCard card(String... linkedAccounts) {
+    return DebitCard.builder()
+        .mainAccountId("1")
+        .linkedAccounts(new LinkedHashSet<>(List.of(linkedAccounts)))
+        .build();
+  }
+
+  private static BankAccountResponse account(String id, long balance) {
+    return BankAccountResponse.builder()
+        .id(id)
+        .status("active")
+        .balance(BigDecimal.valueOf(balance))
+        .build();
+  }
+
+}
@@ -0,0 +1,181 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.OutboxMessage;
+import com.nttbank.microservices.debitcardservice.util.KafkaUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class OutboxRelayTest {
+
+  private ReactiveMongoTemplate template;
+  private OutboxService outboxService;
+  private KafkaUtil kafkaUtil;
+  private SimpleMeterRegistry meterRegistry;
+  private OutboxRelay relay;
+  private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeEach
+  void setUp() throws Exception {
+    template = mock(ReactiveMongoTemplate.class);
+    outboxService = mock(OutboxService.class);
+    kafkaUtil = mock(KafkaUtil.class);
+    meterRegistry = new SimpleMeterRegistry();
+    relay = new OutboxRelay(template, outboxService, kafkaUtil, meterRegistry);
+    setPrivateField("batchSize", 500);
+    setPrivateField("lease", Duration.ofSeconds(30));
+    setPrivateField("maxAttempts", 3);
+
+    when(outboxService.deserialize(any())).thenAnswer(invocation ->
+        DebitCardTransactionEvent.builder()
+            .transId(invocation.<OutboxMessage>getArgument(0).getId())
+            .build());
+    when(template.updateMulti(any(Query.class), any(Update.class), eq(OutboxMessage.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    when(template.updateFirst(any(Query.class), any(Update.class), eq(OutboxMessage.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+  }
+
+  @Test
+  void relayBatch_ShouldStopAKeyAtItsFirstFailedSend() {
+    List<OutboxMessage> messages = List.of(message("a1", "A", 0), message("b1", "B", 0),
+        message("a2", "A", 0), message("a3", "A", 0));
+    claim(messages);
+    when(kafkaUtil.sendAndAwait(any(), any(), any(), any())).thenAnswer(invocation -> {
+      String id = invocation.<DebitCardTransactionEvent>getArgument(2).getTransId();
+      sent.add(id);
+      return "a2".equals(id) ? Mono.error(new IllegalStateException("broker down"))
+          : Mono.empty();
+    });
+
+    StepVerifier.create(relay.relayBatch())
+        .expectNext(2)
+        .verifyComplete();
+
+    assertFalse(sent.contains("a3"));
+    assertTrue(sent.indexOf("a1") < sent.indexOf("a2"));
+    ArgumentCaptor<Update> failure = ArgumentCaptor.forClass(Update.class);
+    verify(template).updateFirst(any(Query.class), failure.capture(), eq(OutboxMessage.class));
+    assertEquals(1, failure.getValue().getUpdateObject().get("$inc", Document.class)
+        .get("attempts"));
+    assertNull(failure.getValue().getUpdateObject().get("$set"));
+  }
+
+  @Test
+  void relayBatch_ShouldMoveMessagesToTheDeadLettersAfterTheMaxAttempts() {
+    claim(List.of(message("a1", "A", 2)));
+    when(kafkaUtil.sendAndAwait(any(), any(), any(), any()))
+        .thenReturn(Mono.error(new IllegalStateException("broker down")));
+
+    StepVerifier.create(relay.relayBatch())
+        .expectNext(0)
+        .verifyComplete();
+
+    ArgumentCaptor<Update> failure = ArgumentCaptor.forClass(Update.class);
+    verify(template).updateFirst(any(Query.class), failure.capture(), eq(OutboxMessage.class));
+    Document set = failure.getValue().getUpdateObject().get("$set", Document.class);
+    assertEquals(OutboxMessage.STATUS_FAILED, set.get("status"));
+    assertEquals("broker down", set.get("lastError"));
+    assertEquals(1.0, meterRegistry.get("debitcard.outbox.relay.dead.letters").counter().count());
+  }
+
+  @Test
+  void relayBatch_ShouldNotClaimPastAMessageLeasedByAnotherInstance() {
+    OutboxMessage leased = message("a1", "A", 0);
+    leased.setClaimedBy("other");
+    leased.setClaimedUntil(LocalDateTime.now().plusSeconds(30));
+    when(template.find(any(Query.class), eq(OutboxMessage.class)))
+        .thenReturn(Flux.just(leased, message("a2", "A", 0), message("b1", "B", 0)),
+            Flux.just(claimed(message("b1", "B", 0))));
+    when(kafkaUtil.sendAndAwait(any(), any(), any(), any())).thenAnswer(invocation -> {
+      sent.add(invocation.<DebitCardTransactionEvent>getArgument(2).getTransId());
+      return Mono.empty();
+    });
+
+    StepVerifier.create(relay.relayBatch())
+        .expectNext(1)
+        .verifyComplete();
+
+    assertEquals(List.of("b1"), sent);
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    verify(template, times(2)).updateMulti(queries.capture(), any(Update.class),
+        eq(OutboxMessage.class));
+    assertEquals(List.of("b1"), queries.getAllValues().get(0).getQueryObject()
+        .get("id", Document.class).get("$in"));
+  }
+
+  @Test
+  void relayBatch_ShouldReleaseAKeyWhoseOlderMessageWasClaimedElsewhere() {
+    OutboxMessage claimedElsewhere = message("a1", "A", 0);
+    claimedElsewhere.setClaimedBy("other");
+    when(template.find(any(Query.class), eq(OutboxMessage.class)))
+        .thenReturn(Flux.just(message("a1", "A", 0), message("a2", "A", 0)),
+            Flux.just(claimedElsewhere, claimed(message("a2", "A", 0))));
+
+    StepVerifier.create(relay.relayBatch())
+        .expectNext(0)
+        .verifyComplete();
+
+    verifyNoInteractions(kafkaUtil);
+    ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+    verify(template, times(2)).updateMulti(any(Query.class), updates.capture(),
+        eq(OutboxMessage.class));
+    assertTrue(updates.getAllValues().get(1).getUpdateObject().containsKey("$unset"));
+  }
+
+  private void claim(List<OutboxMessage> messages) {
+    when(template.find(any(Query.class), eq(OutboxMessage.class)))
+        .thenReturn(Flux.fromIterable(messages),
+            Flux.fromIterable(messages.stream().map(this::claimed).toList()));
+  }
+
+  private OutboxMessage claimed(OutboxMessage message) {
+    try {
+      Field field = OutboxRelay.class.getDeclaredField("instanceId");
+      field.setAccessible(true);
+      message.setClaimedBy((String) field.get(relay));
+      return message;
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static OutboxMessage message(String id, String key, int attempts) {
+    return OutboxMessage.builder()
+        .id(id)
+        .topic("nttbank")
+        .messageKey(key)
+        .traceHeaders(Map.of())
+        .status(OutboxMessage.STATUS_PENDING)
+        .attempts(attempts)
+        .createdAt(LocalDateTime.now())
+        .build();
+  }
+
+  private void setPrivateField(String fieldName, Object value) throws Exception {
+    Field field = OutboxRelay.class.getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(relay, value);
+  }
+
+}
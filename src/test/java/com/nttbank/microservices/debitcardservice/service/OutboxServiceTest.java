@@ -0,0 +1,74 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.OutboxMessage;
+import com.nttbank.microservices.debitcardservice.util.TracingSupport;
+import io.micrometer.tracing.propagation.Propagator;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class OutboxServiceTest {
+
+  private ReactiveMongoTemplate template;
+  private OutboxService outboxService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    template = mock(ReactiveMongoTemplate.class);
+    outboxService = new OutboxService(template, new ObjectMapper().findAndRegisterModules(),
+        new TracingSupport(Propagator.NOOP));
+    Field field = OutboxService.class.getDeclaredField("topicName");
+    field.setAccessible(true);
+    field.set(outboxService, "nttbank");
+    when(template.insert(any(OutboxMessage.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+  }
+
+  @Test
+  void testEnqueueStoresPendingMessage() throws Exception {
+    DebitCardTransactionEvent event = DebitCardTransactionEvent.builder()
+        .transId("transId")
+        .debitCardNumber("1234")
+        .amount(BigDecimal.TEN)
+        .status("completed")
+        .build();
+
+    StepVerifier.create(outboxService.enqueue(event))
+        .verifyComplete();
+
+    ArgumentCaptor<OutboxMessage> captor = ArgumentCaptor.forClass(OutboxMessage.class);
+    verify(template).insert(captor.capture());
+    OutboxMessage message = captor.getValue();
+    assertEquals("nttbank", message.getTopic());
+    assertEquals(OutboxMessage.STATUS_PENDING, message.getStatus());
+    assertEquals(DebitCardTransactionEvent.class.getName(), message.getPayloadType());
+    assertNotNull(message.getCreatedAt());
+    assertTrue(message.getTraceHeaders().isEmpty());
+
+    GenericEvent restored = outboxService.deserialize(message);
+    assertInstanceOf(DebitCardTransactionEvent.class, restored);
+    assertEquals("transId", ((DebitCardTransactionEvent) restored).getTransId());
+  }
+
+  @Test
+  void testDeserializeRejectsUnknownPayloadType() {
+    OutboxMessage message = OutboxMessage.builder()
+        .payloadType(String.class.getName())
+        .payload("\"value\"")
+        .build();
+
+    assertThrows(IllegalArgumentException.class, () -> outboxService.deserialize(message));
+  }
+
+}
@@ -0,0 +1,146 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardTransactions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TransactionLedgerTest {
+
+  private ReactiveMongoTemplate template;
+  private SimpleMeterRegistry meterRegistry;
+  private TransactionLedger ledger;
+
+  @BeforeEach
+  void setUp() {
+    template = mock(ReactiveMongoTemplate.class);
+    meterRegistry = new SimpleMeterRegistry();
+    ledger = new TransactionLedger(template, meterRegistry, 10, Duration.ofMillis(50), 2, 2, 12);
+  }
+
+  @AfterEach
+  void tearDown() {
+    ledger.shutdown();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void record_ShouldWriteConcurrentEntriesAsOneBatch() {
+    when(template.insertAll(anyCollection()))
+        .thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+    Flux.range(1, 10)
+        .flatMap(i -> ledger.record(transfer("trans-" + i), result("completed")))
+        .then()
+        .block(Duration.ofSeconds(5));
+
+    ArgumentCaptor<Collection<DebitCardTransactions>> captor =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(template, times(1)).insertAll(captor.capture());
+    List<DebitCardTransactions> entries = List.copyOf(captor.getValue());
+    assertEquals(10, entries.size());
+    DebitCardTransactions entry = entries.get(0);
+    assertNotNull(entry.getId());
+    assertEquals("1234", entry.getDebitCardNumber());
+    assertEquals(DebitCardTransactions.monthOf(entry.getCreatedAt()), entry.getMonth());
+    assertEquals("DEPOSIT_DEBIT_CARD", entry.getType());
+    assertEquals("completed", entry.getStatus());
+    assertEquals(10.0, meterRegistry.get("debitcard.ledger.batch.size").summary().totalAmount());
+  }
+
+  @Test
+  void record_ShouldRetryTransientFailures() {
+    when(template.insertAll(anyCollection()))
+        .thenReturn(Flux.error(new QueryTimeoutException("timeout")))
+        .thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+
+    StepVerifier.create(ledger.record(transfer("trans-1"), result("error")))
+        .verifyComplete();
+
+    verify(template, times(2)).insertAll(anyCollection());
+  }
+
+  @Test
+  void record_ShouldSkipTransfersThatAreAlreadyRecorded() {
+    when(template.insertAll(anyCollection()))
+        .thenReturn(Flux.error(new DuplicateKeyException("duplicate transactionId")));
+    when(template.insert(any(DebitCardTransactions.class)))
+        .thenAnswer(invocation -> {
+          DebitCardTransactions entry = invocation.getArgument(0);
+          return "trans-1".equals(entry.getTransactionId())
+              ? Mono.error(new DuplicateKeyException("duplicate transactionId"))
+              : Mono.just(entry);
+        });
+
+    StepVerifier.create(Flux.merge(ledger.record(transfer("trans-1"), result("completed")),
+            ledger.record(transfer("trans-2"), result("completed"))))
+        .verifyComplete();
+
+    verify(template, times(1)).insertAll(anyCollection());
+    verify(template, times(2)).insert(any(DebitCardTransactions.class));
+  }
+
+  @Test
+  void findPage_ShouldRejectRangesLongerThanTheLimit() {
+    StepVerifier.create(ledger.findPage("1234", LocalDateTime.of(2023, 1, 1, 0, 0),
+            LocalDateTime.of(2024, 6, 1, 0, 0), null, 10))
+        .verifyError(IllegalArgumentException.class);
+
+    verifyNoInteractions(template);
+  }
+
+  @Test
+  void findPage_ShouldQueryTheMonthBucketsOfTheRange() {
+    when(template.find(any(Query.class), eq(DebitCardTransactions.class)))
+        .thenReturn(Flux.empty());
+
+    StepVerifier.create(ledger.findPage("1234", LocalDateTime.of(2024, 1, 15, 0, 0),
+            LocalDateTime.of(2024, 3, 1, 0, 0), "65a0000000000000000000ff", 10))
+        .verifyComplete();
+
+    ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+    verify(template).find(captor.capture(), eq(DebitCardTransactions.class));
+    Query query = captor.getValue();
+    assertEquals(List.of("2024-01", "2024-02"),
+        query.getQueryObject().get("month", Document.class).get("$in"));
+    assertEquals(10, query.getLimit());
+  }
+
+  private static TransferDebitCardEvent transfer(String transactionId) {
+    TransferDebitCardEvent transfer = new TransferDebitCardEvent();
+    transfer.setDebitCardNumber("1234");
+    transfer.setType("DEPOSIT_DEBIT_CARD");
+    transfer.setAccountId("2");
+    transfer.setTransactionId(transactionId);
+    transfer.setAmount(BigDecimal.ONE);
+    return transfer;
+  }
+
+  private static DebitCardTransactionEvent result(String status) {
+    return DebitCardTransactionEvent.builder()
+        .status(status)
+        .balanceUpdated(BigDecimal.TEN)
+        .build();
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.nttbank.microservices.debitcardservice.model.entity.ProcessedTransfer;
+import com.nttbank.microservices.debitcardservice.service.TransferIdempotencyStore.Claim;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TransferIdempotencyStoreTest {
+
+  private ReactiveMongoTemplate template;
+  private TransferIdempotencyStore store;
+
+  @BeforeEach
+  void setUp() {
+    template = mock(ReactiveMongoTemplate.class);
+    store = new TransferIdempotencyStore(template, new SimpleMeterRegistry(), 100,
+        Duration.ofMinutes(1), Duration.ofMinutes(2));
+  }
+
+  @Test
+  void tryAcquire_ShouldClaimNewTransactions() {
+    when(template.insert(any(ProcessedTransfer.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    StepVerifier.create(store.tryAcquire("trans-1", "1234"))
+        .expectNext(Claim.NEW)
+        .verifyComplete();
+
+    verify(template, times(1)).insert(any(ProcessedTransfer.class));
+  }
+
+  @Test
+  void tryAcquire_ShouldFailWhileAnotherDeliveryHoldsTheClaim() {
+    when(template.insert(any(ProcessedTransfer.class)))
+        .thenReturn(Mono.error(new DuplicateKeyException("duplicate key")));
+    when(template.findAndModify(any(Query.class), any(Update.class), eq(ProcessedTransfer.class)))
+        .thenReturn(Mono.empty());
+    when(template.findById("trans-1", ProcessedTransfer.class))
+        .thenReturn(Mono.just(ProcessedTransfer.builder()
+            .transactionId("trans-1")
+            .status(ProcessedTransfer.STATUS_IN_FLIGHT)
+            .build()));
+
+    StepVerifier.create(store.tryAcquire("trans-1", "1234"))
+        .expectError(IllegalStateException.class)
+        .verify();
+  }
+
+  @Test
+  void tryAcquire_ShouldTakeOverExpiredClaimsAndResumeFromTheStoredResult() {
+    ProcessedTransfer.TransferResult result = ProcessedTransfer.TransferResult.builder()
+        .status("completed")
+        .build();
+    when(template.insert(any(ProcessedTransfer.class)))
+        .thenReturn(Mono.error(new DuplicateKeyException("duplicate key")));
+    when(template.findAndModify(any(Query.class), any(Update.class), eq(ProcessedTransfer.class)))
+        .thenReturn(Mono.just(ProcessedTransfer.builder()
+            .transactionId("trans-1")
+            .status(ProcessedTransfer.STATUS_IN_FLIGHT)
+            .result(result)
+            .build()));
+
+    StepVerifier.create(store.tryAcquire("trans-1", "1234"))
+        .assertNext(claim -> {
+          assertTrue(claim.acquired());
+          assertEquals(result, claim.result());
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void tryAcquire_ShouldRejectCompletedTransactionsAsDuplicates() {
+    when(template.insert(any(ProcessedTransfer.class)))
+        .thenReturn(Mono.error(new DuplicateKeyException("duplicate key")));
+    when(template.findAndModify(any(Query.class), any(Update.class), eq(ProcessedTransfer.class)))
+        .thenReturn(Mono.empty());
+    when(template.findById("trans-1", ProcessedTransfer.class))
+        .thenReturn(Mono.just(ProcessedTransfer.builder()
+            .transactionId("trans-1")
+            .status("completed")
+            .build()));
+
+    StepVerifier.create(store.tryAcquire("trans-1", "1234"))
+        .assertNext(claim -> assertFalse(claim.acquired()))
+        .verifyComplete();
+    StepVerifier.create(store.tryAcquire("trans-1", "1234"))
+        .expectNext(Claim.DUPLICATE)
+        .verifyComplete();
+
+    verify(template, times(1)).insert(any(ProcessedTransfer.class));
+  }
+
+  @Test
+  void release_ShouldDeleteClaimsWithoutResultAndExpireTheOthers() {
+    when(template.remove(any(Query.class), eq(ProcessedTransfer.class)))
+        .thenReturn(Mono.just(DeleteResult.acknowledged(0)));
+    when(template.updateFirst(any(Query.class), any(Update.class), eq(ProcessedTransfer.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+    StepVerifier.create(store.release("trans-1")).verifyComplete();
+
+    verify(template, times(1)).remove(any(Query.class), eq(ProcessedTransfer.class));
+    verify(template, times(1))
+        .updateFirst(any(Query.class), any(Update.class), eq(ProcessedTransfer.class));
+  }
+
+  @Test
+  void tryAcquire_ShouldAlwaysProcessEventsWithoutTransactionId() {
+    StepVerifier.create(store.tryAcquire(null, "1234")).expectNext(Claim.NEW).verifyComplete();
+
+    verify(template, never()).insert(any(ProcessedTransfer.class));
+  }
+}
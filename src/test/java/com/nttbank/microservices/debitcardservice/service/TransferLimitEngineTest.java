@@ -0,0 +1,159 @@
+package com.nttbank.microservices.debitcardservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCardAggregate;
+import com.nttbank.microservices.debitcardservice.model.response.BankAccountResponse;
+import com.nttbank.microservices.debitcardservice.service.TransferLimitEngine.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TransferLimitEngineTest {
+
+  private AccountService accountService;
+  private CardAggregateStore aggregates;
+  private SimpleMeterRegistry meterRegistry;
+  private TransferLimitEngine engine;
+
+  @BeforeEach
+  void setUp() {
+    accountService = mock(AccountService.class);
+    aggregates = mock(CardAggregateStore.class);
+    meterRegistry = new SimpleMeterRegistry();
+    engine = new TransferLimitEngine(accountService, aggregates, meterRegistry, true);
+    when(aggregates.findDay(any(), any())).thenReturn(Mono.just(aggregate(0)));
+    when(aggregates.findMonth(any(), any())).thenReturn(Mono.just(aggregate(0)));
+  }
+
+  @Test
+  void authorize_ShouldApproveTransfersWithinTheLimits() {
+    when(accountService.findById("3")).thenReturn(Mono.just(account()));
+
+    StepVerifier.create(engine.authorize(transfer("DEPOSIT_DEBIT_CARD", 50), card("active"),
+            "3"))
+        .verifyComplete();
+
+    assertEquals(1, decisions("DEPOSIT_DEBIT_CARD", "approved"));
+  }
+
+  @Test
+  void authorize_ShouldOnlyCheckTheCardOfTopUps() {
+    StepVerifier.create(engine.authorize(transfer("WITHDRAW_DEBIT_CARD", 5000), card("active"),
+            "2"))
+        .verifyComplete();
+
+    verifyNoInteractions(accountService, aggregates);
+    assertEquals(1, decisions("WITHDRAW_DEBIT_CARD", "approved"));
+  }
+
+  @Test
+  void authorize_ShouldCheckTheSourceAccountOfDeposits() {
+    when(accountService.findById("3")).thenReturn(Mono.just(account()));
+
+    StepVerifier.create(engine.authorize(transfer("DEPOSIT_DEBIT_CARD", 500), card("active"),
+            "3"))
+        .expectErrorMatches(e -> e instanceof IllegalArgumentException
+            && e.getMessage().equals("Amount exceeds the maximum withdraw amount"))
+        .verify();
+
+    verify(accountService, never()).findById("1");
+    assertEquals(1, decisions("DEPOSIT_DEBIT_CARD", "amount_exceeded"));
+  }
+
+  @Test
+  void authorize_ShouldRejectInactiveCardsWithoutReadingTheAccount() {
+    StepVerifier.create(engine.authorize(transfer("WITHDRAW_DEBIT_CARD", 50), card("blocked"),
+            "2"))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+
+    verifyNoInteractions(accountService, aggregates);
+    assertEquals(1, decisions("WITHDRAW_DEBIT_CARD", "card_inactive"));
+  }
+
+  @Test
+  void authorize_ShouldRejectUnknownAccounts() {
+    when(accountService.findById("3")).thenReturn(Mono.empty());
+
+    StepVerifier.create(engine.authorize(transfer("DEPOSIT_DEBIT_CARD", 50), card("active"),
+            "3"))
+        .expectErrorMessage("Account not found")
+        .verify();
+  }
+
+  @Test
+  void authorize_ShouldSkipChecksWhenDisabled() {
+    engine = new TransferLimitEngine(accountService, aggregates, meterRegistry, false);
+
+    StepVerifier.create(engine.authorize(transfer("WITHDRAW_DEBIT_CARD", 5000), card("blocked"),
+            "2"))
+        .verifyComplete();
+
+    verifyNoInteractions(accountService);
+  }
+
+  @Test
+  void decide_ShouldCheckTheDailyAndMonthlyCounters() {
+    TransferDebitCardEvent transfer = transfer("DEPOSIT_DEBIT_CARD", 50);
+
+    assertEquals(Decision.DAILY_OPERATIONS_EXCEEDED,
+        TransferLimitEngine.decide(transfer, account(), aggregate(3), aggregate(3)));
+    assertEquals(Decision.MONTHLY_TRANSACTIONS_EXCEEDED,
+        TransferLimitEngine.decide(transfer, account(), aggregate(2), aggregate(10)));
+    assertEquals(Decision.ACCOUNT_INACTIVE,
+        TransferLimitEngine.decide(transfer, account().toBuilder().status("closed").build(),
+            aggregate(0), aggregate(0)));
+    assertEquals(Decision.APPROVED,
+        TransferLimitEngine.decide(transfer, account().toBuilder().allowedDayOperation(null)
+            .maxMonthlyTrans(null).build(), aggregate(50), aggregate(50)));
+  }
+
+  @Test
+  void decide_ShouldOnlyCountTheDebitsOfTheCard() {
+    DebitCardAggregate day = aggregate(2).toBuilder().withdrawCount(20).build();
+    DebitCardAggregate month = aggregate(2).toBuilder().withdrawCount(20).build();
+
+    assertEquals(Decision.APPROVED,
+        TransferLimitEngine.decide(transfer("DEPOSIT_DEBIT_CARD", 50), account(), day, month));
+  }
+
+  private double decisions(String type, String decision) {
+    return meterRegistry.get("debitcard.limits.decisions")
+        .tags("type", type, "decision", decision).counter().count();
+  }
+
+  private static TransferDebitCardEvent transfer(String type, long amount) {
+    TransferDebitCardEvent transfer = new TransferDebitCardEvent();
+    transfer.setDebitCardNumber("1234");
+    transfer.setType(type);
+    transfer.setAccountId("2");
+    transfer.setTransactionId("transId");
+    transfer.setAmount(BigDecimal.valueOf(amount));
+    return transfer;
+  }
+
+  private static DebitCard card(String status) {
+    return DebitCard.builder().cardNumber("1234").mainAccountId("1").status(status).build();
+  }
+
+  private static BankAccountResponse account() {
+    return BankAccountResponse.builder()
+        .status("active")
+        .withdrawAmountMax(BigDecimal.valueOf(100))
+        .allowedDayOperation(3)
+        .maxMonthlyTrans(10)
+        .build();
+  }
+
+  private static DebitCardAggregate aggregate(long debitCount) {
+    return DebitCardAggregate.builder().depositCount(debitCount).build();
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.nttbank.microservices.debitcardservice.service.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.nttbank.microservices.debitcardservice.model.entity.DebitCard;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class IDebitCardRepoCustomImplTest {
+
+  private ReactiveMongoTemplate template;
+  private IDebitCardRepoCustomImpl repo;
+
+  @BeforeEach
+  void setUp() {
+    template = mock(ReactiveMongoTemplate.class);
+    repo = new IDebitCardRepoCustomImpl(template);
+  }
+
+  @Test
+  void findPage_ShouldLeaveUnselectedFieldsAbsent() {
+    DebitCard projected = new DebitCard();
+    projected.setId("1000");
+    projected.setCardNumber("1234");
+    when(template.find(any(Query.class), eq(DebitCard.class))).thenReturn(Flux.just(projected));
+
+    StepVerifier.create(repo.findPage(null, 10, List.of("id", "cardNumber")))
+        .assertNext(debitCard -> {
+          assertEquals("1234", debitCard.getCardNumber());
+          assertNull(debitCard.getCreatedAt());
+          assertNull(debitCard.getUpdatedAt());
+          assertNull(debitCard.getStatus());
+          assertNull(debitCard.getMainAccountId());
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void findPage_ShouldKeepSelectedDefaultedFields() {
+    LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+    DebitCard projected = DebitCard.builder().id("1000").status("blocked").createdAt(createdAt)
+        .build();
+    when(template.find(any(Query.class), eq(DebitCard.class))).thenReturn(Flux.just(projected));
+
+    StepVerifier.create(repo.findPage(null, 10, List.of("id", "status", "createdAt")))
+        .assertNext(debitCard -> {
+          assertEquals("blocked", debitCard.getStatus());
+          assertEquals(createdAt, debitCard.getCreatedAt());
+          assertNull(debitCard.getUpdatedAt());
+        })
+        .verifyComplete();
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Modifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+
+class BlockingCallReporterTest {
+
+  private static final BlockingMethod SLEEP =
+      new BlockingMethod("java.lang.Thread", "sleep", Modifier.STATIC);
+
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void testReportCountsBlockingCall() {
+    BlockingCallReporter reporter = new BlockingCallReporter(meterRegistry, false);
+
+    reporter.report(SLEEP);
+    reporter.report(SLEEP);
+
+    assertEquals(2, meterRegistry.get(BlockingCallReporter.METRIC)
+        .tag("method", "java.lang.Thread.sleep").counter().count());
+  }
+
+  @Test
+  void testReportFailsInFailMode() {
+    BlockingCallReporter reporter = new BlockingCallReporter(meterRegistry, true);
+
+    assertThrows(BlockingOperationError.class, () -> reporter.report(SLEEP));
+    assertEquals(1, meterRegistry.get(BlockingCallReporter.METRIC).counter().count());
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSpanExporterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testExportWritesOneLinePerSpan() throws Exception {
+    Path file = tempDir.resolve("traces/spans.jsonl");
+    FileSpanExporter exporter = new FileSpanExporter(file, objectMapper);
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+        .build();
+    Tracer tracer = tracerProvider.get("test");
+
+    Span parent = tracer.spanBuilder("debitcard.transfer").startSpan();
+    try (Scope ignored = parent.makeCurrent()) {
+      tracer.spanBuilder("debitcard.transfer.outbox").startSpan().end();
+    } finally {
+      parent.end();
+    }
+    tracerProvider.shutdown();
+
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2, lines.size());
+    JsonNode child = objectMapper.readTree(lines.get(0));
+    JsonNode root = objectMapper.readTree(lines.get(1));
+    assertEquals("debitcard.transfer.outbox", child.get("name").asText());
+    assertEquals(root.get("traceId").asText(), child.get("traceId").asText());
+    assertEquals(root.get("spanId").asText(), child.get("parentSpanId").asText());
+    assertTrue(root.get("parentSpanId").isNull());
+  }
+
+}
@@ -0,0 +1,82 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import reactor.test.StepVerifier;
+
+class KafkaUtilTest {
+
+  private KafkaTemplate<String, GenericEvent> kafkaTemplate;
+  private SimpleMeterRegistry meterRegistry;
+  private KafkaUtil kafkaUtil;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    kafkaTemplate = mock(KafkaTemplate.class);
+    meterRegistry = new SimpleMeterRegistry();
+    kafkaUtil = new KafkaUtil(kafkaTemplate, meterRegistry);
+  }
+
+  @Test
+  void testSendAndAwaitCompletesOnAck() {
+    GenericEvent event = new GenericEvent();
+    CompletableFuture<SendResult<String, GenericEvent>> future = new CompletableFuture<>();
+    when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
+
+    StepVerifier.create(kafkaUtil.sendAndAwait("topic", "1234", event))
+        .then(() -> future.complete(null))
+        .verifyComplete();
+
+    assertEquals(1, meterRegistry.get("debitcard.kafka.publish.latency")
+        .tag("outcome", "success").timer().count());
+  }
+
+  @Test
+  void testSendAndAwaitFailsWhenSendFails() {
+    GenericEvent event = new GenericEvent();
+    when(kafkaTemplate.send(any(ProducerRecord.class)))
+        .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker down")));
+
+    StepVerifier.create(kafkaUtil.sendAndAwait("topic", "1234", event))
+        .verifyError(KafkaException.class);
+
+    assertEquals(1, meterRegistry.get("debitcard.kafka.publish.latency")
+        .tag("outcome", "error").timer().count());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testSendAndAwaitAddsHeaders() {
+    GenericEvent event = new GenericEvent();
+    when(kafkaTemplate.send(any(ProducerRecord.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    StepVerifier.create(kafkaUtil.sendAndAwait("topic", "1234", event,
+            Map.of("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01")))
+        .verifyComplete();
+
+    ArgumentCaptor<ProducerRecord<String, GenericEvent>> captor =
+        ArgumentCaptor.forClass(ProducerRecord.class);
+    verify(kafkaTemplate).send(captor.capture());
+    ProducerRecord<String, GenericEvent> sent = captor.getValue();
+    assertEquals("topic", sent.topic());
+    assertEquals("1234", sent.key());
+    assertEquals("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01",
+        new String(sent.headers().lastHeader("traceparent").value(), StandardCharsets.UTF_8));
+  }
+
+}
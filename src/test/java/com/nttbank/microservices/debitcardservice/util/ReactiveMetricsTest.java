@@ -0,0 +1,48 @@
+package com.nttbank.microservices.debitcardservice.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveMetricsTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ReactiveMetrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    metrics = new ReactiveMetrics(meterRegistry);
+  }
+
+  @Test
+  void testTimesMonoOnlyWhenSubscribed() {
+    AtomicInteger calls = new AtomicInteger();
+    Mono<Integer> timed = metrics.time("test.mono", Mono.fromCallable(calls::incrementAndGet),
+        "method", "find");
+
+    assertEquals(0, meterRegistry.find("test.mono").timers().size());
+    StepVerifier.create(timed).expectNext(1).verifyComplete();
+
+    assertEquals(1, meterRegistry.get("test.mono")
+        .tags("method", "find", "outcome", "success", "exception", "none").timer().count());
+  }
+
+  @Test
+  void testTimesFluxErrorsWithExceptionTag() {
+    StepVerifier.create(metrics.time("test.flux",
+            Flux.concat(Flux.just(1), Flux.error(new IllegalStateException("boom")))))
+        .expectNext(1)
+        .verifyError(IllegalStateException.class);
+
+    assertEquals(1, meterRegistry.get("test.flux")
+        .tags("outcome", "error", "exception", "IllegalStateException").timer().count());
+  }
+
+}
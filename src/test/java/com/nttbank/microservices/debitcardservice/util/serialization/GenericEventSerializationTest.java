@@ -0,0 +1,96 @@
+package com.nttbank.microservices.debitcardservice.util.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.nttbank.microservices.commonlibrary.event.DebitCardTransactionEvent;
+import com.nttbank.microservices.commonlibrary.event.GenericEvent;
+import com.nttbank.microservices.commonlibrary.event.TransferDebitCardEvent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+class GenericEventSerializationTest {
+
+  private GenericEventDeserializer deserializer;
+
+  @BeforeEach
+  void setUp() {
+    deserializer = new GenericEventDeserializer();
+    deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES,
+        "com.nttbank.microservices.*"), false);
+  }
+
+  private GenericEventSerializer serializer(String format) {
+    GenericEventSerializer serializer = new GenericEventSerializer();
+    serializer.configure(Map.of(EventContentType.FORMAT_CONFIG, format), false);
+    return serializer;
+  }
+
+  private TransferDebitCardEvent transfer() {
+    TransferDebitCardEvent transfer = new TransferDebitCardEvent();
+    transfer.setTransactionId("transId");
+    transfer.setDebitCardNumber("1234");
+    transfer.setType("DEPOSIT_DEBIT_CARD");
+    transfer.setAccountId("2");
+    transfer.setAmount(new BigDecimal("10.25"));
+    return transfer;
+  }
+
+  @Test
+  void testAvroRoundTripWritesContentTypeHeader() {
+    RecordHeaders headers = new RecordHeaders();
+
+    byte[] data = serializer("avro").serialize("topic", headers, transfer());
+    GenericEvent event = deserializer.deserialize("topic", headers, data);
+
+    assertEquals(EventContentType.AVRO, new String(
+        headers.lastHeader(EventContentType.HEADER).value(), StandardCharsets.UTF_8));
+    TransferDebitCardEvent restored = assertInstanceOf(TransferDebitCardEvent.class, event);
+    assertEquals("transId", restored.getTransactionId());
+    assertEquals("1234", restored.getDebitCardNumber());
+    assertEquals(new BigDecimal("10.25"), restored.getAmount());
+  }
+
+  @Test
+  void testJsonAndAvroCoexist() {
+    RecordHeaders jsonHeaders = new RecordHeaders();
+    byte[] json = serializer("json").serialize("topic", jsonHeaders, transfer());
+
+    GenericEvent event = deserializer.deserialize("topic", jsonHeaders, json);
+
+    assertEquals(EventContentType.JSON, new String(
+        jsonHeaders.lastHeader(EventContentType.HEADER).value(), StandardCharsets.UTF_8));
+    assertEquals("transId", ((TransferDebitCardEvent) event).getTransactionId());
+  }
+
+  @Test
+  void testAvroWithoutHeadersIsDetectedByMarker() {
+    DebitCardTransactionEvent result = DebitCardTransactionEvent.builder()
+        .transId("transId")
+        .debitCardNumber("1234")
+        .balanceUpdated(BigDecimal.TEN)
+        .status("completed")
+        .build();
+
+    byte[] data = serializer("avro").serialize("topic", result);
+    GenericEvent event = deserializer.deserialize("topic", data);
+
+    DebitCardTransactionEvent restored = assertInstanceOf(DebitCardTransactionEvent.class, event);
+    assertEquals("completed", restored.getStatus());
+    assertEquals(BigDecimal.TEN, restored.getBalanceUpdated());
+  }
+
+  @Test
+  void testAvroIsSmallerThanJson() {
+    byte[] json = serializer("json").serialize("topic", new RecordHeaders(), transfer());
+    byte[] avro = serializer("avro").serialize("topic", new RecordHeaders(), transfer());
+
+    assertTrue(avro.length < json.length,
+        "avro " + avro.length + " bytes, json " + json.length + " bytes");
+  }
+
+}